@@ -113,9 +113,9 @@ class AISimilarityService:
         if self._check_text_structure(text):
             confidence += 0.2
         
-        # Add some randomness for realistic variation
-        import random
-        confidence += random.random() * 0.3
+        # Baseline (the mean of the random 0-0.3 term this used to add), so scores are
+        # deterministic and match the backend's AiTextDetector
+        confidence += 0.15
         
         is_ai = confidence > 0.5
         return is_ai, min(confidence, 1.0)
@@ -178,14 +178,18 @@ class AISimilarityService:
         
         return paraphrased
     
-    def analyze_text(self, text: str, check_paraphrasing: bool = False) -> Dict:
+    def analyze_text(self, text: str, check_paraphrasing: bool = False, score_matches: bool = True,
+                     web_search: bool = True) -> Dict:
         """
         Main analysis function.
         Returns analysis results as dictionary.
+        With score_matches=False the raw search results are returned under "searchResults"
+        and scoring is left to the caller. With web_search=False no searches are made and
+        only AI detection (and paraphrasing if requested) is performed.
         """
         try:
             # Extract search phrases
-            search_phrases = self.extract_search_phrases(text)
+            search_phrases = self.extract_search_phrases(text) if web_search else []
             
             # Perform Google searches
             search_results = []
@@ -200,7 +204,7 @@ class AISimilarityService:
             similarity_sources = []
             max_similarity = 0.0
             
-            for url, title, snippet in search_results:
+            for url, title, snippet in (search_results if score_matches else []):
                 similarity = self.calculate_similarity(text, snippet)
                 if similarity > 0.1:  # Only include relevant matches
                     similarity_sources.append({
@@ -228,6 +232,12 @@ class AISimilarityService:
                 "error": None
             }
             
+            if not score_matches:
+                response["searchResults"] = [
+                    {"url": url, "title": title, "snippet": snippet}
+                    for url, title, snippet in search_results
+                ]
+            
             # Add paraphrased text if requested
             if check_paraphrasing:
                 response["paraphrasedText"] = self.generate_paraphrased_text(text)
@@ -243,20 +253,149 @@ class AISimilarityService:
                 "error": f"Analysis failed: {str(e)}"
             }
 
+def read_text_file(path: str, offset: Optional[int] = None, length: Optional[int] = None) -> str:
+    """Read a UTF-8 document, or length bytes of it from offset; '-' reads standard input."""
+    if path == '-':
+        return sys.stdin.read()
+    if offset is not None:
+        with open(path, 'rb') as f:
+            f.seek(offset)
+            return f.read(length).decode('utf-8')
+    with open(path, 'r', encoding='utf-8') as f:
+        return f.read()
+
+def handle_request(service: AISimilarityService, request: Dict) -> Dict:
+    """
+    Runs one request of the worker/HTTP protocol:
+    {"text": "...", "paraphrasing": false, "scoring": true, "search": true}, or {"op": "ping"}.
+    Large documents are passed as {"path": "/tmp/..."} instead of "text", optionally with
+    "offset" and "length" in bytes to analyze one section of the file.
+    """
+    if request.get("op") == "ping":
+        return {"ok": True}
+    if request.get("path"):
+        text = read_text_file(request["path"], request.get("offset"), request.get("length"))
+    else:
+        text = request.get("text", "")
+    return service.analyze_text(text,
+                                bool(request.get("paraphrasing", False)),
+                                bool(request.get("scoring", True)),
+                                bool(request.get("search", True)))
+
+def run_worker(service: AISimilarityService):
+    """
+    Long-lived worker mode used by the Java worker pool.
+    Reads one JSON request per line from stdin and writes one JSON response per line to stdout.
+    Requests are those of handle_request plus an "id" that is echoed back.
+    """
+    for line in sys.stdin:
+        line = line.strip()
+        if not line:
+            continue
+        
+        request_id = None
+        try:
+            request = json.loads(line)
+            request_id = request.get("id")
+            response = handle_request(service, request)
+        except Exception as e:
+            response = {
+                "similarityScore": 0.0,
+                "matchedSources": [],
+                "aiDetected": False,
+                "aiConfidence": 0.0,
+                "error": f"Worker request failed: {str(e)}"
+            }
+        
+        response["id"] = request_id
+        sys.stdout.write(json.dumps(response) + "\n")
+        sys.stdout.flush()
+
+def run_server(service: AISimilarityService, host: str, port: int):
+    """
+    HTTP mode used by the Java remote analyzer client (ai.service.url / ai.backup.service.url).
+    POST /analyze takes a handle_request body and returns the analysis; GET /health answers 200.
+    "path" requests are refused since the file lives on the caller's machine.
+    """
+    from http.server import BaseHTTPRequestHandler, ThreadingHTTPServer
+    
+    class Handler(BaseHTTPRequestHandler):
+        def do_GET(self):
+            if self.path == '/health':
+                self._reply(200, {"ok": True})
+            else:
+                self._reply(404, {"error": "Not found"})
+        
+        def do_POST(self):
+            if self.path != '/analyze':
+                self._reply(404, {"error": "Not found"})
+                return
+            try:
+                length = int(self.headers.get('Content-Length', 0))
+                request = json.loads(self.rfile.read(length).decode('utf-8'))
+                if request.get("path"):
+                    self._reply(400, {"error": "path requests are not supported over HTTP"})
+                    return
+                self._reply(200, handle_request(service, request))
+            except Exception as e:
+                self._reply(500, {"error": f"Request failed: {str(e)}"})
+        
+        def _reply(self, status: int, body: Dict):
+            payload = json.dumps(body).encode('utf-8')
+            self.send_response(status)
+            self.send_header('Content-Type', 'application/json')
+            self.send_header('Content-Length', str(len(payload)))
+            self.end_headers()
+            self.wfile.write(payload)
+        
+        def log_message(self, format, *args):
+            pass
+    
+    server = ThreadingHTTPServer((host, port), Handler)
+    print(f"Serving analyses on http://{host}:{port}", file=sys.stderr)
+    try:
+        server.serve_forever()
+    except KeyboardInterrupt:
+        pass
+    finally:
+        server.server_close()
+
 def main():
     """Main function for command line usage."""
     parser = argparse.ArgumentParser(description='AI Similarity Service for Plagiarism Detection')
-    parser.add_argument('--text', '-t', required=True, help='Text to analyze')
+    parser.add_argument('--text', '-t', help='Text to analyze')
+    parser.add_argument('--file', help="UTF-8 file with the text to analyze ('-' reads stdin)")
     parser.add_argument('--paraphrasing', '-p', action='store_true', help='Check for paraphrasing')
     parser.add_argument('--format', '-f', choices=['json', 'pretty'], default='json', help='Output format')
+    parser.add_argument('--worker', '-w', action='store_true',
+                        help='Run as a long-lived worker speaking line-delimited JSON over stdin/stdout')
+    parser.add_argument('--serve', action='store_true',
+                        help='Serve analyses over HTTP (POST /analyze, GET /health)')
+    parser.add_argument('--host', default='127.0.0.1', help='Address to bind with --serve')
+    parser.add_argument('--port', type=int, default=5000, help='Port to listen on with --serve')
     
     args = parser.parse_args()
     
     # Create service instance
     service = AISimilarityService()
     
+    if args.worker:
+        run_worker(service)
+        return
+    
+    if args.serve:
+        run_server(service, args.host, args.port)
+        return
+    
+    if args.file is not None:
+        text = read_text_file(args.file)
+    elif args.text is not None:
+        text = args.text
+    else:
+        parser.error('--text or --file is required unless --worker or --serve is given')
+    
     # Analyze text
-    result = service.analyze_text(args.text, args.paraphrasing)
+    result = service.analyze_text(text, args.paraphrasing)
     
     # Output result
     if args.format == 'json':
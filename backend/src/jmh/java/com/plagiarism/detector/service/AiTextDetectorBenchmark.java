@@ -0,0 +1,50 @@
+package com.plagiarism.detector.service;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * In-JVM AI detection, which replaces the detect_ai_generated part of the Python call.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AiTextDetectorBenchmark {
+
+    @Param({"1500", "20000"})
+    private int length;
+
+    private AiTextDetector detector;
+    private String text;
+
+    @Setup
+    public void setUp() {
+        detector = new AiTextDetector(List.of(new HeuristicAiScoringModel()), HeuristicAiScoringModel.NAME);
+        // Stock phrases and paragraph breaks so every feature has work to do
+        StringBuilder essay = new StringBuilder(AnalysisBenchmark.essay(length, 7));
+        for (int i = length / 4; i < essay.length(); i += length / 4) {
+            essay.insert(i, i % 2 == 0 ? ". Furthermore, it is clear that\n\n" : ". In conclusion, moreover\n\n");
+        }
+        text = essay.toString();
+    }
+
+    @Benchmark
+    public AiTextDetector.Detection detect() {
+        return detector.detect(text);
+    }
+}
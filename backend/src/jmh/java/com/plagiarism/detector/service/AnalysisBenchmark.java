@@ -0,0 +1,77 @@
+package com.plagiarism.detector.service;
+
+import com.plagiarism.detector.model.AnalysisRequest;
+import com.plagiarism.detector.model.AnalysisResponse;
+import com.plagiarism.detector.model.User;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * End-to-end {@code analyzeText}: history insert, stubbed Python call, snippet scoring in
+ * the JVM and the batched result writes, with the result cache turned off.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class AnalysisBenchmark {
+
+    @Param({"500", "5000"})
+    public int textLength;
+
+    private PlagiarismAnalysisService plagiarismAnalysisService;
+    private User user;
+    private AnalysisRequest request;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        plagiarismAnalysisService = BenchmarkContext.bean(PlagiarismAnalysisService.class);
+        user = BenchmarkContext.user();
+        request = new AnalysisRequest();
+        request.setText(essay(textLength, 42));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        BenchmarkContext.close();
+    }
+
+    @Benchmark
+    public AnalysisResponse analyzeText() {
+        return plagiarismAnalysisService.analyzeText(request, user);
+    }
+
+    /**
+     * Seeded pseudo-essay of about {@code length} characters, identical on every run.
+     */
+    static String essay(int length, long seed) {
+        String[] words = ("plagiarism is the representation of another person's language thoughts ideas or "
+            + "expressions as one's own original work students research copying sources citation").split(" ");
+        Random random = new Random(seed);
+        StringBuilder text = new StringBuilder(length + 32);
+        while (text.length() < length) {
+            int sentenceWords = 8 + random.nextInt(10);
+            for (int i = 0; i < sentenceWords; i++) {
+                text.append(i == 0 ? "" : " ").append(words[random.nextInt(words.length)]);
+            }
+            text.append(". ");
+        }
+        return text.toString();
+    }
+}
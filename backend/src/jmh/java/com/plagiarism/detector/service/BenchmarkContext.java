@@ -0,0 +1,84 @@
+package com.plagiarism.detector.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.plagiarism.detector.PlagiarismDetectorApplication;
+import com.plagiarism.detector.model.User;
+import com.plagiarism.detector.perf.H2Functions;
+import com.plagiarism.detector.repository.UserRepository;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+
+/**
+ * One application context per benchmark fork: in-memory H2 in MySQL mode with the real
+ * Flyway migrations, a stub in place of the Python workers and no web searches, so the
+ * numbers only move when our own code does.
+ */
+final class BenchmarkContext {
+
+    private static ConfigurableApplicationContext context;
+    private static User user;
+
+    private BenchmarkContext() {
+    }
+
+    static synchronized ConfigurableApplicationContext get() {
+        if (context == null) {
+            context = new SpringApplicationBuilder(PlagiarismDetectorApplication.class, StubAnalyzerConfig.class)
+                .web(WebApplicationType.NONE)
+                // Command-line arguments, so they win over application.properties
+                .run(
+                    "--spring.datasource.url=jdbc:h2:mem:bench;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1;"
+                        + H2Functions.H2_URL_INIT,
+                    "--spring.datasource.driver-class-name=org.h2.Driver",
+                    "--spring.datasource.username=sa",
+                    "--spring.datasource.password=",
+                    "--spring.jpa.hibernate.ddl-auto=none",
+                    "--ai.service.python.pool.min-size=0",
+                    "--search.native=false",
+                    "--analysis.cache.enabled=false",
+                    "--logging.level.root=WARN",
+                    "--logging.level.org.springframework.security=WARN");
+        }
+        return context;
+    }
+
+    static <T> T bean(Class<T> type) {
+        return get().getBean(type);
+    }
+
+    /**
+     * A persisted user that owns everything the benchmarks write.
+     */
+    static synchronized User user() {
+        if (user == null) {
+            User newUser = new User();
+            newUser.setUsername("bench");
+            newUser.setEmail("bench@example.com");
+            newUser.setPassword("not-used");
+            user = bean(UserRepository.class).save(newUser);
+        }
+        return user;
+    }
+
+    static synchronized void close() {
+        if (context != null) {
+            context.close();
+            context = null;
+            user = null;
+        }
+    }
+
+    @Configuration
+    static class StubAnalyzerConfig {
+
+        @Bean
+        @Primary
+        PythonWorkerPool stubPythonWorkerPool(AnalysisMetrics analysisMetrics, ObjectMapper objectMapper) {
+            return new StubPythonWorkerPool(analysisMetrics, objectMapper);
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package com.plagiarism.detector.service;
+
+import com.plagiarism.detector.model.AnalysisRequest;
+import com.plagiarism.detector.model.AnalysisResponse;
+import com.plagiarism.detector.model.SearchHistory;
+import com.plagiarism.detector.model.SimilaritySource;
+import com.plagiarism.detector.model.User;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The repository write path on H2: indexed history inserts and the batched save of
+ * finished histories with their sources.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class PersistenceBenchmark {
+
+    private static final int BATCH_SIZE = 10;
+    private static final int SOURCES_PER_HISTORY = 5;
+
+    private PlagiarismAnalysisService plagiarismAnalysisService;
+    private User user;
+    private AnalysisRequest request;
+    private AnalysisResponse response;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        plagiarismAnalysisService = BenchmarkContext.bean(PlagiarismAnalysisService.class);
+        user = BenchmarkContext.user();
+        request = new AnalysisRequest();
+        request.setText(AnalysisBenchmark.essay(1000, 7));
+
+        response = new AnalysisResponse();
+        List<AnalysisResponse.SimilaritySource> sources = new ArrayList<>();
+        for (int i = 0; i < SOURCES_PER_HISTORY; i++) {
+            sources.add(new AnalysisResponse.SimilaritySource("https://example.com/source/" + i,
+                "Source " + i, 50.0 - i, "matched text " + i));
+        }
+        response.setMatchedSources(sources);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        BenchmarkContext.close();
+    }
+
+    @Benchmark
+    public SearchHistory createSearchHistory() {
+        return plagiarismAnalysisService.createSearchHistory(request, user, SearchHistory.SearchStatus.PROCESSING);
+    }
+
+    @Benchmark
+    public List<SearchHistory> createAndSaveBatch() {
+        List<SearchHistory> histories = new ArrayList<>(BATCH_SIZE);
+        for (int i = 0; i < BATCH_SIZE; i++) {
+            histories.add(plagiarismAnalysisService.newSearchHistory(request, user, SearchHistory.SearchStatus.PROCESSING));
+        }
+        histories = plagiarismAnalysisService.createSearchHistories(histories);
+
+        List<SimilaritySource> sources = new ArrayList<>();
+        for (SearchHistory searchHistory : histories) {
+            plagiarismAnalysisService.recordResult(searchHistory, new AnalysisResultCache.Lookup(response, false), 0);
+            sources.addAll(plagiarismAnalysisService.toSimilaritySources(searchHistory, response));
+        }
+        plagiarismAnalysisService.saveResults(histories, sources);
+        return histories;
+    }
+}
@@ -0,0 +1,63 @@
+package com.plagiarism.detector.service;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.plagiarism.detector.model.AnalysisResponse;
+import com.plagiarism.detector.model.AnalyzerResult;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Decoding a worker reply and mapping it onto an {@link AnalysisResponse}. decodeAndParse
+ * reads the reply bytes the way PythonWorkerPool reads a worker's stdout; run with
+ * {@code -prof gc} to see the bytes allocated per reply.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PythonResponseBenchmark {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final ObjectReader resultReader = objectMapper.readerFor(AnalyzerResult.class);
+    private AnalyzerResult decodedReply;
+
+    @Setup
+    public void setUp() throws IOException {
+        decodedReply = resultReader.readValue(StubPythonWorkerPool.REPLY_BYTES);
+    }
+
+    @Benchmark
+    public AnalysisResponse parsePythonResponse() {
+        return PlagiarismAnalysisService.parsePythonResponse(decodedReply);
+    }
+
+    @Benchmark
+    public AnalysisResponse decodeAndParse() throws IOException {
+        LimitedInputStream stdout = new LimitedInputStream(new ByteArrayInputStream(StubPythonWorkerPool.REPLY_BYTES), 1 << 20);
+        try (JsonParser parser = objectMapper.createParser(stdout)) {
+            parser.nextToken();
+            return PlagiarismAnalysisService.parsePythonResponse(resultReader.readValue(parser));
+        }
+    }
+
+    @Benchmark
+    public String extractDomain() {
+        return PlagiarismAnalysisService.extractDomain("https://www.plagiarism.org/article/what-is-plagiarism");
+    }
+}
@@ -0,0 +1,64 @@
+package com.plagiarism.detector.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.plagiarism.detector.model.AnalyzerResult;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+
+/**
+ * Answers every analysis with a fixed worker reply instead of talking to Python. The reply
+ * is decoded from JSON bytes on each call, like the real pool does with a worker's output.
+ */
+class StubPythonWorkerPool extends PythonWorkerPool {
+
+    static final String REPLY = "{\"similarityScore\":0.0,\"matchedSources\":[],\"paraphrasedText\":null,"
+        + "\"aiDetected\":false,\"aiConfidence\":0.2143,\"searchResults\":["
+        + "{\"url\":\"https://en.wikipedia.org/wiki/Plagiarism\",\"title\":\"Plagiarism - Wikipedia\","
+        + "\"snippet\":\"Plagiarism is the representation of another person's language, thoughts, ideas, or expressions as one's own original work.\"},"
+        + "{\"url\":\"https://www.plagiarism.org/article/what-is-plagiarism\",\"title\":\"What is Plagiarism?\","
+        + "\"snippet\":\"Many people think of plagiarism as copying another's work or borrowing someone else's original ideas.\"},"
+        + "{\"url\":\"https://owl.purdue.edu/owl/avoiding_plagiarism\",\"title\":\"Avoiding Plagiarism\","
+        + "\"snippet\":\"There are some actions that can almost always be thought of as plagiarism, such as buying a paper.\"}]}";
+
+    static final byte[] REPLY_BYTES = REPLY.getBytes(StandardCharsets.UTF_8);
+
+    private final ObjectReader resultReader;
+
+    StubPythonWorkerPool(AnalysisMetrics analysisMetrics, ObjectMapper objectMapper) {
+        super(analysisMetrics, objectMapper);
+        this.resultReader = objectMapper.readerFor(AnalyzerResult.class);
+    }
+
+    @Override
+    public void start() {
+    }
+
+    @Override
+    public void shutdown() {
+    }
+
+    @Override
+    public void maintain() {
+    }
+
+    @Override
+    public AnalyzerResult analyze(String text, boolean checkParaphrasing, boolean scoreMatches, boolean webSearch)
+            throws IOException {
+        return resultReader.readValue(REPLY_BYTES);
+    }
+
+    @Override
+    public AnalyzerResult analyzeDocument(Path document, boolean checkParaphrasing, boolean scoreMatches, boolean webSearch)
+            throws IOException {
+        return resultReader.readValue(REPLY_BYTES);
+    }
+
+    @Override
+    public AnalyzerResult analyzeDocument(Path document, long offset, long length, boolean checkParaphrasing,
+                                          boolean scoreMatches, boolean webSearch) throws IOException {
+        return resultReader.readValue(REPLY_BYTES);
+    }
+}
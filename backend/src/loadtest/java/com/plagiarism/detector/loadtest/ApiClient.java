@@ -0,0 +1,93 @@
+package com.plagiarism.detector.loadtest;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.Executors;
+
+/**
+ * Thin HTTP client for the endpoints the load test drives.
+ */
+final class ApiClient {
+
+    private final String baseUrl;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final HttpClient httpClient = HttpClient.newBuilder()
+        .executor(Executors.newVirtualThreadPerTaskExecutor())
+        .connectTimeout(Duration.ofSeconds(10))
+        .build();
+
+    ApiClient(String baseUrl) {
+        this.baseUrl = baseUrl;
+    }
+
+    /**
+     * Registers the user through AuthController, or logs in when it already exists, and
+     * returns the JWT.
+     */
+    String signUp(String username, String password) throws IOException, InterruptedException {
+        HttpResponse<String> response = post("/api/auth/register", Map.of(
+            "username", username,
+            "email", username + "@loadtest.example",
+            "password", password,
+            "confirmPassword", password), null);
+        JsonNode body = objectMapper.readTree(response.body());
+        if (response.statusCode() != 200 || body.path("token").isMissingNode() || body.path("token").isNull()) {
+            response = post("/api/auth/login", Map.of("username", username, "password", password), null);
+            body = objectMapper.readTree(response.body());
+        }
+        if (response.statusCode() != 200 || body.path("token").asText("").isEmpty()) {
+            throw new IOException("Could not sign up " + username + ": " + response.statusCode() + " " + response.body());
+        }
+        return body.path("token").asText();
+    }
+
+    /**
+     * Issues one operation and returns the HTTP status.
+     */
+    int execute(Operation operation, String token) throws IOException, InterruptedException {
+        HttpResponse<String> response = switch (operation.name) {
+            case Operation.ANALYZE -> post("/api/analyze", Map.of(
+                "text", SyntheticText.generate(operation.textLength, operation.textSeed),
+                "checkParaphrasing", operation.paraphrasing), token);
+            case Operation.HISTORY -> get("/api/history?page=" + operation.page + "&size=" + operation.size, token);
+            case Operation.STATISTICS -> get("/api/statistics", token);
+            default -> throw new IllegalArgumentException("Unknown operation " + operation.name);
+        };
+        return response.statusCode();
+    }
+
+    Map<String, Object> remoteAnalyzerStats() throws IOException, InterruptedException {
+        HttpResponse<String> response = get("/api/health/remote-analyzer", null);
+        return objectMapper.readValue(response.body(), new TypeReference<Map<String, Object>>() {});
+    }
+
+    private HttpResponse<String> post(String path, Object body, String token) throws IOException, InterruptedException {
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create(baseUrl + path))
+            .timeout(Duration.ofSeconds(120))
+            .header("Content-Type", "application/json")
+            .POST(HttpRequest.BodyPublishers.ofString(objectMapper.writeValueAsString(body)));
+        if (token != null) {
+            request.header("Authorization", "Bearer " + token);
+        }
+        return httpClient.send(request.build(), HttpResponse.BodyHandlers.ofString());
+    }
+
+    private HttpResponse<String> get(String path, String token) throws IOException, InterruptedException {
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create(baseUrl + path))
+            .timeout(Duration.ofSeconds(120))
+            .GET();
+        if (token != null) {
+            request.header("Authorization", "Bearer " + token);
+        }
+        return httpClient.send(request.build(), HttpResponse.BodyHandlers.ofString());
+    }
+}
@@ -0,0 +1,100 @@
+package com.plagiarism.detector.loadtest;
+
+import com.plagiarism.detector.PlagiarismDetectorApplication;
+import com.plagiarism.detector.perf.H2Functions;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The application booted in-process on a random port: in-memory H2 in MySQL mode with
+ * the real Flyway migrations (or the database given by --jdbc-url), the deterministic
+ * stub_analyzer.py in place of ai_similarity.py, and a stub search backend.
+ * With --remote, analyses go to a pair of StubAnalyzerServers as primary and backup instead.
+ */
+final class AppUnderTest implements AutoCloseable {
+
+    private final StubSearchServer searchServer;
+    private final StubAnalyzerServer primaryAnalyzer;
+    private final StubAnalyzerServer backupAnalyzer;
+    private final ConfigurableApplicationContext context;
+    private final Path stubAnalyzer;
+
+    AppUnderTest(LoadTestOptions options) throws IOException {
+        String script;
+        try (InputStream in = AppUnderTest.class.getResourceAsStream("/loadtest/stub_analyzer.py")) {
+            if (in == null) {
+                throw new IOException("stub_analyzer.py is not on the classpath");
+            }
+            script = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+        // Workers are started by the pool with this JVM's environment, so the delay is baked
+        // into the script's default instead of being passed as a variable
+        stubAnalyzer = Files.createTempFile("stub_analyzer", ".py");
+        Files.writeString(stubAnalyzer, script.replace("\"STUB_ANALYZER_LATENCY_MS\", \"50\"",
+            "\"STUB_ANALYZER_LATENCY_MS\", \"" + options.analyzerLatencyMs + "\""));
+        searchServer = new StubSearchServer(options.searchLatencyMs);
+        if (options.remote) {
+            primaryAnalyzer = new StubAnalyzerServer(options.analyzerLatencyMs, options.primarySlowFraction,
+                options.primarySlowMs, options.primaryDown);
+            backupAnalyzer = new StubAnalyzerServer(options.analyzerLatencyMs, 0, 0, false);
+        } else {
+            primaryAnalyzer = null;
+            backupAnalyzer = null;
+        }
+
+        List<String> args = new ArrayList<>();
+        args.add("--server.port=0");
+        if (options.jdbcUrl != null) {
+            args.add("--spring.datasource.url=" + options.jdbcUrl);
+            args.add("--spring.datasource.username=" + options.jdbcUser);
+            args.add("--spring.datasource.password=" + options.jdbcPassword);
+        } else {
+            args.add("--spring.datasource.url=jdbc:h2:mem:loadtest;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1;"
+                + H2Functions.H2_URL_INIT);
+            args.add("--spring.datasource.driver-class-name=org.h2.Driver");
+            args.add("--spring.datasource.username=sa");
+            args.add("--spring.datasource.password=");
+            // Flyway owns the schema; Hibernate's validation trips over H2's enum mapping
+            args.add("--spring.jpa.hibernate.ddl-auto=none");
+        }
+        args.add("--ai.service.python.command=" + options.python);
+        args.add("--ai.service.python.path=" + stubAnalyzer);
+        args.add("--search.google.endpoint=" + searchServer.endpoint());
+        args.add("--search.google.api-key=loadtest");
+        args.add("--search.google.cx=loadtest");
+        if (options.remote) {
+            args.add("--ai.service.remote.enabled=true");
+            args.add("--ai.service.url=" + primaryAnalyzer.url());
+            args.add("--ai.backup.service.url=" + backupAnalyzer.url());
+            args.add("--ai.service.python.pool.min-size=0");
+        }
+        args.add("--logging.level.root=WARN");
+        args.add("--logging.level.org.springframework.security=WARN");
+
+        context = new SpringApplicationBuilder(PlagiarismDetectorApplication.class)
+            .run(args.toArray(new String[0]));
+    }
+
+    String baseUrl() {
+        return "http://127.0.0.1:" + context.getEnvironment().getProperty("local.server.port");
+    }
+
+    @Override
+    public void close() throws IOException {
+        context.close();
+        searchServer.close();
+        if (primaryAnalyzer != null) {
+            primaryAnalyzer.close();
+            backupAnalyzer.close();
+        }
+        Files.deleteIfExists(stubAnalyzer);
+    }
+}
@@ -0,0 +1,92 @@
+package com.plagiarism.detector.loadtest;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Keeps every measured latency per operation; a run produces at most a few million
+ * samples, so exact percentiles are cheaper to reason about than a sketch.
+ */
+final class LatencyRecorder {
+
+    private final ConcurrentHashMap<String, Samples> samplesByOperation = new ConcurrentHashMap<>();
+    private volatile boolean recording = true;
+
+    void setRecording(boolean recording) {
+        this.recording = recording;
+    }
+
+    void record(String operation, long nanos, boolean success) {
+        if (recording) {
+            samplesByOperation.computeIfAbsent(operation, ignored -> new Samples()).add(nanos, success);
+        }
+    }
+
+    /**
+     * Per-operation and overall throughput and latency percentiles, in milliseconds.
+     */
+    Map<String, Map<String, Object>> summarize(double elapsedSeconds) {
+        Map<String, Map<String, Object>> summary = new LinkedHashMap<>();
+        Samples all = new Samples();
+        samplesByOperation.keySet().stream().sorted().forEach(operation -> {
+            Samples samples = samplesByOperation.get(operation);
+            summary.put(operation, samples.summarize(elapsedSeconds));
+            all.addAll(samples);
+        });
+        summary.put("total", all.summarize(elapsedSeconds));
+        return summary;
+    }
+
+    private static final class Samples {
+        private long[] nanos = new long[1024];
+        private int count;
+        private int errors;
+
+        synchronized void add(long value, boolean success) {
+            if (count == nanos.length) {
+                nanos = Arrays.copyOf(nanos, count * 2);
+            }
+            nanos[count++] = value;
+            if (!success) {
+                errors++;
+            }
+        }
+
+        synchronized void addAll(Samples other) {
+            synchronized (other) {
+                for (int i = 0; i < other.count; i++) {
+                    add(other.nanos[i], true);
+                }
+                errors += other.errors;
+            }
+        }
+
+        synchronized Map<String, Object> summarize(double elapsedSeconds) {
+            long[] sorted = Arrays.copyOf(nanos, count);
+            Arrays.sort(sorted);
+            Map<String, Object> summary = new LinkedHashMap<>();
+            summary.put("requests", count);
+            summary.put("errors", errors);
+            summary.put("throughputPerSecond", round(count / Math.max(elapsedSeconds, 1e-9)));
+            summary.put("p50Ms", percentile(sorted, 0.50));
+            summary.put("p99Ms", percentile(sorted, 0.99));
+            summary.put("p999Ms", percentile(sorted, 0.999));
+            summary.put("maxMs", count == 0 ? 0.0 : round(sorted[count - 1] / 1e6));
+            return summary;
+        }
+
+        private static double percentile(long[] sorted, double quantile) {
+            if (sorted.length == 0) {
+                return 0.0;
+            }
+            int index = (int) Math.ceil(quantile * sorted.length) - 1;
+            return round(sorted[Math.max(0, index)] / 1e6);
+        }
+
+        private static double round(double value) {
+            return Math.round(value * 100) / 100.0;
+        }
+    }
+}
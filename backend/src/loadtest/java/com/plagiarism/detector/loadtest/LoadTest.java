@@ -0,0 +1,246 @@
+package com.plagiarism.detector.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * End-to-end load generator. Boots the application (or targets --base-url), signs up
+ * the virtual users, then either runs a closed-loop weighted mix of analyze, history and
+ * statistics requests or replays a recorded trace open-loop, and reports throughput and
+ * p50/p99/p999 latency per operation.
+ *
+ * <p>Traces are NDJSON, one request per line, already anonymized: users are indexes and
+ * submitted texts are described only by length and seed, e.g.
+ * <pre>
+ *   {"atMs": 0, "user": 0, "op": "analyze", "textLength": 1200, "textSeed": 11, "paraphrasing": false}
+ *   {"atMs": 40, "user": 1, "op": "history", "page": 0, "size": 10}
+ *   {"atMs": 75, "user": 2, "op": "statistics"}
+ * </pre>
+ */
+public final class LoadTest {
+
+    private static final String PASSWORD = "loadtest-password";
+
+    private final LoadTestOptions options;
+    private final LatencyRecorder recorder = new LatencyRecorder();
+    private final ObjectMapper objectMapper = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+
+    private LoadTest(LoadTestOptions options) {
+        this.options = options;
+    }
+
+    public static void main(String[] args) throws Exception {
+        LoadTestOptions options = LoadTestOptions.parse(args);
+        AppUnderTest app = options.baseUrl == null ? new AppUnderTest(options) : null;
+        try {
+            new LoadTest(options).run(app != null ? app.baseUrl() : options.baseUrl);
+        } finally {
+            if (app != null) {
+                app.close();
+            }
+        }
+        System.exit(0);
+    }
+
+    private void run(String baseUrl) throws Exception {
+        ApiClient client = new ApiClient(baseUrl);
+        List<TraceEntry> trace = options.trace != null ? readTrace(options.trace) : null;
+
+        int users = options.users;
+        if (trace != null) {
+            users = Math.max(users, trace.stream().mapToInt(entry -> entry.user).max().orElse(0) + 1);
+        }
+        System.out.println("Signing up " + users + " users at " + baseUrl);
+        List<String> tokens = new ArrayList<>(users);
+        for (int i = 0; i < users; i++) {
+            tokens.add(client.signUp("loadtest" + options.seed + "u" + i, PASSWORD));
+        }
+
+        double elapsedSeconds = trace != null ? replay(client, tokens, trace) : runMix(client, tokens);
+        Map<String, Map<String, Object>> results = recorder.summarize(elapsedSeconds);
+
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("mode", trace != null ? "trace" : "mix");
+        report.put("users", users);
+        report.put("elapsedSeconds", Math.round(elapsedSeconds * 100) / 100.0);
+        report.put("mix", trace != null ? null : options.mix);
+        report.put("trace", options.trace);
+        report.put("textLength", options.textLength);
+        report.put("analyzerLatencyMs", options.analyzerLatencyMs);
+        report.put("searchLatencyMs", options.searchLatencyMs);
+        report.put("results", results);
+        if (options.remote) {
+            report.put("remoteAnalyzer", client.remoteAnalyzerStats());
+        }
+
+        printTable(results, elapsedSeconds);
+        if (options.report.getParent() != null) {
+            Files.createDirectories(options.report.getParent());
+        }
+        objectMapper.writeValue(options.report.toFile(), report);
+        System.out.println("Report written to " + options.report.toAbsolutePath());
+    }
+
+    /**
+     * Closed loop: every user sends its next request as soon as the previous one answered
+     * (plus think time). Only requests finishing after the warm-up are measured.
+     */
+    private double runMix(ApiClient client, List<String> tokens) throws InterruptedException {
+        int totalWeight = options.mix.values().stream().mapToInt(Integer::intValue).sum();
+        long warmupEnd = System.nanoTime() + TimeUnit.SECONDS.toNanos(options.warmupSeconds);
+        long deadline = warmupEnd + TimeUnit.SECONDS.toNanos(options.durationSeconds);
+        recorder.setRecording(options.warmupSeconds == 0);
+
+        System.out.println("Running mix " + options.mix + " for " + options.warmupSeconds + " s warm-up + "
+            + options.durationSeconds + " s");
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < tokens.size(); i++) {
+                int user = i;
+                executor.execute(() -> {
+                    Random random = new Random(options.seed * 31 + user);
+                    long iteration = 0;
+                    while (System.nanoTime() < deadline) {
+                        execute(client, nextOperation(random, totalWeight, user, iteration++), tokens.get(user));
+                        if (options.thinkMs > 0) {
+                            sleep(options.thinkMs);
+                        }
+                    }
+                });
+            }
+            sleep(TimeUnit.NANOSECONDS.toMillis(warmupEnd - System.nanoTime()));
+            recorder.setRecording(true);
+        }
+        return options.durationSeconds;
+    }
+
+    private Operation nextOperation(Random random, int totalWeight, int user, long iteration) {
+        int pick = random.nextInt(totalWeight);
+        String name = null;
+        for (Map.Entry<String, Integer> entry : options.mix.entrySet()) {
+            pick -= entry.getValue();
+            if (pick < 0) {
+                name = entry.getKey();
+                break;
+            }
+        }
+        return switch (name) {
+            case Operation.ANALYZE -> Operation.analyze(options.textLength,
+                options.distinctTexts > 0 ? random.nextInt(options.distinctTexts) : ((long) user << 32) | iteration,
+                false);
+            case Operation.HISTORY -> Operation.history(0, 10);
+            default -> Operation.statistics();
+        };
+    }
+
+    /**
+     * Open loop: requests start at their recorded offsets (divided by --speed) whether or
+     * not earlier ones have answered, like real arrivals.
+     */
+    private double replay(ApiClient client, List<String> tokens, List<TraceEntry> trace) {
+        System.out.println("Replaying " + trace.size() + " requests at " + options.speed + "x");
+        long start = System.nanoTime();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (TraceEntry entry : trace) {
+                long due = start + TimeUnit.MILLISECONDS.toNanos((long) (entry.atMs / options.speed));
+                sleep(TimeUnit.NANOSECONDS.toMillis(due - System.nanoTime()));
+                executor.execute(() -> execute(client, entry.operation, tokens.get(entry.user)));
+            }
+        }
+        return (System.nanoTime() - start) / 1e9;
+    }
+
+    private void execute(ApiClient client, Operation operation, String token) {
+        long start = System.nanoTime();
+        boolean success;
+        try {
+            int status = client.execute(operation, token);
+            success = status >= 200 && status < 300;
+        } catch (IOException e) {
+            success = false;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        }
+        recorder.record(operation.name, System.nanoTime() - start, success);
+    }
+
+    private List<TraceEntry> readTrace(String trace) throws IOException {
+        InputStream in = "sample".equals(trace)
+            ? LoadTest.class.getResourceAsStream("/loadtest/sample-trace.ndjson")
+            : Files.newInputStream(Path.of(trace));
+        List<TraceEntry> entries = new ArrayList<>();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isBlank()) {
+                    continue;
+                }
+                JsonNode node = objectMapper.readTree(line);
+                String op = node.path("op").asText();
+                Operation operation = switch (op) {
+                    case Operation.ANALYZE -> Operation.analyze(node.path("textLength").asInt(options.textLength),
+                        node.path("textSeed").asLong(), node.path("paraphrasing").asBoolean());
+                    case Operation.HISTORY -> Operation.history(node.path("page").asInt(0), node.path("size").asInt(10));
+                    case Operation.STATISTICS -> Operation.statistics();
+                    default -> throw new IllegalArgumentException("Unknown op '" + op + "' in trace line: " + line);
+                };
+                entries.add(new TraceEntry(node.path("atMs").asLong(), node.path("user").asInt(), operation));
+            }
+        }
+        entries.sort(Comparator.comparingLong(entry -> entry.atMs));
+        return entries;
+    }
+
+    private static void printTable(Map<String, Map<String, Object>> results, double elapsedSeconds) {
+        System.out.printf("%nMeasured %.1f s%n", elapsedSeconds);
+        System.out.printf("%-12s %9s %7s %10s %9s %9s %9s %9s%n",
+            "operation", "requests", "errors", "req/s", "p50 ms", "p99 ms", "p999 ms", "max ms");
+        for (Map.Entry<String, Map<String, Object>> entry : results.entrySet()) {
+            Map<String, Object> r = entry.getValue();
+            System.out.printf("%-12s %9s %7s %10s %9s %9s %9s %9s%n", entry.getKey(), r.get("requests"),
+                r.get("errors"), r.get("throughputPerSecond"), r.get("p50Ms"), r.get("p99Ms"), r.get("p999Ms"),
+                r.get("maxMs"));
+        }
+    }
+
+    private static void sleep(long millis) {
+        if (millis <= 0) {
+            return;
+        }
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static final class TraceEntry {
+        private final long atMs;
+        private final int user;
+        private final Operation operation;
+
+        private TraceEntry(long atMs, int user, Operation operation) {
+            this.atMs = atMs;
+            this.user = user;
+            this.operation = operation;
+        }
+    }
+}
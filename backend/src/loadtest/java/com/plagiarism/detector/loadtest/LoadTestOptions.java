@@ -0,0 +1,111 @@
+package com.plagiarism.detector.loadtest;
+
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Command-line options, all given as {@code --name=value} (the dashes are optional, which
+ * keeps them usable inside -Dloadtest.args):
+ * <pre>
+ *   --users=20                 virtual users; each registers its own account
+ *   --duration=60              measured seconds (mix mode)
+ *   --warmup=10                seconds of traffic before measuring starts (mix mode)
+ *   --mix=analyze:70,history:20,statistics:10
+ *   --think-ms=0               pause between a user's requests
+ *   --text-length=1500         characters per submitted text
+ *   --distinct-texts=0         draw texts from this many variants (0 = all unique), to model cache hits
+ *   --seed=42
+ *   --trace=file.ndjson        replay a recorded trace instead of the mix ("sample" for the bundled one)
+ *   --speed=1.0                trace replay speed-up
+ *   --analyzer-latency-ms=50   stub analyzer delay per request
+ *   --search-latency-ms=100    stub search backend delay per query
+ *   --python=python3           interpreter for the stub analyzer
+ *   --remote=false             analyze through stub primary and backup HTTP analyzers instead of Python
+ *   --primary-slow-fraction=0  share of primary requests that take --primary-slow-ms (remote mode)
+ *   --primary-slow-ms=2000
+ *   --primary-down=false       primary answers 503, so everything fails over to the backup
+ *   --jdbc-url=...             use this database instead of in-memory H2 (with --jdbc-user, --jdbc-password)
+ *   --base-url=http://...      drive an already running deployment instead of booting one
+ *   --report=target/loadtest-report.json
+ * </pre>
+ */
+final class LoadTestOptions {
+
+    int users = 20;
+    int durationSeconds = 60;
+    int warmupSeconds = 10;
+    Map<String, Integer> mix = parseMix("analyze:70,history:20,statistics:10");
+    long thinkMs;
+    int textLength = 1500;
+    int distinctTexts;
+    long seed = 42;
+    String trace;
+    double speed = 1.0;
+    long analyzerLatencyMs = 50;
+    long searchLatencyMs = 100;
+    String python = "python3";
+    boolean remote;
+    double primarySlowFraction;
+    long primarySlowMs = 2000;
+    boolean primaryDown;
+    String jdbcUrl;
+    String jdbcUser = "";
+    String jdbcPassword = "";
+    String baseUrl;
+    Path report = Path.of("target", "loadtest-report.json");
+
+    static LoadTestOptions parse(String[] args) {
+        LoadTestOptions options = new LoadTestOptions();
+        for (String arg : args) {
+            String option = arg.startsWith("--") ? arg.substring(2) : arg;
+            if (!option.contains("=")) {
+                throw new IllegalArgumentException("Expected --name=value but got " + arg);
+            }
+            String name = option.substring(0, option.indexOf('='));
+            String value = option.substring(option.indexOf('=') + 1);
+            switch (name) {
+                case "users" -> options.users = Integer.parseInt(value);
+                case "duration" -> options.durationSeconds = Integer.parseInt(value);
+                case "warmup" -> options.warmupSeconds = Integer.parseInt(value);
+                case "mix" -> options.mix = parseMix(value);
+                case "think-ms" -> options.thinkMs = Long.parseLong(value);
+                case "text-length" -> options.textLength = Integer.parseInt(value);
+                case "distinct-texts" -> options.distinctTexts = Integer.parseInt(value);
+                case "seed" -> options.seed = Long.parseLong(value);
+                case "trace" -> options.trace = value;
+                case "speed" -> options.speed = Double.parseDouble(value);
+                case "analyzer-latency-ms" -> options.analyzerLatencyMs = Long.parseLong(value);
+                case "search-latency-ms" -> options.searchLatencyMs = Long.parseLong(value);
+                case "python" -> options.python = value;
+                case "remote" -> options.remote = Boolean.parseBoolean(value);
+                case "primary-slow-fraction" -> options.primarySlowFraction = Double.parseDouble(value);
+                case "primary-slow-ms" -> options.primarySlowMs = Long.parseLong(value);
+                case "primary-down" -> options.primaryDown = Boolean.parseBoolean(value);
+                case "jdbc-url" -> options.jdbcUrl = value;
+                case "jdbc-user" -> options.jdbcUser = value;
+                case "jdbc-password" -> options.jdbcPassword = value;
+                case "base-url" -> options.baseUrl = value;
+                case "report" -> options.report = Path.of(value);
+                default -> throw new IllegalArgumentException("Unknown option --" + name);
+            }
+        }
+        if (options.users < 1) {
+            throw new IllegalArgumentException("--users must be at least 1");
+        }
+        return options;
+    }
+
+    private static Map<String, Integer> parseMix(String value) {
+        Map<String, Integer> mix = new LinkedHashMap<>();
+        for (String entry : value.split(",")) {
+            String[] parts = entry.split(":");
+            if (parts.length != 2 || !Operation.NAMES.contains(parts[0].trim())) {
+                throw new IllegalArgumentException("Bad --mix entry '" + entry + "', expected one of "
+                    + Operation.NAMES + " with a weight, e.g. analyze:70");
+            }
+            mix.put(parts[0].trim(), Integer.parseInt(parts[1].trim()));
+        }
+        return mix;
+    }
+}
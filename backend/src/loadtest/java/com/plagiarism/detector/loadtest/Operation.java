@@ -0,0 +1,42 @@
+package com.plagiarism.detector.loadtest;
+
+import java.util.List;
+
+/**
+ * One request the load test can issue, as used by both the mix and recorded traces.
+ */
+final class Operation {
+
+    static final String ANALYZE = "analyze";
+    static final String HISTORY = "history";
+    static final String STATISTICS = "statistics";
+    static final List<String> NAMES = List.of(ANALYZE, HISTORY, STATISTICS);
+
+    final String name;
+    final int textLength;
+    final long textSeed;
+    final boolean paraphrasing;
+    final int page;
+    final int size;
+
+    private Operation(String name, int textLength, long textSeed, boolean paraphrasing, int page, int size) {
+        this.name = name;
+        this.textLength = textLength;
+        this.textSeed = textSeed;
+        this.paraphrasing = paraphrasing;
+        this.page = page;
+        this.size = size;
+    }
+
+    static Operation analyze(int textLength, long textSeed, boolean paraphrasing) {
+        return new Operation(ANALYZE, textLength, textSeed, paraphrasing, 0, 0);
+    }
+
+    static Operation history(int page, int size) {
+        return new Operation(HISTORY, 0, 0, false, page, size);
+    }
+
+    static Operation statistics() {
+        return new Operation(STATISTICS, 0, 0, false, 0, 0);
+    }
+}
@@ -0,0 +1,94 @@
+package com.plagiarism.detector.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Stand-in for {@code ai_similarity.py --serve}, used as the primary or backup remote
+ * analyzer. Answers like stub_analyzer.py after {@code latencyMs}; a {@code slowFraction}
+ * of requests take {@code slowMs} instead, to give hedging a tail to cut, and a server
+ * that is {@code down} answers every analysis with 503.
+ */
+final class StubAnalyzerServer implements AutoCloseable {
+
+    private final HttpServer server;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    StubAnalyzerServer(long latencyMs, double slowFraction, long slowMs, boolean down) throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+        server.createContext("/health", exchange -> reply(exchange, 200, Map.of("ok", true)));
+        server.createContext("/analyze", exchange -> {
+            Map<?, ?> request;
+            try (InputStream in = exchange.getRequestBody()) {
+                request = objectMapper.readValue(in, Map.class);
+            }
+            if (down) {
+                reply(exchange, 503, Map.of("error", "Stub analyzer is down"));
+                return;
+            }
+            boolean slow = ThreadLocalRandom.current().nextDouble() < slowFraction;
+            try {
+                Thread.sleep(slow ? slowMs : latencyMs);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            String text = String.valueOf(request.get("text"));
+            reply(exchange, 200, analyze(text, Boolean.TRUE.equals(request.get("paraphrasing"))));
+        });
+        server.start();
+    }
+
+    String url() {
+        return "http://127.0.0.1:" + server.getAddress().getPort();
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+    }
+
+    /**
+     * Same scores as stub_analyzer.py, so local and remote runs are comparable.
+     */
+    private static Map<String, Object> analyze(String text, boolean paraphrasing) {
+        double confidence;
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(text.getBytes(StandardCharsets.UTF_8));
+            confidence = Math.round((digest[0] & 0xff) / 255.0 * 10000) / 10000.0;
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("similarityScore", 0.0);
+        result.put("matchedSources", List.of());
+        result.put("searchResults", List.of());
+        result.put("paraphrasedText", paraphrasing ? new StringBuilder(text).reverse().toString() : null);
+        result.put("aiDetected", confidence > 0.5);
+        result.put("aiConfidence", confidence);
+        return result;
+    }
+
+    private void reply(HttpExchange exchange, int status, Map<String, ?> body) throws IOException {
+        byte[] bytes = objectMapper.writeValueAsBytes(body);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+}
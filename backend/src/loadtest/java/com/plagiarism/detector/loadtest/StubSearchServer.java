@@ -0,0 +1,61 @@
+package com.plagiarism.detector.loadtest;
+
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.Executors;
+
+/**
+ * Answers Custom Search style queries after a fixed delay with one item built from the
+ * query, so web search cost is part of the load without calling Google.
+ */
+final class StubSearchServer implements AutoCloseable {
+
+    private final HttpServer server;
+
+    StubSearchServer(long latencyMs) throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+        server.createContext("/search", exchange -> {
+            String query = queryParameter(exchange.getRequestURI().getRawQuery(), "q");
+            try {
+                Thread.sleep(latencyMs);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            byte[] body = ("{\"items\":[{\"link\":\"https://example.org/" + Integer.toHexString(query.hashCode())
+                + "\",\"title\":\"Stub result\",\"snippet\":\"" + query.replace("\\", "").replace("\"", "")
+                + " and some unrelated words\"}]}").getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        server.start();
+    }
+
+    String endpoint() {
+        return "http://127.0.0.1:" + server.getAddress().getPort() + "/search";
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+    }
+
+    private static String queryParameter(String rawQuery, String name) {
+        if (rawQuery != null) {
+            for (String pair : rawQuery.split("&")) {
+                if (pair.startsWith(name + "=")) {
+                    return URLDecoder.decode(pair.substring(name.length() + 1), StandardCharsets.UTF_8);
+                }
+            }
+        }
+        return "";
+    }
+}
@@ -0,0 +1,36 @@
+package com.plagiarism.detector.loadtest;
+
+import java.util.Random;
+
+/**
+ * Seeded essay-like text, so a trace can name a text by length and seed instead of
+ * carrying what the user actually submitted.
+ */
+final class SyntheticText {
+
+    private static final String[] WORDS = ("the a of and to in is that for it as with was on be by this are "
+        + "research study results analysis method data students essay source citation evidence argument "
+        + "theory model network learning language system process approach development framework context "
+        + "significant important however therefore although furthermore consequently").split(" ");
+
+    private SyntheticText() {
+    }
+
+    static String generate(int length, long seed) {
+        Random random = new Random(seed);
+        StringBuilder text = new StringBuilder(length + 64);
+        while (text.length() < length) {
+            int words = 8 + random.nextInt(14);
+            for (int i = 0; i < words; i++) {
+                String word = WORDS[random.nextInt(WORDS.length)];
+                if (i == 0) {
+                    text.append(Character.toUpperCase(word.charAt(0))).append(word, 1, word.length());
+                } else {
+                    text.append(' ').append(word);
+                }
+            }
+            text.append(random.nextInt(8) == 0 ? ".\n\n" : ". ");
+        }
+        return text.substring(0, length);
+    }
+}
@@ -0,0 +1,54 @@
+#!/usr/bin/env python3
+"""
+Deterministic stand-in for ai_similarity.py --worker, used by the load test.
+Speaks the same line-delimited JSON protocol, sleeps STUB_ANALYZER_LATENCY_MS per request
+and derives every score from a hash of the text, so repeated runs produce identical output.
+"""
+
+import hashlib
+import json
+import os
+import sys
+import time
+
+LATENCY_SECONDS = int(os.environ.get("STUB_ANALYZER_LATENCY_MS", "50")) / 1000.0
+
+
+def analyze(text, paraphrasing):
+    digest = hashlib.sha256(text.encode("utf-8")).digest()
+    confidence = round(digest[0] / 255.0, 4)
+    return {
+        "similarityScore": 0.0,
+        "matchedSources": [],
+        "searchResults": [],
+        "paraphrasedText": text[::-1] if paraphrasing else None,
+        "aiDetected": confidence > 0.5,
+        "aiConfidence": confidence,
+    }
+
+
+def main():
+    for line in sys.stdin:
+        line = line.strip()
+        if not line:
+            continue
+        request = json.loads(line)
+        if request.get("op") == "ping":
+            response = {"ok": True}
+        else:
+            if request.get("path"):
+                with open(request["path"], "rb") as f:
+                    f.seek(request.get("offset") or 0)
+                    data = f.read(request["length"]) if request.get("length") is not None else f.read()
+                text = data.decode("utf-8")
+            else:
+                text = request.get("text", "")
+            time.sleep(LATENCY_SECONDS)
+            response = analyze(text, bool(request.get("paraphrasing", False)))
+        response["id"] = request.get("id")
+        sys.stdout.write(json.dumps(response) + "\n")
+        sys.stdout.flush()
+
+
+if __name__ == "__main__":
+    main()
@@ -1,6 +1,9 @@
 package com.plagiarism.detector.config;
 
 import com.plagiarism.detector.service.JwtService;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import jakarta.servlet.DispatcherType;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -14,6 +17,7 @@ import org.springframework.security.config.annotation.web.configuration.EnableWe
 import org.springframework.security.config.http.SessionCreationPolicy;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
@@ -55,8 +59,11 @@ public class SecurityConfig {
             .cors(cors -> cors.configurationSource(corsConfigurationSource()))
             .csrf(csrf -> csrf.disable())
             .authorizeHttpRequests(auth -> auth
+                // Async re-dispatches (SSE job streams) were already authorized on the original request
+                .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
                 .requestMatchers("/api/auth/**").permitAll()
                 .requestMatchers("/api/health/**").permitAll()
+                .requestMatchers("/actuator/health", "/actuator/prometheus").permitAll()
                 .anyRequest().authenticated()
             )
             .sessionManagement(session -> session
@@ -100,12 +107,27 @@ public class SecurityConfig {
             }
             
             jwt = authHeader.substring(7);
-            username = jwtService.extractUsername(jwt);
+            
+            // Parse and verify once; a bad or expired token just leaves the request unauthenticated
+            final Claims claims;
+            try {
+                claims = jwtService.extractAllClaims(jwt);
+            } catch (JwtException | IllegalArgumentException e) {
+                filterChain.doFilter(request, response);
+                return;
+            }
+            username = claims.getSubject();
             
             if (username != null && org.springframework.security.core.context.SecurityContextHolder.getContext().getAuthentication() == null) {
-                UserDetails userDetails = userDetailsService.loadUserByUsername(username);
+                UserDetails userDetails;
+                try {
+                    userDetails = userDetailsService.loadUserByUsername(username);
+                } catch (UsernameNotFoundException e) {
+                    filterChain.doFilter(request, response);
+                    return;
+                }
                 
-                if (jwtService.validateToken(jwt, userDetails)) {
+                if (jwtService.validateClaims(claims, userDetails)) {
                     org.springframework.security.authentication.UsernamePasswordAuthenticationToken authToken = new org.springframework.security.authentication.UsernamePasswordAuthenticationToken(
                         userDetails,
                         null,
@@ -2,20 +2,29 @@ package com.plagiarism.detector.controller;
 
 import com.plagiarism.detector.model.*;
 import com.plagiarism.detector.repository.SearchHistoryRepository;
-import com.plagiarism.detector.repository.SimilaritySourceRepository;
 import com.plagiarism.detector.service.AIService;
+import com.plagiarism.detector.service.AnalysisAdmissionService;
 import com.plagiarism.detector.service.AuthService;
+import com.plagiarism.detector.service.DocumentUploadService;
+import com.plagiarism.detector.service.HistoryExportService;
+import com.plagiarism.detector.service.HistorySearchService;
+import com.plagiarism.detector.service.SearchHistoryService;
+import com.plagiarism.detector.service.UserStatisticsService;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageRequest;
-import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
-import java.time.LocalDateTime;
-import java.util.HashMap;
+import jakarta.servlet.http.HttpServletRequest;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
 import java.util.Map;
 
@@ -26,18 +35,27 @@ public class AnalysisController {
     private final AIService aiService;
     private final AuthService authService;
     private final SearchHistoryRepository searchHistoryRepository;
-    private final SimilaritySourceRepository similaritySourceRepository;
+    private final UserStatisticsService userStatisticsService;
+    private final SearchHistoryService searchHistoryService;
+    private final HistorySearchService historySearchService;
+    private final HistoryExportService historyExportService;
 
     @Autowired
     public AnalysisController(
             AIService aiService,
             AuthService authService,
             SearchHistoryRepository searchHistoryRepository,
-            SimilaritySourceRepository similaritySourceRepository) {
+            UserStatisticsService userStatisticsService,
+            SearchHistoryService searchHistoryService,
+            HistorySearchService historySearchService,
+            HistoryExportService historyExportService) {
         this.aiService = aiService;
         this.authService = authService;
         this.searchHistoryRepository = searchHistoryRepository;
-        this.similaritySourceRepository = similaritySourceRepository;
+        this.userStatisticsService = userStatisticsService;
+        this.searchHistoryService = searchHistoryService;
+        this.historySearchService = historySearchService;
+        this.historyExportService = historyExportService;
     }
 
     @PostMapping("/analyze")
@@ -48,12 +66,7 @@ public class AnalysisController {
         try {
             // Get current authenticated user
             Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-            User user = null;
-            
-            if (authentication != null && authentication.isAuthenticated() && 
-                !authentication.getName().equals("anonymousUser")) {
-                user = authService.getUserByUsername(authentication.getName());
-            }
+            User user = authService.getAuthenticatedUser(authentication);
             
             if (user == null) {
                 AnalysisResponse errorResponse = new AnalysisResponse();
@@ -64,6 +77,8 @@ public class AnalysisController {
             AnalysisResponse response = aiService.analyzeText(request, user);
             System.out.println("Analysis completed successfully");
             return ResponseEntity.ok(response);
+        } catch (AnalysisAdmissionService.AdmissionRejectedException e) {
+            return tooManyRequests(e);
         } catch (Exception e) {
             System.err.println("Error in controller: " + e.getMessage());
             e.printStackTrace();
@@ -73,82 +88,240 @@ public class AnalysisController {
         }
     }
     
-    @GetMapping("/history")
-    public ResponseEntity<Map<String, Object>> getSearchHistory(
-            @RequestParam(defaultValue = "0") int page,
-            @RequestParam(defaultValue = "10") int size) {
+    @PostMapping(value = "/analyze/upload", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public ResponseEntity<AnalysisResponse> analyzeUpload(
+            @RequestParam("file") MultipartFile file,
+            @RequestParam(defaultValue = "false") boolean checkParaphrasing) {
+        System.out.println("Received multipart upload at /api/analyze/upload, size: " + file.getSize());
+        
+        try (InputStream in = file.getInputStream()) {
+            return analyzeDocument(in, checkParaphrasing);
+        } catch (IOException e) {
+            AnalysisResponse errorResponse = new AnalysisResponse();
+            errorResponse.setError("Could not read upload: " + e.getMessage());
+            return ResponseEntity.badRequest().body(errorResponse);
+        }
+    }
+    
+    @PostMapping(value = "/analyze/upload", consumes = {MediaType.TEXT_PLAIN_VALUE, MediaType.APPLICATION_OCTET_STREAM_VALUE})
+    public ResponseEntity<AnalysisResponse> analyzeUploadStream(
+            HttpServletRequest request,
+            @RequestParam(defaultValue = "false") boolean checkParaphrasing) {
+        System.out.println("Received streamed upload at /api/analyze/upload, length: " + request.getContentLengthLong());
+        
+        try (InputStream in = request.getInputStream()) {
+            return analyzeDocument(in, checkParaphrasing);
+        } catch (IOException e) {
+            AnalysisResponse errorResponse = new AnalysisResponse();
+            errorResponse.setError("Could not read upload: " + e.getMessage());
+            return ResponseEntity.badRequest().body(errorResponse);
+        }
+    }
+    
+    private ResponseEntity<AnalysisResponse> analyzeDocument(InputStream in, boolean checkParaphrasing) throws IOException {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        User user = authService.getAuthenticatedUser(authentication);
+        
+        if (user == null) {
+            AnalysisResponse errorResponse = new AnalysisResponse();
+            errorResponse.setError("Authentication required");
+            return ResponseEntity.status(401).body(errorResponse);
+        }
+        
+        try {
+            AnalysisResponse response = aiService.analyzeUpload(in, checkParaphrasing, user);
+            return ResponseEntity.ok(response);
+        } catch (AnalysisAdmissionService.AdmissionRejectedException e) {
+            return tooManyRequests(e);
+        } catch (DocumentUploadService.DocumentTooLargeException e) {
+            AnalysisResponse errorResponse = new AnalysisResponse();
+            errorResponse.setError(e.getMessage());
+            return ResponseEntity.status(413).body(errorResponse);
+        } catch (CharacterCodingException e) {
+            AnalysisResponse errorResponse = new AnalysisResponse();
+            errorResponse.setError("Document must be UTF-8 plain text");
+            return ResponseEntity.badRequest().body(errorResponse);
+        } catch (Exception e) {
+            System.err.println("Error in upload analysis: " + e.getMessage());
+            AnalysisResponse errorResponse = new AnalysisResponse();
+            errorResponse.setError("Server error: " + e.getMessage());
+            return ResponseEntity.status(500).body(errorResponse);
+        }
+    }
+    
+    private static ResponseEntity<AnalysisResponse> tooManyRequests(AnalysisAdmissionService.AdmissionRejectedException e) {
+        AnalysisResponse errorResponse = new AnalysisResponse();
+        errorResponse.setError(e.getMessage());
+        return ResponseEntity.status(429)
+            .header("Retry-After", String.valueOf(e.getRetryAfterSeconds()))
+            .body(errorResponse);
+    }
+    
+    @PostMapping("/analyze/batch")
+    public ResponseEntity<BatchAnalysisResponse> analyzeBatch(@RequestBody List<AnalysisRequest> requests) {
+        System.out.println("Received batch analysis request with " + (requests != null ? requests.size() : 0) + " items");
         
         try {
             Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-            User user = null;
+            User user = authService.getAuthenticatedUser(authentication);
             
-            if (authentication != null && authentication.isAuthenticated() && 
-                !authentication.getName().equals("anonymousUser")) {
-                user = authService.getUserByUsername(authentication.getName());
+            if (user == null) {
+                BatchAnalysisResponse errorResponse = new BatchAnalysisResponse();
+                errorResponse.setError("Authentication required");
+                return ResponseEntity.status(401).body(errorResponse);
             }
             
+            return ResponseEntity.ok(aiService.analyzeBatch(requests, user));
+        } catch (AnalysisAdmissionService.AdmissionRejectedException e) {
+            BatchAnalysisResponse errorResponse = new BatchAnalysisResponse();
+            errorResponse.setError(e.getMessage());
+            return ResponseEntity.status(429)
+                .header("Retry-After", String.valueOf(e.getRetryAfterSeconds()))
+                .body(errorResponse);
+        } catch (IllegalArgumentException e) {
+            BatchAnalysisResponse errorResponse = new BatchAnalysisResponse();
+            errorResponse.setError(e.getMessage());
+            return ResponseEntity.badRequest().body(errorResponse);
+        } catch (Exception e) {
+            System.err.println("Error in batch analysis: " + e.getMessage());
+            BatchAnalysisResponse errorResponse = new BatchAnalysisResponse();
+            errorResponse.setError("Server error: " + e.getMessage());
+            return ResponseEntity.status(500).body(errorResponse);
+        }
+    }
+    
+    @GetMapping("/history")
+    public ResponseEntity<Map<String, Object>> getSearchHistory(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(defaultValue = "false") boolean includeTotal) {
+        
+        try {
+            Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+            User user = authService.getAuthenticatedUser(authentication);
+            
             if (user == null) {
                 return ResponseEntity.status(401).body(Map.of("error", "Authentication required"));
             }
             
-            Pageable pageable = PageRequest.of(page, size);
-            Page<SearchHistory> historyPage = searchHistoryRepository.findByUserOrderByCreatedAtDesc(user, pageable);
-            
-            Map<String, Object> response = new HashMap<>();
-            response.put("content", historyPage.getContent());
-            response.put("totalElements", historyPage.getTotalElements());
-            response.put("totalPages", historyPage.getTotalPages());
-            response.put("currentPage", page);
-            response.put("size", size);
+            if (size < 1 || size > 100) {
+                return ResponseEntity.badRequest().body(Map.of("error", "size must be between 1 and 100"));
+            }
             
-            return ResponseEntity.ok(response);
+            return ResponseEntity.ok(searchHistoryService.getHistoryPage(user, cursor, size, includeTotal));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
         } catch (Exception e) {
             return ResponseEntity.status(500).body(Map.of("error", e.getMessage()));
         }
     }
     
-    @GetMapping("/statistics")
-    public ResponseEntity<Map<String, Object>> getStatistics() {
+    @GetMapping("/history/export")
+    public ResponseEntity<StreamingResponseBody> exportHistory(
+            @RequestParam(defaultValue = HistoryExportService.FORMAT_NDJSON) String format,
+            @RequestParam(defaultValue = "false") boolean includeText) {
+        
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        User user = authService.getAuthenticatedUser(authentication);
+        
+        if (user == null) {
+            return ResponseEntity.status(401).build();
+        }
+        
+        if (!HistoryExportService.isSupportedFormat(format)) {
+            return ResponseEntity.badRequest().build();
+        }
+        
+        boolean csv = HistoryExportService.FORMAT_CSV.equals(format);
+        StreamingResponseBody body = out -> {
+            try {
+                historyExportService.export(user, format, includeText, out);
+            } catch (Exception e) {
+                // Headers are gone; aborting the chunked response tells the client it is incomplete
+                System.err.println("History export for user " + user.getId() + " failed: " + e.getMessage());
+                throw e;
+            }
+        };
+        return ResponseEntity.ok()
+            .contentType(csv ? new MediaType("text", "csv", StandardCharsets.UTF_8) : MediaType.parseMediaType("application/x-ndjson"))
+            .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"history." + format + "\"")
+            .body(body);
+    }
+    
+    @GetMapping("/history/{id}/text")
+    public ResponseEntity<Map<String, Object>> getSearchText(@PathVariable Long id) {
         try {
             Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-            User user = null;
+            User user = authService.getAuthenticatedUser(authentication);
             
-            if (authentication != null && authentication.isAuthenticated() && 
-                !authentication.getName().equals("anonymousUser")) {
-                user = authService.getUserByUsername(authentication.getName());
+            if (user == null) {
+                return ResponseEntity.status(401).body(Map.of("error", "Authentication required"));
             }
             
+            return searchHistoryService.getSearchText(user, id)
+                .<ResponseEntity<Map<String, Object>>>map(text -> ResponseEntity.ok(Map.of("id", id, "text", text)))
+                .orElseGet(() -> ResponseEntity.status(404).body(Map.of("error", "Search not found")));
+        } catch (Exception e) {
+            return ResponseEntity.status(500).body(Map.of("error", e.getMessage()));
+        }
+    }
+    
+    @GetMapping("/history/search")
+    public ResponseEntity<Map<String, Object>> searchHistory(
+            @RequestParam("q") String query,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "10") int size) {
+        
+        try {
+            Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+            User user = authService.getAuthenticatedUser(authentication);
+            
             if (user == null) {
                 return ResponseEntity.status(401).body(Map.of("error", "Authentication required"));
             }
             
-            Map<String, Object> statistics = new HashMap<>();
+            if (page < 0 || size < 1 || size > 100) {
+                return ResponseEntity.badRequest().body(Map.of("error", "page must be >= 0 and size between 1 and 100"));
+            }
             
-            // Total searches
-            long totalSearches = searchHistoryRepository.countByUser(user);
-            statistics.put("totalSearches", totalSearches);
+            return ResponseEntity.ok(historySearchService.search(user, query, page, size));
+        } catch (Exception e) {
+            return ResponseEntity.status(500).body(Map.of("error", e.getMessage()));
+        }
+    }
+    
+    @GetMapping("/statistics")
+    public ResponseEntity<Map<String, Object>> getStatistics() {
+        try {
+            Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+            User user = authService.getAuthenticatedUser(authentication);
             
-            // Average similarity score
-            Double avgSimilarity = searchHistoryRepository.findAverageSimilarityScoreByUser(user);
-            statistics.put("averageSimilarity", avgSimilarity != null ? avgSimilarity : 0.0);
+            if (user == null) {
+                return ResponseEntity.status(401).body(Map.of("error", "Authentication required"));
+            }
             
-            // Recent searches (last 7 days)
-            LocalDateTime weekAgo = LocalDateTime.now().minusDays(7);
-            List<SearchHistory> recentSearches = searchHistoryRepository
-                .findByUserAndCreatedAtBetweenOrderByCreatedAtDesc(user, weekAgo, LocalDateTime.now());
-            statistics.put("recentSearches", recentSearches.size());
+            // Single primary-key read of the user's rollup
+            Map<String, Object> statistics = userStatisticsService.getStatistics(user);
             
-            // High similarity searches (>50%)
-            List<SearchHistory> highSimilaritySearches = searchHistoryRepository
-                .findByUserAndSimilarityScoreGreaterThanOrderBySimilarityScoreDesc(user, 50.0);
-            statistics.put("highSimilaritySearches", highSimilaritySearches.size());
+            return ResponseEntity.ok(statistics);
+        } catch (Exception e) {
+            return ResponseEntity.status(500).body(Map.of("error", e.getMessage()));
+        }
+    }
+    
+    @GetMapping("/statistics/common-queries")
+    public ResponseEntity<?> getCommonQueries(@RequestParam(defaultValue = "10") int limit) {
+        try {
+            Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+            User user = authService.getAuthenticatedUser(authentication);
             
-            // Failed searches
-            List<SearchHistory> failedSearches = searchHistoryRepository
-                .findByUserAndStatusOrderByCreatedAtDesc(user, SearchHistory.SearchStatus.FAILED);
-            statistics.put("failedSearches", failedSearches.size());
+            if (user == null) {
+                return ResponseEntity.status(401).body(Map.of("error", "Authentication required"));
+            }
             
-            return ResponseEntity.ok(statistics);
+            int k = Math.max(1, Math.min(limit, 100));
+            List<CommonQuery> commonQueries = searchHistoryService.getCommonQueries(user, k);
+            return ResponseEntity.ok(commonQueries);
         } catch (Exception e) {
             return ResponseEntity.status(500).body(Map.of("error", e.getMessage()));
         }
@@ -158,12 +331,7 @@ public class AnalysisController {
     public ResponseEntity<List<SimilaritySource>> getSearchSources(@PathVariable Long id) {
         try {
             Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-            User user = null;
-            
-            if (authentication != null && authentication.isAuthenticated() && 
-                !authentication.getName().equals("anonymousUser")) {
-                user = authService.getUserByUsername(authentication.getName());
-            }
+            User user = authService.getAuthenticatedUser(authentication);
             
             if (user == null) {
                 return ResponseEntity.status(401).build();
@@ -175,8 +343,7 @@ public class AnalysisController {
                 return ResponseEntity.status(404).build();
             }
             
-            List<SimilaritySource> sources = similaritySourceRepository
-                .findBySearchHistoryOrderBySimilarityPercentageDesc(searchHistory);
+            List<SimilaritySource> sources = searchHistoryService.getSearchSources(searchHistory);
             
             return ResponseEntity.ok(sources);
         } catch (Exception e) {
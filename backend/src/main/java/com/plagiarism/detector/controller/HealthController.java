@@ -1,16 +1,64 @@
 package com.plagiarism.detector.controller;
 
+import com.plagiarism.detector.service.AnalysisResultCache;
+import com.plagiarism.detector.service.CachingSearchProvider;
+import com.plagiarism.detector.service.PythonWorkerPool;
+import com.plagiarism.detector.service.RemoteAnalyzerClient;
+import com.plagiarism.detector.service.SearchHistoryRetentionService;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.util.Map;
+
 @RestController
 @RequestMapping("/api")
 public class HealthController {
     
+    private final PythonWorkerPool pythonWorkerPool;
+    private final AnalysisResultCache analysisResultCache;
+    private final CachingSearchProvider cachingSearchProvider;
+    private final RemoteAnalyzerClient remoteAnalyzerClient;
+    private final SearchHistoryRetentionService searchHistoryRetentionService;
+    
+    public HealthController(PythonWorkerPool pythonWorkerPool, AnalysisResultCache analysisResultCache,
+                            CachingSearchProvider cachingSearchProvider, RemoteAnalyzerClient remoteAnalyzerClient,
+                            SearchHistoryRetentionService searchHistoryRetentionService) {
+        this.pythonWorkerPool = pythonWorkerPool;
+        this.analysisResultCache = analysisResultCache;
+        this.cachingSearchProvider = cachingSearchProvider;
+        this.remoteAnalyzerClient = remoteAnalyzerClient;
+        this.searchHistoryRetentionService = searchHistoryRetentionService;
+    }
+    
     @GetMapping("/health")
     public ResponseEntity<String> healthCheck() {
         return ResponseEntity.ok("Service is running");
     }
+    
+    @GetMapping("/health/workers")
+    public ResponseEntity<Map<String, Object>> workerPool() {
+        return ResponseEntity.ok(pythonWorkerPool.getStats());
+    }
+    
+    @GetMapping("/health/cache")
+    public ResponseEntity<Map<String, Object>> analysisCache() {
+        return ResponseEntity.ok(analysisResultCache.getStats());
+    }
+    
+    @GetMapping("/health/search-cache")
+    public ResponseEntity<Map<String, Object>> searchCache() {
+        return ResponseEntity.ok(cachingSearchProvider.getStats());
+    }
+    
+    @GetMapping("/health/remote-analyzer")
+    public ResponseEntity<Map<String, Object>> remoteAnalyzer() {
+        return ResponseEntity.ok(remoteAnalyzerClient.getStats());
+    }
+    
+    @GetMapping("/health/retention")
+    public ResponseEntity<Map<String, Object>> retention() {
+        return ResponseEntity.ok(searchHistoryRetentionService.getStats());
+    }
 }
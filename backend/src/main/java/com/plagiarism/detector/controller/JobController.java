@@ -0,0 +1,89 @@
+package com.plagiarism.detector.controller;
+
+import com.plagiarism.detector.model.AnalysisJob;
+import com.plagiarism.detector.model.AnalysisRequest;
+import com.plagiarism.detector.model.User;
+import com.plagiarism.detector.service.AnalysisJobService;
+import com.plagiarism.detector.service.AuthService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.net.URI;
+import java.util.concurrent.RejectedExecutionException;
+
+@RestController
+@RequestMapping("/api")
+public class JobController {
+
+    private final AnalysisJobService analysisJobService;
+    private final AuthService authService;
+
+    @Autowired
+    public JobController(AnalysisJobService analysisJobService, AuthService authService) {
+        this.analysisJobService = analysisJobService;
+        this.authService = authService;
+    }
+
+    @PostMapping("/analyze/async")
+    public ResponseEntity<AnalysisJob> submitAnalysis(@RequestBody AnalysisRequest request) {
+        try {
+            User user = currentUser();
+            if (user == null) {
+                AnalysisJob errorJob = new AnalysisJob();
+                errorJob.setError("Authentication required");
+                return ResponseEntity.status(401).body(errorJob);
+            }
+
+            AnalysisJob job = analysisJobService.submit(request, user);
+            return ResponseEntity.accepted()
+                .location(URI.create("/api/jobs/" + job.getJobId()))
+                .body(job);
+        } catch (RejectedExecutionException e) {
+            AnalysisJob errorJob = new AnalysisJob();
+            errorJob.setError("Analysis queue is full, try again later");
+            return ResponseEntity.status(503).header("Retry-After", "5").body(errorJob);
+        } catch (Exception e) {
+            AnalysisJob errorJob = new AnalysisJob();
+            errorJob.setError("Server error: " + e.getMessage());
+            return ResponseEntity.status(500).body(errorJob);
+        }
+    }
+
+    @GetMapping("/jobs/{id}")
+    public ResponseEntity<AnalysisJob> getJob(@PathVariable Long id) {
+        try {
+            User user = currentUser();
+            if (user == null) {
+                return ResponseEntity.status(401).build();
+            }
+
+            return analysisJobService.getJob(id, user)
+                .map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.status(404).build());
+        } catch (Exception e) {
+            return ResponseEntity.status(500).build();
+        }
+    }
+
+    @GetMapping(value = "/jobs/{id}/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> streamJob(@PathVariable Long id) {
+        User user = currentUser();
+        if (user == null) {
+            return ResponseEntity.status(401).build();
+        }
+
+        return analysisJobService.subscribe(id, user)
+            .map(ResponseEntity::ok)
+            .orElseGet(() -> ResponseEntity.status(404).build());
+    }
+
+    private User currentUser() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        return authService.getAuthenticatedUser(authentication);
+    }
+}
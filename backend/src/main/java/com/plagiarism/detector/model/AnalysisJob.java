@@ -0,0 +1,18 @@
+package com.plagiarism.detector.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AnalysisJob {
+    private Long jobId;
+    private SearchHistory.SearchStatus status;
+    private LocalDateTime createdAt;
+    private AnalysisResponse result;
+    private String error;
+}
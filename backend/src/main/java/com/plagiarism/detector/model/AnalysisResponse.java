@@ -9,6 +9,7 @@ public class AnalysisResponse {
     private boolean aiDetected;
     private double aiConfidence;
     private String error;
+    private List<ChunkScore> chunks;
 
     public static class SimilaritySource {
         private String url;
@@ -58,6 +59,77 @@ public class AnalysisResponse {
         }
     }
 
+    /**
+     * Scores of one section of a document that was analyzed in chunks.
+     */
+    public static class ChunkScore {
+        private int index;
+        private int start;
+        private int end;
+        private double similarityScore;
+        private double aiConfidence;
+        private int sourcesFound;
+
+        public ChunkScore() {}
+
+        public ChunkScore(int index, int start, int end, double similarityScore, double aiConfidence, int sourcesFound) {
+            this.index = index;
+            this.start = start;
+            this.end = end;
+            this.similarityScore = similarityScore;
+            this.aiConfidence = aiConfidence;
+            this.sourcesFound = sourcesFound;
+        }
+
+        public int getIndex() {
+            return index;
+        }
+
+        public void setIndex(int index) {
+            this.index = index;
+        }
+
+        public int getStart() {
+            return start;
+        }
+
+        public void setStart(int start) {
+            this.start = start;
+        }
+
+        public int getEnd() {
+            return end;
+        }
+
+        public void setEnd(int end) {
+            this.end = end;
+        }
+
+        public double getSimilarityScore() {
+            return similarityScore;
+        }
+
+        public void setSimilarityScore(double similarityScore) {
+            this.similarityScore = similarityScore;
+        }
+
+        public double getAiConfidence() {
+            return aiConfidence;
+        }
+
+        public void setAiConfidence(double aiConfidence) {
+            this.aiConfidence = aiConfidence;
+        }
+
+        public int getSourcesFound() {
+            return sourcesFound;
+        }
+
+        public void setSourcesFound(int sourcesFound) {
+            this.sourcesFound = sourcesFound;
+        }
+    }
+
     public double getSimilarityScore() {
         return similarityScore;
     }
@@ -105,4 +177,12 @@ public class AnalysisResponse {
     public void setError(String error) {
         this.error = error;
     }
+
+    public List<ChunkScore> getChunks() {
+        return chunks;
+    }
+
+    public void setChunks(List<ChunkScore> chunks) {
+        this.chunks = chunks;
+    }
 } 
\ No newline at end of file
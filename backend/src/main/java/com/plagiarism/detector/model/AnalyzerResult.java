@@ -0,0 +1,27 @@
+package com.plagiarism.detector.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * One reply of ai_similarity.py, from a --worker process or a --serve endpoint, decoded
+ * straight off the wire. {@code searchResults} is only sent when the JVM does the scoring,
+ * {@code ok} only in answer to a ping and {@code id} only by workers.
+ */
+@Data
+@NoArgsConstructor
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class AnalyzerResult {
+    private Long id;
+    private Boolean ok;
+    private double similarityScore;
+    private List<AnalysisResponse.SimilaritySource> matchedSources;
+    private List<SearchResult> searchResults;
+    private String paraphrasedText;
+    private boolean aiDetected;
+    private double aiConfidence;
+    private String error;
+}
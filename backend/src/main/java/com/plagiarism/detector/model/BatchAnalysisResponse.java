@@ -0,0 +1,33 @@
+package com.plagiarism.detector.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchAnalysisResponse {
+    private List<Item> items;
+    private int totalItems;
+    private int uniqueItems;
+    private int failedItems;
+    private long elapsedMs;
+    private long totalAnalysisMs;
+    private String error;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Item {
+        private int index;
+        private Long historyId;
+        // index of the earlier item with the same text, when this one was deduplicated
+        private Integer duplicateOf;
+        private boolean servedFromCache;
+        private long processingTimeMs;
+        private AnalysisResponse result;
+    }
+}
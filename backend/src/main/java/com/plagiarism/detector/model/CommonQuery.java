@@ -0,0 +1,21 @@
+package com.plagiarism.detector.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * A text a user has submitted, identified by its fingerprint, with how often and when
+ * it was last submitted. Texts submitted only once are included, with a count of 1.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CommonQuery {
+    private String queryHash;
+    private String preview;
+    private long count;
+    private LocalDateTime lastSubmittedAt;
+}
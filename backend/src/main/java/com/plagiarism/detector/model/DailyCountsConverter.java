@@ -0,0 +1,39 @@
+package com.plagiarism.detector.model;
+
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+
+/**
+ * Stores a small array of per-day counts as a comma-separated string.
+ */
+@Converter
+public class DailyCountsConverter implements AttributeConverter<long[], String> {
+
+    @Override
+    public String convertToDatabaseColumn(long[] counts) {
+        if (counts == null) {
+            return "";
+        }
+        StringBuilder value = new StringBuilder();
+        for (int i = 0; i < counts.length; i++) {
+            if (i > 0) {
+                value.append(',');
+            }
+            value.append(counts[i]);
+        }
+        return value.toString();
+    }
+
+    @Override
+    public long[] convertToEntityAttribute(String value) {
+        if (value == null || value.isEmpty()) {
+            return new long[0];
+        }
+        String[] parts = value.split(",");
+        long[] counts = new long[parts.length];
+        for (int i = 0; i < parts.length; i++) {
+            counts[i] = Long.parseLong(parts[i].trim());
+        }
+        return counts;
+    }
+}
@@ -0,0 +1,29 @@
+package com.plagiarism.detector.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * One row of a user's history list: the stored preview instead of the full submission,
+ * which is fetched separately from /api/history/{id}/text when it is opened.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class HistoryEntry {
+    private Long id;
+    private String preview;
+    private Integer textLength;
+    private Double similarityScore;
+    private Boolean aiDetected;
+    private Double aiConfidence;
+    private Integer sourcesFound;
+    private SearchHistory.SearchStatus status;
+    private Long processingTimeMs;
+    private String stageTimings;
+    private Boolean servedFromCache;
+    private LocalDateTime createdAt;
+}
@@ -0,0 +1,24 @@
+package com.plagiarism.detector.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * One ranked match from a history search.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class HistorySearchHit {
+    private Long id;
+    private String preview;
+    private LocalDateTime createdAt;
+    private Double similarityScore;
+    private Boolean aiDetected;
+    private SearchHistory.SearchStatus status;
+    private int matchedTerms;
+    private long termWeight;
+}
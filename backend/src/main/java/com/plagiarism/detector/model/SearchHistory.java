@@ -4,6 +4,8 @@ import jakarta.persistence.*;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import lombok.AllArgsConstructor;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
 
 import java.time.LocalDateTime;
 
@@ -14,17 +16,35 @@ import java.time.LocalDateTime;
 @AllArgsConstructor
 public class SearchHistory {
     
+    public static final int QUERY_PREVIEW_LENGTH = 200;
+    
+    // Pooled sequence (a table on MySQL) so inserts can be JDBC-batched
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "search_history_seq")
+    @SequenceGenerator(name = "search_history_seq", sequenceName = "search_history_seq", allocationSize = 50)
     private Long id;
     
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "user_id", nullable = false)
     private User user;
     
-    @Column(name = "search_query", nullable = false, columnDefinition = "TEXT")
+    // The submitted text while a new row is being created, or the inline copy of a row
+    // written before text_blobs. Never written: new rows store the text under queryBlob.
+    @Column(name = "search_query", columnDefinition = "TEXT", insertable = false, updatable = false)
     private String searchQuery;
     
+    // TextBlobStore key of the submitted text
+    @Column(name = "query_blob", length = 64)
+    private String queryBlob;
+    
+    // TextFingerprint of the query, so grouping and duplicate lookups never touch the TEXT column
+    @Column(name = "query_hash", length = 64)
+    @JdbcTypeCode(SqlTypes.CHAR)
+    private String queryHash;
+    
+    @Column(name = "query_preview", length = QUERY_PREVIEW_LENGTH)
+    private String queryPreview;
+    
     @Column(name = "text_length")
     private Integer textLength;
     
@@ -53,6 +73,21 @@ public class SearchHistory {
     @Column(name = "error_message", columnDefinition = "TEXT")
     private String errorMessage;
     
+    @Column(name = "served_from_cache")
+    private Boolean servedFromCache = false;
+    
+    // JSON object of pipeline stage -> milliseconds (see StageTimings)
+    @Column(name = "stage_timings")
+    private String stageTimings;
+    
+    // Whether search_history_terms holds this row's terms
+    @Column(name = "terms_indexed")
+    private Boolean termsIndexed = false;
+    
+    // Whether the owner's user_statistics row counts this search; set only by UserStatisticsService
+    @Column(name = "rolled_up", insertable = false, updatable = false)
+    private boolean rolledUp;
+    
     @PrePersist
     protected void onCreate() {
         createdAt = LocalDateTime.now();
@@ -0,0 +1,47 @@
+package com.plagiarism.detector.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "search_phrase_cache")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SearchPhraseCacheEntry {
+    
+    @Id
+    @Column(name = "phrase_hash", length = 64)
+    @JdbcTypeCode(SqlTypes.CHAR)
+    private String phraseHash;
+    
+    @Column(name = "phrase", nullable = false, length = 1024)
+    private String phrase;
+    
+    @Column(name = "url", nullable = false, columnDefinition = "TEXT")
+    private String url;
+    
+    @Column(name = "title", columnDefinition = "TEXT")
+    private String title;
+    
+    @Column(name = "snippet", columnDefinition = "TEXT")
+    private String snippet;
+    
+    @Column(name = "hit_count", nullable = false)
+    private Long hitCount = 0L;
+    
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+    
+    @Column(name = "last_accessed_at", nullable = false)
+    private LocalDateTime lastAccessedAt;
+    
+    @Column(name = "expires_at", nullable = false)
+    private LocalDateTime expiresAt;
+}
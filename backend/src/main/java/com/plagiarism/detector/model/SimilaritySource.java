@@ -1,5 +1,6 @@
 package com.plagiarism.detector.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import lombok.Data;
 import lombok.NoArgsConstructor;
@@ -12,12 +13,15 @@ import lombok.AllArgsConstructor;
 @AllArgsConstructor
 public class SimilaritySource {
     
+    // Pooled sequence (a table on MySQL) so inserts can be JDBC-batched
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "similarity_sources_seq")
+    @SequenceGenerator(name = "similarity_sources_seq", sequenceName = "similarity_sources_seq", allocationSize = 50)
     private Long id;
     
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "search_history_id", nullable = false)
+    @JsonIgnore
     private SearchHistory searchHistory;
     
     @Column(name = "url", nullable = false, columnDefinition = "TEXT")
@@ -29,9 +33,16 @@ public class SimilaritySource {
     @Column(name = "similarity_percentage", nullable = false)
     private Double similarityPercentage;
     
-    @Column(name = "matched_text", columnDefinition = "LONGTEXT")
+    // The snippet while a new row is being saved or once resolved through TextBlobStore,
+    // or the inline copy of a row written before text_blobs. Never written.
+    @Column(name = "matched_text", columnDefinition = "LONGTEXT", insertable = false, updatable = false)
     private String matchedText;
     
+    // TextBlobStore key of the snippet
+    @Column(name = "matched_text_blob", length = 64)
+    @JsonIgnore
+    private String matchedTextBlob;
+    
     @Column(name = "domain")
     private String domain;
     
@@ -1,5 +1,6 @@
 package com.plagiarism.detector.model;
 
+import com.plagiarism.detector.service.UserChangeListener;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.Email;
 import jakarta.validation.constraints.NotBlank;
@@ -17,6 +18,7 @@ import java.util.List;
 
 @Entity
 @Table(name = "users")
+@EntityListeners(UserChangeListener.class)
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
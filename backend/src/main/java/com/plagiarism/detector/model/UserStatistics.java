@@ -0,0 +1,115 @@
+package com.plagiarism.detector.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+
+@Entity
+@Table(name = "user_statistics")
+@Data
+@NoArgsConstructor
+public class UserStatistics {
+    
+    public static final int RECENT_DAYS = 7;
+    
+    @Id
+    @Column(name = "user_id")
+    private Long userId;
+    
+    @Column(name = "total_searches", nullable = false)
+    private long totalSearches;
+    
+    @Column(name = "failed_searches", nullable = false)
+    private long failedSearches;
+    
+    @Column(name = "high_similarity_searches", nullable = false)
+    private long highSimilaritySearches;
+    
+    @Column(name = "similarity_sum", nullable = false)
+    private double similaritySum;
+    
+    @Column(name = "similarity_count", nullable = false)
+    private long similarityCount;
+    
+    // Day of the last entry in recentCounts; entry i counts searches made RECENT_DAYS - 1 - i days earlier
+    @Column(name = "recent_day", nullable = false)
+    private LocalDate recentDay;
+    
+    @Column(name = "recent_counts", nullable = false)
+    @Convert(converter = DailyCountsConverter.class)
+    private long[] recentCounts = new long[RECENT_DAYS];
+    
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+    
+    public UserStatistics(Long userId, LocalDate today) {
+        this.userId = userId;
+        this.recentDay = today;
+    }
+    
+    @PrePersist
+    @PreUpdate
+    protected void onSave() {
+        updatedAt = LocalDateTime.now();
+    }
+    
+    /**
+     * Adds one search made on {@code day} to the daily counts, dropping days that
+     * fall out of the window as it moves forward.
+     */
+    public void addRecent(LocalDate day, LocalDate today) {
+        countRecent(day, today, 1);
+    }
+    
+    /**
+     * Takes one search made on {@code day} back out of the daily counts.
+     */
+    public void removeRecent(LocalDate day, LocalDate today) {
+        countRecent(day, today, -1);
+    }
+    
+    /**
+     * Searches made over the last {@link #RECENT_DAYS} days, today included.
+     */
+    public long recentTotal(LocalDate today) {
+        long age = ChronoUnit.DAYS.between(recentDay, today);
+        long total = 0;
+        for (int i = (int) Math.max(0, Math.min(age, RECENT_DAYS)); i < RECENT_DAYS; i++) {
+            total += recentCounts[i];
+        }
+        return total;
+    }
+    
+    public double averageSimilarity() {
+        return similarityCount > 0 ? similaritySum / similarityCount : 0.0;
+    }
+    
+    private void countRecent(LocalDate day, LocalDate today, int delta) {
+        shiftTo(today);
+        long age = ChronoUnit.DAYS.between(day, recentDay);
+        if (age >= 0 && age < RECENT_DAYS) {
+            int index = (int) (RECENT_DAYS - 1 - age);
+            recentCounts[index] = Math.max(0, recentCounts[index] + delta);
+        }
+    }
+    
+    private void shiftTo(LocalDate today) {
+        if (recentCounts == null || recentCounts.length != RECENT_DAYS) {
+            recentCounts = new long[RECENT_DAYS];
+        }
+        long shift = ChronoUnit.DAYS.between(recentDay, today);
+        if (shift <= 0) {
+            return;
+        }
+        long[] shifted = new long[RECENT_DAYS];
+        for (int i = (int) Math.min(shift, RECENT_DAYS); i < RECENT_DAYS; i++) {
+            shifted[(int) (i - shift)] = recentCounts[i];
+        }
+        recentCounts = shifted;
+        recentDay = today;
+    }
+}
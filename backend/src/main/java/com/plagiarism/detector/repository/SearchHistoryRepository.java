@@ -1,23 +1,53 @@
 package com.plagiarism.detector.repository;
 
+import com.plagiarism.detector.model.CommonQuery;
+import com.plagiarism.detector.model.HistoryEntry;
 import com.plagiarism.detector.model.SearchHistory;
 import com.plagiarism.detector.model.User;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface SearchHistoryRepository extends JpaRepository<SearchHistory, Long> {
     
+    String HISTORY_ENTRY_FIELDS =
+        "sh.id, sh.queryPreview, sh.textLength, sh.similarityScore, sh.aiDetected, sh.aiConfidence, " +
+        "sh.sourcesFound, sh.status, sh.processingTimeMs, sh.stageTimings, sh.servedFromCache, sh.createdAt";
+    
     // Find all searches by user
     Page<SearchHistory> findByUserOrderByCreatedAtDesc(User user, Pageable pageable);
     
+    // Newest history rows of a user as list entries, without the TEXT columns or a count query
+    @Query("SELECT new com.plagiarism.detector.model.HistoryEntry(" + HISTORY_ENTRY_FIELDS + ") " +
+           "FROM SearchHistory sh WHERE sh.user.id = :userId " +
+           "ORDER BY sh.createdAt DESC, sh.id DESC")
+    List<HistoryEntry> findHistoryEntries(@Param("userId") Long userId, Pageable pageable);
+    
+    // History entries of a user that come after (createdAt, id) in newest-first order
+    @Query("SELECT new com.plagiarism.detector.model.HistoryEntry(" + HISTORY_ENTRY_FIELDS + ") " +
+           "FROM SearchHistory sh WHERE sh.user.id = :userId " +
+           "AND (sh.createdAt < :createdAt OR (sh.createdAt = :createdAt AND sh.id < :id)) " +
+           "ORDER BY sh.createdAt DESC, sh.id DESC")
+    List<HistoryEntry> findHistoryEntriesBefore(@Param("userId") Long userId,
+                                                @Param("createdAt") LocalDateTime createdAt,
+                                                @Param("id") Long id,
+                                                Pageable pageable);
+    
+    // One of a user's searches
+    Optional<SearchHistory> findByIdAndUserId(Long id, Long userId);
+    
     // Find recent searches by user (last 10)
     List<SearchHistory> findTop10ByUserOrderByCreatedAtDesc(User user);
     
@@ -39,11 +69,50 @@ public interface SearchHistoryRepository extends JpaRepository<SearchHistory, Lo
     @Query("SELECT AVG(sh.similarityScore) FROM SearchHistory sh WHERE sh.user = :user AND sh.similarityScore IS NOT NULL")
     Double findAverageSimilarityScoreByUser(@Param("user") User user);
     
-    // Find searches with similar queries (for optimization)
-    @Query("SELECT sh FROM SearchHistory sh WHERE sh.searchQuery LIKE %:query% AND sh.user = :user ORDER BY sh.createdAt DESC")
-    List<SearchHistory> findBySimilarQuery(@Param("query") String query, @Param("user") User user);
+    // Aggregate a user's rolled-up searches: count, failed count, count above threshold, score sum and score count
+    @Query("SELECT COUNT(sh), " +
+           "SUM(CASE WHEN sh.status = :failed THEN 1 ELSE 0 END), " +
+           "SUM(CASE WHEN sh.similarityScore > :threshold THEN 1 ELSE 0 END), " +
+           "SUM(sh.similarityScore), COUNT(sh.similarityScore) " +
+           "FROM SearchHistory sh WHERE sh.user.id = :userId AND sh.rolledUp = true")
+    List<Object[]> aggregateRolledUpByUser(@Param("userId") Long userId,
+                                           @Param("failed") SearchHistory.SearchStatus failed,
+                                           @Param("threshold") Double threshold);
+    
+    // Find creation times of a user's rolled-up searches since a point in time
+    @Query("SELECT sh.createdAt FROM SearchHistory sh WHERE sh.user.id = :userId AND sh.rolledUp = true AND sh.createdAt >= :since")
+    List<LocalDateTime> findRolledUpCreatedAtByUserSince(@Param("userId") Long userId,
+                                                         @Param("since") LocalDateTime since);
+    
+    // Ids among the given searches that their owners' rollups do not count yet
+    @Query("SELECT sh.id FROM SearchHistory sh WHERE sh.id IN :ids AND sh.rolledUp = false")
+    List<Long> findIdsNotRolledUp(@Param("ids") Collection<Long> ids);
+    
+    // Mark searches as counted in their owners' rollups
+    @Modifying
+    @Query(value = "UPDATE search_history SET rolled_up = TRUE WHERE id IN (:ids)", nativeQuery = true)
+    int markRolledUp(@Param("ids") Collection<Long> ids);
+    
+    // Mark all of a user's searches in the given statuses as counted in their rollup
+    @Modifying
+    @Query(value = "UPDATE search_history SET rolled_up = TRUE " +
+                   "WHERE user_id = :userId AND status IN (:statuses) AND rolled_up = FALSE", nativeQuery = true)
+    int markRolledUpByUserAndStatusIn(@Param("userId") Long userId, @Param("statuses") List<String> statuses);
+    
+    // Load searches that are about to be deleted and lock them for the rest of the transaction
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT sh FROM SearchHistory sh WHERE sh.id IN :ids ORDER BY sh.id")
+    List<SearchHistory> findAllForUpdate(@Param("ids") Collection<Long> ids);
+    
+    // Find earlier submissions of the same text
+    List<SearchHistory> findByUserAndQueryHashOrderByCreatedAtDesc(User user, String queryHash);
+    
+    // Count earlier submissions of the same text
+    long countByUserAndQueryHash(User user, String queryHash);
     
-    // Find most common search patterns
-    @Query("SELECT sh.searchQuery, COUNT(sh) as count FROM SearchHistory sh WHERE sh.user = :user GROUP BY sh.searchQuery ORDER BY count DESC")
-    List<Object[]> findMostCommonQueries(@Param("user") User user);
+    // Find most common search patterns, grouped on the fixed-width query hash (single submissions included)
+    @Query("SELECT new com.plagiarism.detector.model.CommonQuery(sh.queryHash, MIN(sh.queryPreview), COUNT(sh), MAX(sh.createdAt)) " +
+           "FROM SearchHistory sh WHERE sh.user = :user AND sh.queryHash IS NOT NULL " +
+           "GROUP BY sh.queryHash ORDER BY COUNT(sh) DESC")
+    List<CommonQuery> findMostCommonQueries(@Param("user") User user, Pageable pageable);
 } 
\ No newline at end of file
@@ -0,0 +1,43 @@
+package com.plagiarism.detector.repository;
+
+import com.plagiarism.detector.model.SearchPhraseCacheEntry;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface SearchPhraseCacheRepository extends JpaRepository<SearchPhraseCacheEntry, String> {
+    
+    // Record a cache hit
+    @Transactional
+    @Modifying
+    @Query("UPDATE SearchPhraseCacheEntry e SET e.lastAccessedAt = :now, e.hitCount = e.hitCount + 1 WHERE e.phraseHash = :phraseHash")
+    int touch(@Param("phraseHash") String phraseHash, @Param("now") LocalDateTime now);
+    
+    // Remove entries past their TTL
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM SearchPhraseCacheEntry e WHERE e.expiresAt <= :now")
+    int deleteExpired(@Param("now") LocalDateTime now);
+    
+    // Find least recently used entries, oldest first
+    @Query("SELECT e.phraseHash FROM SearchPhraseCacheEntry e ORDER BY e.lastAccessedAt ASC")
+    List<String> findLeastRecentlyUsed(Pageable pageable);
+    
+    // Remove the given entries
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM SearchPhraseCacheEntry e WHERE e.phraseHash IN :phraseHashes")
+    int deleteByPhraseHashIn(@Param("phraseHashes") List<String> phraseHashes);
+    
+    // Total hits served from the cache
+    @Query("SELECT COALESCE(SUM(e.hitCount), 0) FROM SearchPhraseCacheEntry e")
+    long sumHitCount();
+}
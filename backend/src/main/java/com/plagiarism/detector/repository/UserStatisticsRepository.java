@@ -0,0 +1,29 @@
+package com.plagiarism.detector.repository;
+
+import com.plagiarism.detector.model.UserStatistics;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.Optional;
+
+@Repository
+public interface UserStatisticsRepository extends JpaRepository<UserStatistics, Long> {
+    
+    // Load a user's rollup and lock it for the rest of the transaction
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT us FROM UserStatistics us WHERE us.userId = :userId")
+    Optional<UserStatistics> findForUpdate(@Param("userId") Long userId);
+    
+    // Create an empty rollup unless one exists; a concurrent creator makes this wait for its commit
+    @Modifying
+    @Query(value = "INSERT IGNORE INTO user_statistics (user_id, recent_day, recent_counts, updated_at) " +
+                   "VALUES (:userId, :recentDay, :recentCounts, CURRENT_TIMESTAMP)", nativeQuery = true)
+    int insertIfAbsent(@Param("userId") Long userId, @Param("recentDay") LocalDate recentDay,
+                       @Param("recentCounts") String recentCounts);
+}
@@ -2,22 +2,75 @@ package com.plagiarism.detector.service;
 
 import com.plagiarism.detector.model.AnalysisRequest;
 import com.plagiarism.detector.model.AnalysisResponse;
+import com.plagiarism.detector.model.BatchAnalysisResponse;
 import com.plagiarism.detector.model.User;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Path;
+import java.util.List;
+
 @Service
 public class AIService {
     
     private final PlagiarismAnalysisService plagiarismAnalysisService;
+    private final AnalysisAdmissionService analysisAdmissionService;
+    private final DocumentUploadService documentUploadService;
+    private final BatchAnalysisService batchAnalysisService;
     
     @Autowired
-    public AIService(PlagiarismAnalysisService plagiarismAnalysisService) {
+    public AIService(PlagiarismAnalysisService plagiarismAnalysisService,
+                     AnalysisAdmissionService analysisAdmissionService,
+                     DocumentUploadService documentUploadService,
+                     BatchAnalysisService batchAnalysisService) {
         this.plagiarismAnalysisService = plagiarismAnalysisService;
+        this.analysisAdmissionService = analysisAdmissionService;
+        this.documentUploadService = documentUploadService;
+        this.batchAnalysisService = batchAnalysisService;
+    }
+    
+    /**
+     * @throws AnalysisAdmissionService.AdmissionRejectedException when the service or the user is at capacity
+     */
+    public AnalysisResponse analyzeText(AnalysisRequest request, User user) throws InterruptedException {
+        try (AnalysisAdmissionService.Permit permit = analysisAdmissionService.acquire(user)) {
+            return plagiarismAnalysisService.analyzeText(request, user);
+        }
+    }
+    
+    /**
+     * Spools an uploaded UTF-8 document to a temp file, analyzes it and removes the file.
+     * Admission happens before the body is read, so a rejected upload costs nothing.
+     *
+     * @throws AnalysisAdmissionService.AdmissionRejectedException when the service or the user is at capacity
+     * @throws DocumentUploadService.DocumentTooLargeException when the upload exceeds the size limit
+     * @throws java.nio.charset.CharacterCodingException when the document is not valid UTF-8
+     */
+    public AnalysisResponse analyzeUpload(InputStream in, boolean checkParaphrasing, User user)
+            throws IOException, InterruptedException {
+        try (AnalysisAdmissionService.Permit permit = analysisAdmissionService.acquire(user)) {
+            Path document = documentUploadService.spool(in);
+            try {
+                return plagiarismAnalysisService.analyzeDocument(document, checkParaphrasing, user);
+            } finally {
+                documentUploadService.delete(document);
+            }
+        }
     }
     
-    public AnalysisResponse analyzeText(AnalysisRequest request, User user) {
-        return plagiarismAnalysisService.analyzeText(request, user);
+    /**
+     * Runs a batch under a single admission slot, so a batch counts against the user's
+     * limit like any other analysis and a user cannot flood the shared batch pool.
+     *
+     * @throws AnalysisAdmissionService.AdmissionRejectedException when the service or the user is at capacity
+     * @throws IllegalArgumentException when the batch is empty or too large
+     */
+    public BatchAnalysisResponse analyzeBatch(List<AnalysisRequest> requests, User user) throws InterruptedException {
+        try (AnalysisAdmissionService.Permit permit = analysisAdmissionService.acquire(user)) {
+            return batchAnalysisService.analyzeBatch(requests, user);
+        }
     }
     
     public AnalysisResponse analyzeText(AnalysisRequest request) {
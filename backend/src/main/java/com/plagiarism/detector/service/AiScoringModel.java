@@ -0,0 +1,16 @@
+package com.plagiarism.detector.service;
+
+/**
+ * Turns the features of a text into a confidence that it is AI-generated. Implementations
+ * are Spring beans; {@code analysis.ai-detection.model} picks one by {@link #name()}.
+ */
+public interface AiScoringModel {
+
+    String name();
+
+    /**
+     * A confidence between 0.0 and 1.0; texts scoring above
+     * {@link AiTextDetector#DETECTION_THRESHOLD} are reported as AI-generated.
+     */
+    double confidence(AiTextFeatures features);
+}
@@ -0,0 +1,152 @@
+package com.plagiarism.detector.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * In-JVM replacement for {@code AISimilarityService.detect_ai_generated}. One pass over the
+ * text gathers the sentence-length, stock-phrase and paragraph-length features, with the
+ * phrase list matched by an Aho–Corasick automaton instead of one substring scan per phrase,
+ * and the configured {@link AiScoringModel} turns them into a confidence.
+ */
+@Component
+public class AiTextDetector {
+
+    /** Same cut-off as {@code detect_ai_generated} in ai_similarity.py. */
+    public static final double DETECTION_THRESHOLD = 0.5;
+
+    /** {@code generic_phrases} from {@code _check_generic_phrases}. */
+    public static final List<String> GENERIC_PHRASES = List.of(
+        "it is important to", "in conclusion", "furthermore", "moreover",
+        "additionally", "it should be noted", "as mentioned earlier",
+        "it is worth noting", "it is clear that", "it can be seen that");
+
+    private static final int SIMILAR_SENTENCE_CHARS = 10;
+    private static final int SIMILAR_PARAGRAPH_CHARS = 50;
+
+    private static final PhraseAutomaton PHRASES = new PhraseAutomaton(GENERIC_PHRASES);
+
+    private final AiScoringModel model;
+
+    public AiTextDetector(List<AiScoringModel> models,
+                          @Value("${analysis.ai-detection.model:" + HeuristicAiScoringModel.NAME + "}") String modelName) {
+        this.model = models.stream()
+            .filter(candidate -> candidate.name().equals(modelName))
+            .findFirst()
+            .orElseThrow(() -> new IllegalStateException("Unknown analysis.ai-detection.model '" + modelName
+                + "', available: " + models.stream().map(AiScoringModel::name).collect(Collectors.joining(", "))));
+    }
+
+    public Detection detect(String text) {
+        double confidence = SimilarityEngine.round(model.confidence(extractFeatures(text)), 4);
+        return new Detection(confidence > DETECTION_THRESHOLD, confidence);
+    }
+
+    public static AiTextFeatures extractFeatures(String text) {
+        int length = text.length();
+
+        int phraseState = PHRASES.start();
+        long phrasesSeen = 0;
+        int phraseOccurrences = 0;
+
+        // re.split(r'[.!?]+'): a run of terminators ends one piece
+        int sentences = 0;
+        int similarSentences = 0;
+        int previousSentence = -1;
+        int sentenceStart = 0;
+        boolean inTerminators = false;
+
+        // str.split('\n\n'): separators are taken left to right without overlapping
+        int paragraphs = 0;
+        int similarParagraphs = 0;
+        int previousParagraph = -1;
+        int paragraphStart = 0;
+        boolean newlineConsumed = false;
+
+        // Lengths are in code points, as Python's len counts them
+        int pairedSurrogates = 0;
+
+        for (int i = 0; i < length; i++) {
+            char c = text.charAt(i);
+            if (Character.isLowSurrogate(c) && i > 0 && Character.isHighSurrogate(text.charAt(i - 1))) {
+                pairedSurrogates++;
+            }
+            int position = i - pairedSurrogates;
+
+            phraseState = PHRASES.next(phraseState, Character.toLowerCase(c));
+            long matched = PHRASES.matches(phraseState);
+            if (matched != 0) {
+                phrasesSeen |= matched;
+                phraseOccurrences += Long.bitCount(matched);
+            }
+            if (c == '\u0130') {
+                // str.lower() turns it into "i\u0307", and the combining dot breaks any match
+                phraseState = PHRASES.start();
+            }
+
+            if (c == '.' || c == '!' || c == '?') {
+                if (!inTerminators) {
+                    int sentence = position - sentenceStart;
+                    sentences++;
+                    if (previousSentence >= 0 && Math.abs(sentence - previousSentence) < SIMILAR_SENTENCE_CHARS) {
+                        similarSentences++;
+                    }
+                    previousSentence = sentence;
+                    inTerminators = true;
+                }
+            } else if (inTerminators) {
+                sentenceStart = position;
+                inTerminators = false;
+            }
+
+            boolean separator = c == '\n' && i > 0 && text.charAt(i - 1) == '\n' && !newlineConsumed;
+            if (separator) {
+                int paragraph = position - 1 - paragraphStart;
+                paragraphs++;
+                if (previousParagraph >= 0 && Math.abs(paragraph - previousParagraph) < SIMILAR_PARAGRAPH_CHARS) {
+                    similarParagraphs++;
+                }
+                previousParagraph = paragraph;
+                paragraphStart = position + 1;
+            }
+            newlineConsumed = separator;
+        }
+
+        // The final pieces, which may be empty
+        int codePoints = length - pairedSurrogates;
+        int lastSentence = inTerminators ? 0 : codePoints - sentenceStart;
+        sentences++;
+        if (previousSentence >= 0 && Math.abs(lastSentence - previousSentence) < SIMILAR_SENTENCE_CHARS) {
+            similarSentences++;
+        }
+        int lastParagraph = codePoints - paragraphStart;
+        paragraphs++;
+        if (previousParagraph >= 0 && Math.abs(lastParagraph - previousParagraph) < SIMILAR_PARAGRAPH_CHARS) {
+            similarParagraphs++;
+        }
+
+        return new AiTextFeatures(codePoints, sentences, similarSentences, paragraphs, similarParagraphs,
+            Long.bitCount(phrasesSeen), phraseOccurrences);
+    }
+
+    public static class Detection {
+        private final boolean aiDetected;
+        private final double confidence;
+
+        public Detection(boolean aiDetected, double confidence) {
+            this.aiDetected = aiDetected;
+            this.confidence = confidence;
+        }
+
+        public boolean isAiDetected() {
+            return aiDetected;
+        }
+
+        public double getConfidence() {
+            return confidence;
+        }
+    }
+}
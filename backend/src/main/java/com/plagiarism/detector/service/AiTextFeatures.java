@@ -0,0 +1,73 @@
+package com.plagiarism.detector.service;
+
+/**
+ * Stylometric features behind {@code AISimilarityService.detect_ai_generated}, gathered by
+ * {@link AiTextDetector} in one pass. Sentences and paragraphs are counted the way the
+ * Python checks split them ({@code re.split(r'[.!?]+')} and {@code split('\n\n')}), so
+ * empty leading and trailing pieces count too, and lengths are in code points like
+ * Python's {@code len}.
+ */
+public class AiTextFeatures {
+
+    private final int length;
+    private final int sentences;
+    private final int similarSentencePairs;
+    private final int paragraphs;
+    private final int similarParagraphPairs;
+    private final int genericPhrases;
+    private final int genericPhraseOccurrences;
+
+    public AiTextFeatures(int length, int sentences, int similarSentencePairs, int paragraphs,
+                          int similarParagraphPairs, int genericPhrases, int genericPhraseOccurrences) {
+        this.length = length;
+        this.sentences = sentences;
+        this.similarSentencePairs = similarSentencePairs;
+        this.paragraphs = paragraphs;
+        this.similarParagraphPairs = similarParagraphPairs;
+        this.genericPhrases = genericPhrases;
+        this.genericPhraseOccurrences = genericPhraseOccurrences;
+    }
+
+    /** {@code _check_repetitive_patterns}: over 70% of neighbouring sentences within 10 chars in length. */
+    public boolean hasRepetitiveSentences() {
+        return sentences >= 3 && (double) similarSentencePairs / (sentences - 1) > 0.7;
+    }
+
+    /** {@code _check_generic_phrases}: at least two different stock phrases. */
+    public boolean hasGenericPhrases() {
+        return genericPhrases >= 2;
+    }
+
+    /** {@code _check_text_structure}: over 80% of neighbouring paragraphs within 50 chars in length. */
+    public boolean hasUniformParagraphs() {
+        return paragraphs >= 2 && (double) similarParagraphPairs / (paragraphs - 1) > 0.8;
+    }
+
+    public int getLength() {
+        return length;
+    }
+
+    public int getSentences() {
+        return sentences;
+    }
+
+    public int getSimilarSentencePairs() {
+        return similarSentencePairs;
+    }
+
+    public int getParagraphs() {
+        return paragraphs;
+    }
+
+    public int getSimilarParagraphPairs() {
+        return similarParagraphPairs;
+    }
+
+    public int getGenericPhrases() {
+        return genericPhrases;
+    }
+
+    public int getGenericPhraseOccurrences() {
+        return genericPhraseOccurrences;
+    }
+}
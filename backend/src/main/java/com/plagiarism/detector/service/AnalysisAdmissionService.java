@@ -0,0 +1,181 @@
+package com.plagiarism.detector.service;
+
+import com.plagiarism.detector.model.User;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Admission control for synchronous analyses: at most {@code max-concurrent} run at once,
+ * each user holds at most {@code per-user} of those slots, and at most
+ * {@code queue-capacity} requests wait (for up to {@code max-wait-ms}) for a free slot.
+ * Everything else is turned away immediately so overload shows up as fast 429s rather
+ * than as unbounded queueing in front of the Python workers.
+ */
+@Service
+public class AnalysisAdmissionService {
+
+    @Value("${analysis.admission.enabled:true}")
+    private boolean enabled;
+
+    @Value("${analysis.admission.per-user:2}")
+    private int perUser;
+
+    @Value("${analysis.admission.queue-capacity:32}")
+    private int queueCapacity;
+
+    @Value("${analysis.admission.max-wait-ms:2000}")
+    private long maxWaitMs;
+
+    private final int maxConcurrent;
+    private final Semaphore slots;
+    // Slots held per user; users without analyses in flight have no entry
+    private final ConcurrentHashMap<Long, Integer> activeByUser = new ConcurrentHashMap<>();
+    private final AtomicInteger waiting = new AtomicInteger();
+    private final Timer waitTimer;
+    private final Counter userRejections;
+    private final Counter queueRejections;
+    private final Counter timeoutRejections;
+
+    // Smoothed time a slot is held, for the Retry-After estimate
+    private volatile double averageHoldMs = 1000;
+
+    public AnalysisAdmissionService(
+            MeterRegistry registry,
+            @Value("${analysis.admission.max-concurrent:8}") int maxConcurrent) {
+        this.maxConcurrent = maxConcurrent;
+        this.slots = new Semaphore(maxConcurrent, true);
+
+        registry.gauge("analysis.admission.active", slots, s -> maxConcurrent - s.availablePermits());
+        registry.gauge("analysis.admission.queue.depth", waiting, AtomicInteger::get);
+        this.waitTimer = Timer.builder("analysis.admission.wait")
+            .description("Time admitted analyses waited for a slot")
+            .publishPercentileHistogram()
+            .register(registry);
+        this.userRejections = rejections(registry, "user");
+        this.queueRejections = rejections(registry, "queue");
+        this.timeoutRejections = rejections(registry, "timeout");
+    }
+
+    /**
+     * Waits for a slot for {@code user}. Close the returned permit when the analysis is done.
+     *
+     * @throws AdmissionRejectedException when the user is at its limit, the wait queue is
+     *                                    full or no slot freed up within the wait limit
+     */
+    public Permit acquire(User user) throws InterruptedException {
+        if (!enabled) {
+            return new Permit(null, false);
+        }
+
+        Long userId = user.getId();
+        boolean[] underLimit = new boolean[1];
+        activeByUser.compute(userId, (id, active) -> {
+            int current = active != null ? active : 0;
+            underLimit[0] = current < perUser;
+            return underLimit[0] ? current + 1 : active;
+        });
+        if (!underLimit[0]) {
+            userRejections.increment();
+            throw new AdmissionRejectedException(
+                "Too many concurrent analyses, at most " + perUser + " per user", retryAfterSeconds(0));
+        }
+
+        boolean admitted = false;
+        try {
+            if (slots.tryAcquire()) {
+                admitted = true;
+                waitTimer.record(0, TimeUnit.NANOSECONDS);
+                return new Permit(userId, true);
+            }
+
+            int queued = waiting.incrementAndGet();
+            try {
+                if (queued > queueCapacity) {
+                    queueRejections.increment();
+                    throw new AdmissionRejectedException("Analysis service is busy", retryAfterSeconds(queued));
+                }
+                long start = System.nanoTime();
+                if (!slots.tryAcquire(maxWaitMs, TimeUnit.MILLISECONDS)) {
+                    timeoutRejections.increment();
+                    throw new AdmissionRejectedException("Analysis service is busy", retryAfterSeconds(queued));
+                }
+                admitted = true;
+                waitTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                return new Permit(userId, true);
+            } finally {
+                waiting.decrementAndGet();
+            }
+        } finally {
+            if (!admitted) {
+                releaseUser(userId);
+            }
+        }
+    }
+
+    private void releaseUser(Long userId) {
+        activeByUser.computeIfPresent(userId, (id, active) -> active > 1 ? active - 1 : null);
+    }
+
+    /**
+     * Seconds until enough slots should have freed up for {@code queued} waiting requests.
+     */
+    private long retryAfterSeconds(int queued) {
+        double waitMs = averageHoldMs * (queued + 1) / maxConcurrent;
+        return Math.max(1, Math.min(60, (long) Math.ceil(waitMs / 1000)));
+    }
+
+    private static Counter rejections(MeterRegistry registry, String reason) {
+        return Counter.builder("analysis.admission.rejections")
+            .tag("reason", reason)
+            .description("Analyses turned away by admission control")
+            .register(registry);
+    }
+
+    /**
+     * A held analysis slot.
+     */
+    public class Permit implements AutoCloseable {
+        private final Long userId;
+        private final boolean holdsSlot;
+        private final long acquiredAt = System.nanoTime();
+        private boolean closed;
+
+        private Permit(Long userId, boolean holdsSlot) {
+            this.userId = userId;
+            this.holdsSlot = holdsSlot;
+        }
+
+        @Override
+        public void close() {
+            if (closed || !holdsSlot) {
+                return;
+            }
+            closed = true;
+            double heldMs = (System.nanoTime() - acquiredAt) / 1e6;
+            averageHoldMs = averageHoldMs * 0.9 + heldMs * 0.1;
+            slots.release();
+            releaseUser(userId);
+        }
+    }
+
+    public static class AdmissionRejectedException extends RuntimeException {
+        private final long retryAfterSeconds;
+
+        public AdmissionRejectedException(String message, long retryAfterSeconds) {
+            super(message);
+            this.retryAfterSeconds = retryAfterSeconds;
+        }
+
+        public long getRetryAfterSeconds() {
+            return retryAfterSeconds;
+        }
+    }
+}
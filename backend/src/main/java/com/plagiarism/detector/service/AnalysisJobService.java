@@ -0,0 +1,210 @@
+package com.plagiarism.detector.service;
+
+import com.plagiarism.detector.model.AnalysisJob;
+import com.plagiarism.detector.model.AnalysisRequest;
+import com.plagiarism.detector.model.AnalysisResponse;
+import com.plagiarism.detector.model.SearchHistory;
+import com.plagiarism.detector.model.SimilaritySource;
+import com.plagiarism.detector.model.User;
+import com.plagiarism.detector.repository.SearchHistoryRepository;
+import com.plagiarism.detector.repository.SimilaritySourceRepository;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs analyses in the background on a bounded executor. The job id is the id of the
+ * SearchHistory row, which moves through PENDING, PROCESSING and COMPLETED or FAILED.
+ * Finished results are kept in memory for a while so pollers get the full response;
+ * after that the result is rebuilt from the stored history and sources.
+ */
+@Service
+public class AnalysisJobService {
+
+    @Value("${analysis.jobs.result-ttl-seconds:600}")
+    private long resultTtlSeconds;
+
+    @Value("${analysis.jobs.sse-timeout-ms:120000}")
+    private long sseTimeoutMs;
+
+    private final PlagiarismAnalysisService plagiarismAnalysisService;
+    private final SearchHistoryRepository searchHistoryRepository;
+    private final SimilaritySourceRepository similaritySourceRepository;
+    private final UserStatisticsService userStatisticsService;
+    private final TextBlobStore textBlobStore;
+    private final ThreadPoolExecutor executor;
+    private final ConcurrentHashMap<Long, TrackedJob> jobs = new ConcurrentHashMap<>();
+
+    public AnalysisJobService(
+            PlagiarismAnalysisService plagiarismAnalysisService,
+            SearchHistoryRepository searchHistoryRepository,
+            SimilaritySourceRepository similaritySourceRepository,
+            UserStatisticsService userStatisticsService,
+            TextBlobStore textBlobStore,
+            @Value("${analysis.jobs.workers:4}") int workers,
+            @Value("${analysis.jobs.queue-capacity:100}") int queueCapacity) {
+        this.plagiarismAnalysisService = plagiarismAnalysisService;
+        this.searchHistoryRepository = searchHistoryRepository;
+        this.similaritySourceRepository = similaritySourceRepository;
+        this.userStatisticsService = userStatisticsService;
+        this.textBlobStore = textBlobStore;
+
+        AtomicInteger threadIds = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(workers, workers, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> new Thread(runnable, "analysis-job-" + threadIds.incrementAndGet()),
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    /**
+     * Records a PENDING history row and queues the analysis.
+     *
+     * @throws RejectedExecutionException when the job queue is full
+     */
+    public AnalysisJob submit(AnalysisRequest request, User user) {
+        SearchHistory searchHistory = plagiarismAnalysisService.createSearchHistory(
+            request, user, SearchHistory.SearchStatus.PENDING);
+        TrackedJob job = new TrackedJob();
+        jobs.put(searchHistory.getId(), job);
+
+        try {
+            executor.execute(() -> run(job, searchHistory, request));
+        } catch (RejectedExecutionException e) {
+            jobs.remove(searchHistory.getId());
+            searchHistory.setStatus(SearchHistory.SearchStatus.FAILED);
+            searchHistory.setErrorMessage("Analysis queue is full");
+            searchHistoryRepository.save(searchHistory);
+            userStatisticsService.recordFinished(List.of(searchHistory));
+            throw e;
+        }
+
+        return new AnalysisJob(searchHistory.getId(), searchHistory.getStatus(), searchHistory.getCreatedAt(), null, null);
+    }
+
+    public Optional<AnalysisJob> getJob(Long id, User user) {
+        return findOwnedHistory(id, user).map(this::toJob);
+    }
+
+    /**
+     * Streams a "status" event now and a "result" event once the job finishes.
+     * Returns empty when the job does not exist or belongs to another user.
+     */
+    public Optional<SseEmitter> subscribe(Long id, User user) {
+        Optional<SearchHistory> searchHistory = findOwnedHistory(id, user);
+        if (searchHistory.isEmpty()) {
+            return Optional.empty();
+        }
+
+        SseEmitter emitter = new SseEmitter(sseTimeoutMs);
+        AnalysisJob current = toJob(searchHistory.get());
+        try {
+            emitter.send(SseEmitter.event().name("status").data(current));
+
+            TrackedJob job = jobs.get(id);
+            if (isFinished(current.getStatus())) {
+                emitter.send(SseEmitter.event().name("result").data(current));
+                emitter.complete();
+            } else if (job != null) {
+                job.future.whenComplete((response, error) -> {
+                    try {
+                        AnalysisJob finished = searchHistoryRepository.findById(id).map(this::toJob).orElse(current);
+                        emitter.send(SseEmitter.event().name("result").data(finished));
+                        emitter.complete();
+                    } catch (Exception e) {
+                        emitter.completeWithError(e);
+                    }
+                });
+            } else {
+                // Not running in this instance (e.g. lost on restart), nothing more will arrive
+                emitter.complete();
+            }
+        } catch (IOException e) {
+            emitter.completeWithError(e);
+        }
+        return Optional.of(emitter);
+    }
+
+    @Scheduled(fixedDelayString = "${analysis.jobs.purge-interval-ms:60000}")
+    public void purgeFinishedJobs() {
+        long cutoff = System.currentTimeMillis() - resultTtlSeconds * 1000;
+        jobs.entrySet().removeIf(entry -> entry.getValue().completedAt > 0 && entry.getValue().completedAt < cutoff);
+    }
+
+    public int getQueueDepth() {
+        return executor.getQueue().size();
+    }
+
+    private void run(TrackedJob job, SearchHistory searchHistory, AnalysisRequest request) {
+        try {
+            job.future.complete(plagiarismAnalysisService.processAnalysis(searchHistory, request));
+        } catch (Exception e) {
+            System.err.println("Analysis job " + searchHistory.getId() + " failed: " + e.getMessage());
+            job.future.completeExceptionally(e);
+        } finally {
+            job.completedAt = System.currentTimeMillis();
+        }
+    }
+
+    private Optional<SearchHistory> findOwnedHistory(Long id, User user) {
+        return searchHistoryRepository.findById(id)
+            .filter(searchHistory -> searchHistory.getUser().getId().equals(user.getId()));
+    }
+
+    private AnalysisJob toJob(SearchHistory searchHistory) {
+        AnalysisJob job = new AnalysisJob(searchHistory.getId(), searchHistory.getStatus(),
+            searchHistory.getCreatedAt(), null, null);
+
+        if (searchHistory.getStatus() == SearchHistory.SearchStatus.FAILED) {
+            job.setError(searchHistory.getErrorMessage());
+        } else if (searchHistory.getStatus() == SearchHistory.SearchStatus.COMPLETED) {
+            TrackedJob tracked = jobs.get(searchHistory.getId());
+            AnalysisResponse response = tracked != null ? tracked.future.getNow(null) : null;
+            job.setResult(response != null ? response : rebuildResponse(searchHistory));
+        }
+        return job;
+    }
+
+    private AnalysisResponse rebuildResponse(SearchHistory searchHistory) {
+        AnalysisResponse response = new AnalysisResponse();
+        response.setSimilarityScore(searchHistory.getSimilarityScore() != null ? searchHistory.getSimilarityScore() : 0.0);
+        response.setAiDetected(Boolean.TRUE.equals(searchHistory.getAiDetected()));
+        response.setAiConfidence(searchHistory.getAiConfidence() != null ? searchHistory.getAiConfidence() : 0.0);
+
+        List<AnalysisResponse.SimilaritySource> sources = new ArrayList<>();
+        for (SimilaritySource source : textBlobStore.resolveMatchedText(
+                similaritySourceRepository.findBySearchHistoryOrderBySimilarityPercentageDesc(searchHistory))) {
+            sources.add(new AnalysisResponse.SimilaritySource(
+                source.getUrl(), source.getTitle(), source.getSimilarityPercentage(), source.getMatchedText()));
+        }
+        response.setMatchedSources(sources);
+        return response;
+    }
+
+    private static boolean isFinished(SearchHistory.SearchStatus status) {
+        return status == SearchHistory.SearchStatus.COMPLETED || status == SearchHistory.SearchStatus.FAILED;
+    }
+
+    private static final class TrackedJob {
+        private final CompletableFuture<AnalysisResponse> future = new CompletableFuture<>();
+        private volatile long completedAt;
+    }
+}
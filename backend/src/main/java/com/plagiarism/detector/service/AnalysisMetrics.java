@@ -0,0 +1,118 @@
+package com.plagiarism.detector.service;
+
+import com.plagiarism.detector.model.AnalysisResponse;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Micrometer meters for the analysis pipeline, scraped through /actuator/prometheus.
+ * Every stage has its own {@code analysis.stage} timer with a percentile histogram, so a
+ * slow request can be attributed to the Python call, the web searches, scoring, parsing
+ * or the database writes.
+ */
+@Component
+public class AnalysisMetrics {
+
+    public static final String STAGE_SEARCH = "search";
+    public static final String STAGE_PYTHON = "python";
+    public static final String STAGE_PARSE = "parse";
+    public static final String STAGE_AI_DETECTION = "ai.detection";
+    public static final String STAGE_SCORING = "scoring";
+    public static final String STAGE_MERGE = "merge";
+    public static final String STAGE_DB_CREATE = "db.create";
+    public static final String STAGE_DB_SAVE = "db.save";
+    public static final String STAGE_PYTHON_BORROW = "python.borrow";
+    public static final String STAGE_PYTHON_SPAWN = "python.spawn";
+
+    private final MeterRegistry registry;
+    private final ConcurrentHashMap<String, Timer> stageTimers = new ConcurrentHashMap<>();
+    private final Timer succeeded;
+    private final Timer failed;
+    private final Counter cacheHits;
+    private final Counter cacheMisses;
+    private final Counter analyzerErrors;
+    private final Counter exceptions;
+    private final DistributionSummary sourcesFound;
+
+    public AnalysisMetrics(MeterRegistry registry) {
+        this.registry = registry;
+        this.succeeded = requestTimer("success");
+        this.failed = requestTimer("failure");
+        this.cacheHits = Counter.builder("analysis.cache.lookups").tag("result", "hit")
+            .description("Analyses answered from the result cache").register(registry);
+        this.cacheMisses = Counter.builder("analysis.cache.lookups").tag("result", "miss")
+            .description("Analyses that ran the pipeline").register(registry);
+        this.analyzerErrors = Counter.builder("analysis.failures").tag("reason", "analyzer")
+            .description("Analyses the Python analyzer answered with an error").register(registry);
+        this.exceptions = Counter.builder("analysis.failures").tag("reason", "exception")
+            .description("Analyses that threw").register(registry);
+        this.sourcesFound = DistributionSummary.builder("analysis.sources.found")
+            .description("Matched sources per analysis").register(registry);
+    }
+
+    /**
+     * Starts an empty per-request breakdown whose entries also feed the stage timers.
+     */
+    public StageTimings newTimings() {
+        return new StageTimings(this);
+    }
+
+    public void recordStage(String stage, long startNanos) {
+        recordStageNanos(stage, System.nanoTime() - startNanos);
+    }
+
+    void recordStageNanos(String stage, long nanos) {
+        stageTimers.computeIfAbsent(stage, this::stageTimer).record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Counts a finished pipeline run or cache hit.
+     */
+    public void recordLookup(AnalysisResultCache.Lookup lookup) {
+        (lookup.isServedFromCache() ? cacheHits : cacheMisses).increment();
+        AnalysisResponse response = lookup.getResponse();
+        if (response.getError() != null) {
+            analyzerErrors.increment();
+        } else {
+            sourcesFound.record(response.getMatchedSources() != null ? response.getMatchedSources().size() : 0);
+        }
+    }
+
+    public void recordException() {
+        exceptions.increment();
+    }
+
+    /**
+     * Times one analysis request end to end, database writes included.
+     */
+    public void recordRequest(boolean success, long startNanos) {
+        (success ? succeeded : failed).record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+    }
+
+    public <T> void gauge(String name, T target, ToDoubleFunction<T> value) {
+        registry.gauge(name, target, value);
+    }
+
+    private Timer stageTimer(String stage) {
+        return Timer.builder("analysis.stage")
+            .tag("stage", stage)
+            .description("Time spent in one stage of the analysis pipeline")
+            .publishPercentileHistogram()
+            .register(registry);
+    }
+
+    private Timer requestTimer(String outcome) {
+        return Timer.builder("analysis.requests")
+            .tag("outcome", outcome)
+            .description("End-to-end analysis requests")
+            .publishPercentileHistogram()
+            .register(registry);
+    }
+}
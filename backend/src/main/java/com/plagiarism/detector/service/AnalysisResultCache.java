@@ -0,0 +1,203 @@
+package com.plagiarism.detector.service;
+
+import com.plagiarism.detector.model.AnalysisResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Content-addressed cache of analysis results, keyed by the hash of the exact
+ * submitted text plus the paraphrasing flag. Bounded by entry count (LRU) and TTL.
+ * Concurrent misses for the same key share a single computation.
+ */
+@Component
+public class AnalysisResultCache {
+
+    @Value("${analysis.cache.enabled:true}")
+    private boolean enabled;
+
+    @Value("${analysis.cache.max-entries:1000}")
+    private int maxEntries;
+
+    @Value("${analysis.cache.ttl-seconds:3600}")
+    private long ttlSeconds;
+
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private final ConcurrentHashMap<String, CompletableFuture<AnalysisResponse>> inFlight = new ConcurrentHashMap<>();
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong coalesced = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    /**
+     * Unlike {@link TextFingerprint#of}, whitespace is kept as submitted: paragraph breaks
+     * drive AI detection features and chunk boundaries, so texts that only differ in them
+     * can score differently.
+     */
+    public static String key(String text, boolean checkParaphrasing) {
+        return TextFingerprint.sha256Hex(text != null ? text : "") + (checkParaphrasing ? ":p" : ":s");
+    }
+
+    /**
+     * Returns the cached response for {@code key}, joins an in-flight computation for it,
+     * or runs {@code loader}. Responses carrying an error are handed back but never cached.
+     */
+    public Lookup getOrCompute(String key, Callable<AnalysisResponse> loader) throws Exception {
+        if (!enabled) {
+            misses.incrementAndGet();
+            return new Lookup(loader.call(), false);
+        }
+
+        AnalysisResponse cached = get(key);
+        if (cached != null) {
+            hits.incrementAndGet();
+            return new Lookup(cached, true);
+        }
+
+        CompletableFuture<AnalysisResponse> pending = new CompletableFuture<>();
+        CompletableFuture<AnalysisResponse> existing = inFlight.putIfAbsent(key, pending);
+        if (existing != null) {
+            coalesced.incrementAndGet();
+            return new Lookup(await(existing), true);
+        }
+
+        try {
+            // Another caller may have finished between our lookup and claiming the key
+            cached = get(key);
+            if (cached != null) {
+                hits.incrementAndGet();
+                pending.complete(cached);
+                return new Lookup(cached, true);
+            }
+
+            misses.incrementAndGet();
+            AnalysisResponse response = loader.call();
+            if (response.getError() == null) {
+                put(key, response);
+            }
+            pending.complete(response);
+            return new Lookup(response, false);
+        } catch (Exception e) {
+            pending.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, pending);
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        long hitCount = hits.get();
+        long missCount = misses.get();
+        long coalescedCount = coalesced.get();
+        long lookups = hitCount + missCount + coalescedCount;
+
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("hits", hitCount);
+        stats.put("misses", missCount);
+        stats.put("coalesced", coalescedCount);
+        stats.put("evictions", evictions.get());
+        stats.put("hitRate", lookups > 0 ? (double) (hitCount + coalescedCount) / lookups : 0.0);
+        stats.put("inFlight", inFlight.size());
+        synchronized (entries) {
+            stats.put("size", entries.size());
+        }
+        stats.put("maxEntries", maxEntries);
+        stats.put("ttlSeconds", ttlSeconds);
+        return stats;
+    }
+
+    @Scheduled(fixedDelayString = "${analysis.cache.purge-interval-ms:60000}")
+    public void purgeExpired() {
+        long now = System.currentTimeMillis();
+        synchronized (entries) {
+            Iterator<Entry> iterator = entries.values().iterator();
+            while (iterator.hasNext()) {
+                if (iterator.next().expiresAt <= now) {
+                    iterator.remove();
+                    evictions.incrementAndGet();
+                }
+            }
+        }
+    }
+
+    private AnalysisResponse get(String key) {
+        synchronized (entries) {
+            Entry entry = entries.get(key);
+            if (entry == null) {
+                return null;
+            }
+            if (entry.expiresAt <= System.currentTimeMillis()) {
+                entries.remove(key);
+                evictions.incrementAndGet();
+                return null;
+            }
+            return entry.response;
+        }
+    }
+
+    private void put(String key, AnalysisResponse response) {
+        synchronized (entries) {
+            entries.put(key, new Entry(response, System.currentTimeMillis() + ttlSeconds * 1000));
+            Iterator<Entry> eldest = entries.values().iterator();
+            while (entries.size() > maxEntries && eldest.hasNext()) {
+                eldest.next();
+                eldest.remove();
+                evictions.incrementAndGet();
+            }
+        }
+    }
+
+    private static AnalysisResponse await(CompletableFuture<AnalysisResponse> future) throws Exception {
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof Exception cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    private static final class Entry {
+        private final AnalysisResponse response;
+        private final long expiresAt;
+
+        private Entry(AnalysisResponse response, long expiresAt) {
+            this.response = response;
+            this.expiresAt = expiresAt;
+        }
+    }
+
+    /**
+     * A response plus whether it came from the cache (or a shared in-flight
+     * computation) rather than from running the pipeline for this caller.
+     */
+    public static final class Lookup {
+        private final AnalysisResponse response;
+        private final boolean servedFromCache;
+
+        public Lookup(AnalysisResponse response, boolean servedFromCache) {
+            this.response = response;
+            this.servedFromCache = servedFromCache;
+        }
+
+        public AnalysisResponse getResponse() {
+            return response;
+        }
+
+        public boolean isServedFromCache() {
+            return servedFromCache;
+        }
+    }
+}
@@ -8,6 +8,7 @@ import com.plagiarism.detector.repository.UserRepository;
 import org.springframework.context.annotation.Lazy;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
@@ -21,20 +22,23 @@ public class AuthService implements UserDetailsService {
     private final PasswordEncoder passwordEncoder;
     private final JwtService jwtService;
     private final AuthenticationManager authenticationManager;
+    private final UserPrincipalCache userPrincipalCache;
     
     public AuthService(UserRepository userRepository, 
                       PasswordEncoder passwordEncoder, 
                       JwtService jwtService, 
-                      @Lazy AuthenticationManager authenticationManager) {
+                      @Lazy AuthenticationManager authenticationManager,
+                      UserPrincipalCache userPrincipalCache) {
         this.userRepository = userRepository;
         this.passwordEncoder = passwordEncoder;
         this.jwtService = jwtService;
         this.authenticationManager = authenticationManager;
+        this.userPrincipalCache = userPrincipalCache;
     }
     
     @Override
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
-        User user = userRepository.findByUsername(username)
+        User user = userPrincipalCache.get(username, userRepository::findByUsername)
                 .orElseThrow(() -> new UsernameNotFoundException("User not found with username: " + username));
         return user;
     }
@@ -94,6 +98,21 @@ public class AuthService implements UserDetailsService {
     }
     
     public User getUserByUsername(String username) {
-        return userRepository.findByUsername(username).orElse(null);
+        return userPrincipalCache.get(username, userRepository::findByUsername).orElse(null);
+    }
+    
+    /**
+     * The user behind an authenticated request. The JWT filter already put the loaded
+     * User in the security context, so this normally needs no lookup at all.
+     */
+    public User getAuthenticatedUser(Authentication authentication) {
+        if (authentication == null || !authentication.isAuthenticated() ||
+            authentication.getName().equals("anonymousUser")) {
+            return null;
+        }
+        if (authentication.getPrincipal() instanceof User user) {
+            return user;
+        }
+        return getUserByUsername(authentication.getName());
     }
 } 
\ No newline at end of file
@@ -0,0 +1,191 @@
+package com.plagiarism.detector.service;
+
+import com.plagiarism.detector.model.AnalysisRequest;
+import com.plagiarism.detector.model.AnalysisResponse;
+import com.plagiarism.detector.model.BatchAnalysisResponse;
+import com.plagiarism.detector.model.SearchHistory;
+import com.plagiarism.detector.model.SimilaritySource;
+import com.plagiarism.detector.model.User;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Analyzes many submissions in one call. Identical texts are analyzed once, unique texts
+ * fan out over a fixed pool of analysis threads, and all history and source rows are
+ * written with batched bulk saves.
+ */
+@Service
+public class BatchAnalysisService {
+
+    @Value("${analysis.batch.max-items:500}")
+    private int maxItems;
+
+    private final PlagiarismAnalysisService plagiarismAnalysisService;
+    private final AnalysisMetrics analysisMetrics;
+    private final ExecutorService executor;
+
+    public BatchAnalysisService(
+            PlagiarismAnalysisService plagiarismAnalysisService,
+            AnalysisMetrics analysisMetrics,
+            @Value("${analysis.batch.parallelism:8}") int parallelism) {
+        this.plagiarismAnalysisService = plagiarismAnalysisService;
+        this.analysisMetrics = analysisMetrics;
+
+        AtomicInteger threadIds = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(parallelism,
+            runnable -> new Thread(runnable, "analysis-batch-" + threadIds.incrementAndGet()));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    /**
+     * @throws IllegalArgumentException when the batch is empty, too large or has an item without text
+     */
+    public BatchAnalysisResponse analyzeBatch(List<AnalysisRequest> requests, User user) throws InterruptedException {
+        long startTime = System.currentTimeMillis();
+
+        if (requests == null || requests.isEmpty()) {
+            throw new IllegalArgumentException("Batch must contain at least one request");
+        }
+        if (requests.size() > maxItems) {
+            throw new IllegalArgumentException("Batch exceeds the limit of " + maxItems + " items");
+        }
+        for (AnalysisRequest request : requests) {
+            if (request == null || request.getText() == null) {
+                throw new IllegalArgumentException("Every batch item needs a text");
+            }
+        }
+
+        // One history row per submitted item, inserted together
+        List<SearchHistory> histories = new ArrayList<>(requests.size());
+        for (AnalysisRequest request : requests) {
+            histories.add(plagiarismAnalysisService.newSearchHistory(request, user, SearchHistory.SearchStatus.PROCESSING));
+        }
+        histories = plagiarismAnalysisService.createSearchHistories(histories);
+
+        // Deduplicate by content key, remembering the first item carrying each text
+        Map<String, Integer> firstIndexByKey = new LinkedHashMap<>();
+        int[] firstIndex = new int[requests.size()];
+        for (int i = 0; i < requests.size(); i++) {
+            AnalysisRequest request = requests.get(i);
+            String key = AnalysisResultCache.key(request.getText(), request.isCheckParaphrasing());
+            Integer first = firstIndexByKey.putIfAbsent(key, i);
+            firstIndex[i] = first != null ? first : i;
+        }
+
+        Map<Integer, Future<Outcome>> futures = new HashMap<>();
+        for (int index : firstIndexByKey.values()) {
+            AnalysisRequest request = requests.get(index);
+            futures.put(index, executor.submit(() -> analyze(request)));
+        }
+
+        Map<Integer, Outcome> outcomes = new HashMap<>();
+        long totalAnalysisMs = 0;
+        for (Map.Entry<Integer, Future<Outcome>> entry : futures.entrySet()) {
+            Outcome outcome;
+            try {
+                outcome = entry.getValue().get();
+            } catch (ExecutionException e) {
+                outcome = new Outcome(null, e.getCause() instanceof Exception cause ? cause : e, 0, null);
+            }
+            outcomes.put(entry.getKey(), outcome);
+            totalAnalysisMs += outcome.elapsedMs;
+        }
+
+        List<BatchAnalysisResponse.Item> items = new ArrayList<>(requests.size());
+        List<SimilaritySource> sources = new ArrayList<>();
+        int failedItems = 0;
+        for (int i = 0; i < requests.size(); i++) {
+            SearchHistory searchHistory = histories.get(i);
+            Outcome outcome = outcomes.get(firstIndex[i]);
+            boolean duplicate = firstIndex[i] != i;
+
+            AnalysisResponse result;
+            boolean servedFromCache = false;
+            if (outcome.error != null) {
+                plagiarismAnalysisService.recordFailure(searchHistory, outcome.error);
+                result = new AnalysisResponse();
+                result.setError("Analysis failed: " + outcome.error.getMessage());
+                failedItems++;
+            } else {
+                // A duplicate within the batch reuses the first item's run, like a cache hit
+                AnalysisResultCache.Lookup lookup = duplicate
+                    ? new AnalysisResultCache.Lookup(outcome.lookup.getResponse(), true)
+                    : outcome.lookup;
+                plagiarismAnalysisService.recordResult(searchHistory, lookup, outcome.elapsedMs);
+                if (!duplicate) {
+                    searchHistory.setStageTimings(outcome.stageTimings);
+                }
+                sources.addAll(plagiarismAnalysisService.toSimilaritySources(searchHistory, lookup.getResponse()));
+                result = lookup.getResponse();
+                servedFromCache = lookup.isServedFromCache();
+            }
+
+            items.add(new BatchAnalysisResponse.Item(i, searchHistory.getId(), duplicate ? firstIndex[i] : null,
+                servedFromCache, outcome.elapsedMs, result));
+        }
+
+        try {
+            plagiarismAnalysisService.saveResults(histories, sources);
+        } catch (RuntimeException e) {
+            // Nothing was written: fail every row rather than leave the batch PROCESSING
+            System.err.println("Failed to save batch results: " + e.getMessage());
+            plagiarismAnalysisService.saveFailures(histories, e);
+            for (BatchAnalysisResponse.Item item : items) {
+                AnalysisResponse result = new AnalysisResponse();
+                result.setError("Analysis failed: " + e.getMessage());
+                item.setResult(result);
+            }
+            failedItems = requests.size();
+        }
+
+        BatchAnalysisResponse response = new BatchAnalysisResponse();
+        response.setItems(items);
+        response.setTotalItems(requests.size());
+        response.setUniqueItems(firstIndexByKey.size());
+        response.setFailedItems(failedItems);
+        response.setTotalAnalysisMs(totalAnalysisMs);
+        response.setElapsedMs(System.currentTimeMillis() - startTime);
+        return response;
+    }
+
+    private Outcome analyze(AnalysisRequest request) {
+        long startTime = System.currentTimeMillis();
+        StageTimings timings = analysisMetrics.newTimings();
+        try {
+            AnalysisResultCache.Lookup lookup = plagiarismAnalysisService.computeAnalysis(request, timings);
+            return new Outcome(lookup, null, System.currentTimeMillis() - startTime, timings.toJson());
+        } catch (Exception e) {
+            return new Outcome(null, e, System.currentTimeMillis() - startTime, timings.toJson());
+        }
+    }
+
+    private static final class Outcome {
+        private final AnalysisResultCache.Lookup lookup;
+        private final Exception error;
+        private final long elapsedMs;
+        private final String stageTimings;
+
+        private Outcome(AnalysisResultCache.Lookup lookup, Exception error, long elapsedMs, String stageTimings) {
+            this.lookup = lookup;
+            this.error = error;
+            this.elapsedMs = elapsedMs;
+            this.stageTimings = stageTimings;
+        }
+    }
+}
@@ -0,0 +1,166 @@
+package com.plagiarism.detector.service;
+
+import com.plagiarism.detector.model.SearchPhraseCacheEntry;
+import com.plagiarism.detector.model.SearchResult;
+import com.plagiarism.detector.repository.SearchPhraseCacheRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Primary;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Puts the search_phrase_cache table in front of the Google provider. Repeated phrases
+ * are answered from MySQL without a network round trip and survive restarts. Entries
+ * expire after a TTL, and the least recently used ones are trimmed once the table
+ * exceeds its size cap.
+ */
+@Primary
+@Component
+public class CachingSearchProvider implements SearchProvider {
+
+    private static final int MAX_STORED_PHRASE_LENGTH = 1024;
+
+    @Value("${search.cache.enabled:true}")
+    private boolean enabled;
+
+    @Value("${search.cache.ttl-hours:168}")
+    private long ttlHours;
+
+    @Value("${search.cache.max-entries:100000}")
+    private int maxEntries;
+
+    private final GoogleSearchProvider delegate;
+    private final SearchPhraseCacheRepository searchPhraseCacheRepository;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    public CachingSearchProvider(GoogleSearchProvider delegate, SearchPhraseCacheRepository searchPhraseCacheRepository) {
+        this.delegate = delegate;
+        this.searchPhraseCacheRepository = searchPhraseCacheRepository;
+    }
+
+    @Override
+    public boolean isAvailable() {
+        return delegate.isAvailable();
+    }
+
+    @Override
+    public Optional<SearchResult> search(String query, Duration timeout) {
+        if (!enabled) {
+            return delegate.search(query, timeout);
+        }
+
+        String phraseHash = key(query);
+        Optional<SearchResult> cached = lookup(phraseHash);
+        if (cached.isPresent()) {
+            hits.incrementAndGet();
+            return cached;
+        }
+
+        misses.incrementAndGet();
+        Optional<SearchResult> result = delegate.search(query, timeout);
+        // Empty means either no result or a failed call; only real results are cached
+        result.ifPresent(found -> store(phraseHash, query, found));
+        return result;
+    }
+
+    /**
+     * Search engines ignore case and spacing, so neither takes part in the key.
+     */
+    static String key(String query) {
+        return TextFingerprint.of(query.toLowerCase(Locale.ROOT));
+    }
+
+    public Map<String, Object> getStats() {
+        long hitCount = hits.get();
+        long missCount = misses.get();
+
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("enabled", enabled);
+        stats.put("hits", hitCount);
+        stats.put("misses", missCount);
+        stats.put("hitRate", hitCount + missCount > 0 ? (double) hitCount / (hitCount + missCount) : 0.0);
+        stats.put("evictions", evictions.get());
+        stats.put("size", searchPhraseCacheRepository.count());
+        stats.put("lifetimeHits", searchPhraseCacheRepository.sumHitCount());
+        stats.put("maxEntries", maxEntries);
+        stats.put("ttlHours", ttlHours);
+        return stats;
+    }
+
+    /**
+     * Drops expired entries, then the least recently used ones above the size cap.
+     */
+    @Scheduled(fixedDelayString = "${search.cache.purge-interval-ms:300000}")
+    public void purge() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            evictions.addAndGet(searchPhraseCacheRepository.deleteExpired(LocalDateTime.now()));
+
+            long excess = searchPhraseCacheRepository.count() - maxEntries;
+            while (excess > 0) {
+                int batch = (int) Math.min(excess, 1000);
+                List<String> oldest = searchPhraseCacheRepository.findLeastRecentlyUsed(PageRequest.of(0, batch));
+                if (oldest.isEmpty()) {
+                    break;
+                }
+                evictions.addAndGet(searchPhraseCacheRepository.deleteByPhraseHashIn(oldest));
+                excess -= oldest.size();
+            }
+        } catch (Exception e) {
+            System.err.println("Search cache purge failed: " + e.getMessage());
+        }
+    }
+
+    private Optional<SearchResult> lookup(String phraseHash) {
+        try {
+            Optional<SearchPhraseCacheEntry> entry = searchPhraseCacheRepository.findById(phraseHash);
+            LocalDateTime now = LocalDateTime.now();
+            if (entry.isEmpty() || !entry.get().getExpiresAt().isAfter(now)) {
+                return Optional.empty();
+            }
+            searchPhraseCacheRepository.touch(phraseHash, now);
+            SearchPhraseCacheEntry found = entry.get();
+            return Optional.of(new SearchResult(found.getUrl(), found.getTitle(), found.getSnippet()));
+        } catch (Exception e) {
+            // The cache is an optimization; fall through to a live search
+            System.err.println("Search cache lookup failed: " + e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    private void store(String phraseHash, String query, SearchResult result) {
+        LocalDateTime now = LocalDateTime.now();
+        SearchPhraseCacheEntry entry = new SearchPhraseCacheEntry(
+            phraseHash,
+            query.length() > MAX_STORED_PHRASE_LENGTH ? query.substring(0, MAX_STORED_PHRASE_LENGTH) : query,
+            result.getUrl(),
+            result.getTitle(),
+            result.getSnippet(),
+            0L,
+            now,
+            now,
+            now.plusHours(ttlHours)
+        );
+        try {
+            searchPhraseCacheRepository.save(entry);
+        } catch (Exception e) {
+            // Usually a concurrent search for the same phrase stored it first
+            System.err.println("Search cache store failed: " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,169 @@
+package com.plagiarism.detector.service;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Splits long documents into windows of at most {@code maxChars} characters. Windows end
+ * at the last paragraph break that fits, falling back to a sentence end and then to
+ * whitespace, so every chunk can be searched and scored on its own. Chunks hold offsets
+ * rather than copies of the text, both in chars and in UTF-8 bytes, so a document spooled
+ * to disk can be handed out a byte range at a time.
+ */
+public final class DocumentChunker {
+
+    private DocumentChunker() {
+    }
+
+    public static List<Chunk> split(String text, int maxChars) {
+        List<Chunk> chunks = new ArrayList<>();
+        int length = text.length();
+        // Do not cut a window shorter than this just to land on a nicer boundary
+        int minChars = Math.max(1, maxChars / 4);
+        int start = 0;
+        long byteStart = 0;
+
+        while (start < length) {
+            int end;
+            if (length - start <= maxChars) {
+                end = length;
+            } else {
+                int limit = start + maxChars;
+                end = lastParagraphBreak(text, start + minChars, limit);
+                if (end < 0) {
+                    end = lastSentenceEnd(text, start + minChars, limit);
+                }
+                if (end < 0) {
+                    end = lastWhitespace(text, start + minChars, limit);
+                }
+                if (end < 0) {
+                    end = Character.isHighSurrogate(text.charAt(limit - 1)) && limit - 1 > start ? limit - 1 : limit;
+                }
+            }
+
+            long byteEnd = byteStart + utf8Length(text, start, end);
+            if (!isBlank(text, start, end)) {
+                chunks.add(new Chunk(chunks.size(), start, end, byteStart, byteEnd));
+            }
+            start = end;
+            byteStart = byteEnd;
+        }
+        return chunks;
+    }
+
+    private static boolean isBlank(String text, int start, int end) {
+        for (int i = start; i < end; ) {
+            int codePoint = text.codePointAt(i);
+            if (!Character.isWhitespace(codePoint)) {
+                return false;
+            }
+            i += Character.charCount(codePoint);
+        }
+        return true;
+    }
+
+    /**
+     * Size of {@code text[start, end)} in UTF-8, as written by the upload spooler.
+     */
+    static long utf8Length(String text, int start, int end) {
+        long bytes = 0;
+        for (int i = start; i < end; i++) {
+            char c = text.charAt(i);
+            if (c < 0x80) {
+                bytes += 1;
+            } else if (c < 0x800) {
+                bytes += 2;
+            } else if (Character.isHighSurrogate(c) && i + 1 < end && Character.isLowSurrogate(text.charAt(i + 1))) {
+                bytes += 4;
+                i++;
+            } else {
+                bytes += 3;
+            }
+        }
+        return bytes;
+    }
+
+    /**
+     * End of the last blank line in {@code (from, to]}, or -1.
+     */
+    private static int lastParagraphBreak(String text, int from, int to) {
+        for (int i = to - 1; i > from; i--) {
+            if (text.charAt(i) == '\n') {
+                int j = i - 1;
+                while (j > from && text.charAt(j) != '\n' && SimilarityEngine.isPythonWhitespace(text.charAt(j))) {
+                    j--;
+                }
+                if (text.charAt(j) == '\n') {
+                    return i + 1;
+                }
+            }
+        }
+        return -1;
+    }
+
+    private static int lastSentenceEnd(String text, int from, int to) {
+        for (int i = to - 1; i > from; i--) {
+            char c = text.charAt(i - 1);
+            if ((c == '.' || c == '!' || c == '?') && SimilarityEngine.isPythonWhitespace(text.charAt(i))) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static int lastWhitespace(String text, int from, int to) {
+        for (int i = to - 1; i > from; i--) {
+            if (SimilarityEngine.isPythonWhitespace(text.charAt(i))) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    public static final class Chunk {
+        private final int index;
+        private final int start;
+        private final int end;
+        private final long byteStart;
+        private final long byteEnd;
+
+        Chunk(int index, int start, int end, long byteStart, long byteEnd) {
+            this.index = index;
+            this.start = start;
+            this.end = end;
+            this.byteStart = byteStart;
+            this.byteEnd = byteEnd;
+        }
+
+        public int getIndex() {
+            return index;
+        }
+
+        public int getStart() {
+            return start;
+        }
+
+        public int getEnd() {
+            return end;
+        }
+
+        public long getByteStart() {
+            return byteStart;
+        }
+
+        public long getByteEnd() {
+            return byteEnd;
+        }
+
+        public int length() {
+            return end - start;
+        }
+
+        /**
+         * This chunk's part of {@code text}, the string it was split from.
+         */
+        public String text(String text) {
+            return text.substring(start, end);
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package com.plagiarism.detector.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * Spools uploaded documents to temp files with a fixed-size buffer, so an upload never
+ * sits in the heap more than once and the Python worker can read it by path.
+ */
+@Service
+public class DocumentUploadService {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    @Value("${analysis.upload.max-bytes:10485760}")
+    private long maxBytes;
+
+    @Value("${analysis.upload.dir:}")
+    private String uploadDir;
+
+    /**
+     * Copies {@code in} to a new temp file and returns its path. The caller owns the file
+     * and must {@link #delete} it.
+     *
+     * @throws DocumentTooLargeException when the stream exceeds the configured limit
+     */
+    public Path spool(InputStream in) throws IOException {
+        Path directory = uploadDir.isBlank() ? Paths.get(System.getProperty("java.io.tmpdir")) : Paths.get(uploadDir);
+        Files.createDirectories(directory);
+        Path file = Files.createTempFile(directory, "upload-", ".txt");
+
+        boolean complete = false;
+        try (OutputStream out = Files.newOutputStream(file)) {
+            byte[] buffer = new byte[BUFFER_SIZE];
+            long total = 0;
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                total += read;
+                if (total > maxBytes) {
+                    throw new DocumentTooLargeException(maxBytes);
+                }
+                out.write(buffer, 0, read);
+            }
+            complete = true;
+        } finally {
+            if (!complete) {
+                delete(file);
+            }
+        }
+        return file;
+    }
+
+    public void delete(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            System.err.println("Could not delete upload " + file + ": " + e.getMessage());
+        }
+    }
+
+    public long getMaxBytes() {
+        return maxBytes;
+    }
+
+    public static class DocumentTooLargeException extends RuntimeException {
+        public DocumentTooLargeException(long maxBytes) {
+            super("Document exceeds the upload limit of " + maxBytes + " bytes");
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package com.plagiarism.detector.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.plagiarism.detector.model.SearchResult;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Google Custom Search JSON API client, mirroring {@code AISimilarityService.search_google}.
+ * The HTTP client runs on virtual threads so many searches can wait on the network at once.
+ */
+@Component
+public class GoogleSearchProvider implements SearchProvider {
+
+    @Value("${search.google.endpoint:https://www.googleapis.com/customsearch/v1}")
+    private String endpoint;
+
+    @Value("${search.google.api-key:}")
+    private String apiKey;
+
+    @Value("${search.google.cx:}")
+    private String cx;
+
+    private final ObjectMapper objectMapper;
+    private final ExecutorService httpExecutor = Executors.newVirtualThreadPerTaskExecutor();
+    private final HttpClient httpClient;
+
+    public GoogleSearchProvider(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+        this.httpClient = HttpClient.newBuilder()
+            .executor(httpExecutor)
+            .connectTimeout(Duration.ofSeconds(5))
+            .followRedirects(HttpClient.Redirect.NORMAL)
+            .build();
+    }
+
+    @PostConstruct
+    public void logConfiguration() {
+        if (!isAvailable()) {
+            System.out.println("Google search key or cx not set; web searches are left to the analyzer");
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        httpExecutor.shutdownNow();
+    }
+
+    @Override
+    public boolean isAvailable() {
+        return apiKey != null && !apiKey.isBlank() && cx != null && !cx.isBlank();
+    }
+
+    @Override
+    public Optional<SearchResult> search(String query, Duration timeout) {
+        try {
+            URI uri = URI.create(endpoint
+                + "?q=" + URLEncoder.encode(query, StandardCharsets.UTF_8)
+                + "&key=" + URLEncoder.encode(apiKey, StandardCharsets.UTF_8)
+                + "&cx=" + URLEncoder.encode(cx, StandardCharsets.UTF_8));
+            HttpRequest request = HttpRequest.newBuilder(uri)
+                .timeout(timeout)
+                .header("Accept", "application/json")
+                .GET()
+                .build();
+
+            HttpResponse<byte[]> response = httpClient.send(request, HttpResponse.BodyHandlers.ofByteArray());
+            if (response.statusCode() != 200) {
+                System.err.println("Google search error: HTTP " + response.statusCode());
+                return Optional.empty();
+            }
+
+            JsonNode items = objectMapper.readTree(response.body()).path("items");
+            if (!items.isArray() || items.isEmpty()) {
+                return Optional.empty();
+            }
+
+            JsonNode item = items.get(0);
+            return Optional.of(new SearchResult(
+                item.path("link").asText(""),
+                item.path("title").asText("Untitled"),
+                item.path("snippet").asText("")
+            ));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return Optional.empty();
+        } catch (Exception e) {
+            System.err.println("Google search error: " + e.getMessage());
+            return Optional.empty();
+        }
+    }
+}
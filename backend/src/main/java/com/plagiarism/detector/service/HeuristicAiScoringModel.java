@@ -0,0 +1,36 @@
+package com.plagiarism.detector.service;
+
+import org.springframework.stereotype.Component;
+
+/**
+ * The weights of {@code detect_ai_generated}: 0.3 for repetitive sentences, 0.2 each for
+ * generic phrases and uniform paragraphs. Python adds {@code random.random() * 0.3} on top;
+ * here that term is its mean, so the same text always gets the same score.
+ */
+@Component
+public class HeuristicAiScoringModel implements AiScoringModel {
+
+    public static final String NAME = "heuristic";
+
+    private static final double BASELINE = 0.15;
+
+    @Override
+    public String name() {
+        return NAME;
+    }
+
+    @Override
+    public double confidence(AiTextFeatures features) {
+        double confidence = BASELINE;
+        if (features.hasRepetitiveSentences()) {
+            confidence += 0.3;
+        }
+        if (features.hasGenericPhrases()) {
+            confidence += 0.2;
+        }
+        if (features.hasUniformParagraphs()) {
+            confidence += 0.2;
+        }
+        return Math.min(confidence, 1.0);
+    }
+}
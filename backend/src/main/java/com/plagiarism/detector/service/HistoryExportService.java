@@ -0,0 +1,279 @@
+package com.plagiarism.detector.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.plagiarism.detector.model.User;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementCreator;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Service;
+
+import javax.sql.DataSource;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Streams a user's whole history, each search with its matched sources, as NDJSON (one
+ * object per search) or CSV (one line per search and source). Rows come from a single
+ * query and are written out as they arrive; only the current search's sources are held
+ * in memory, so heap use does not grow with the size of the history.
+ * <p>
+ * On MySQL the query is a forward-only, read-only statement with a fetch size of
+ * {@link Integer#MIN_VALUE}, which makes Connector/J stream rows off the socket one at a
+ * time instead of buffering the result; the server does not materialize it either, as it
+ * would for a cursor fetch. Only this statement streams, and no other query may use its
+ * connection until it is done, which the export never needs. Other drivers get
+ * {@code history.export.fetch-size} rows per round trip.
+ * <p>
+ * The join is ordered by search only, which the (user_id, created_at, id) index serves
+ * without a sort, and each search's sources are ordered by similarity once buffered.
+ */
+@Service
+public class HistoryExportService {
+
+    public static final String FORMAT_NDJSON = "ndjson";
+    public static final String FORMAT_CSV = "csv";
+
+    private static final String SELECT_SQL =
+        "SELECT h.id, h.created_at, h.status, h.query_preview, h.text_length, h.similarity_score, " +
+        "h.ai_detected, h.ai_confidence, h.sources_found, h.processing_time_ms, h.served_from_cache, " +
+        "h.error_message, %s" +
+        "s.id AS source_id, s.url, s.title, s.domain, s.similarity_percentage, s.matched_text, " +
+        "mb.codec AS matched_codec, mb.original_length AS matched_length, mb.data AS matched_data " +
+        "FROM search_history h " +
+        "LEFT JOIN similarity_sources s ON s.search_history_id = h.id " +
+        "LEFT JOIN text_blobs mb ON mb.hash = s.matched_text_blob " +
+        "%s" +
+        "WHERE h.user_id = ? " +
+        "ORDER BY h.created_at, h.id";
+
+    private static final String TEXT_COLUMNS =
+        "h.search_query, qb.codec AS query_codec, qb.original_length AS query_length, qb.data AS query_data, ";
+    private static final String TEXT_JOIN = "LEFT JOIN text_blobs qb ON qb.hash = h.query_blob ";
+
+    private static final List<String> CSV_HEADER = List.of(
+        "id", "created_at", "status", "similarity_score", "ai_detected", "ai_confidence", "sources_found",
+        "processing_time_ms", "served_from_cache", "text_length", "preview", "error_message");
+    private static final List<String> CSV_SOURCE_HEADER = List.of(
+        "source_url", "source_title", "source_domain", "source_similarity_percentage", "source_matched_text");
+
+    private static final Comparator<Map<String, Object>> BY_SIMILARITY_DESC = Comparator.comparing(
+        (Map<String, Object> source) -> (Double) source.get("similarityPercentage"),
+        Comparator.nullsLast(Comparator.reverseOrder()));
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+    private final int fetchSize;
+    private final Counter ndjsonSearches;
+    private final Counter csvSearches;
+
+    public HistoryExportService(DataSource dataSource, ObjectMapper objectMapper, MeterRegistry registry,
+                                @Value("${history.export.fetch-size:500}") int fetchSize) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.objectMapper = objectMapper;
+        this.fetchSize = fetchSize;
+        this.ndjsonSearches = Counter.builder("history.export.searches").tag("format", FORMAT_NDJSON)
+            .description("Searches written by history exports").register(registry);
+        this.csvSearches = Counter.builder("history.export.searches").tag("format", FORMAT_CSV)
+            .description("Searches written by history exports").register(registry);
+    }
+
+    public static boolean isSupportedFormat(String format) {
+        return FORMAT_NDJSON.equals(format) || FORMAT_CSV.equals(format);
+    }
+
+    /**
+     * Writes the export to {@code out} and returns the number of searches written. The
+     * stream is flushed but not closed.
+     */
+    public long export(User user, String format, boolean includeText, OutputStream out) throws IOException {
+        boolean csv = FORMAT_CSV.equals(format);
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 64 * 1024);
+        if (csv) {
+            List<String> header = new ArrayList<>(CSV_HEADER);
+            if (includeText) {
+                header.add("text");
+            }
+            header.addAll(CSV_SOURCE_HEADER);
+            writeCsvLine(writer, new ArrayList<>(header));
+        }
+
+        ExportHandler handler = new ExportHandler(writer, csv, includeText);
+        String sql = String.format(SELECT_SQL, includeText ? TEXT_COLUMNS : "", includeText ? TEXT_JOIN : "");
+        try {
+            jdbcTemplate.query(streamingStatement(sql, user.getId()), handler);
+            handler.finish();
+        } catch (UncheckedIOException e) {
+            // The client went away
+            throw e.getCause();
+        }
+        writer.flush();
+
+        (csv ? csvSearches : ndjsonSearches).increment(handler.searches);
+        return handler.searches;
+    }
+
+    PreparedStatementCreator streamingStatement(String sql, long userId) {
+        return connection -> {
+            PreparedStatement statement = connection.prepareStatement(
+                sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            statement.setFetchSize(isMySql(connection) ? Integer.MIN_VALUE : fetchSize);
+            statement.setLong(1, userId);
+            return statement;
+        };
+    }
+
+    private static boolean isMySql(Connection connection) throws SQLException {
+        return "MySQL".equalsIgnoreCase(connection.getMetaData().getDatabaseProductName());
+    }
+
+    /**
+     * Collects the joined rows of one search, then writes it as soon as the next one starts.
+     */
+    private class ExportHandler implements RowCallbackHandler {
+
+        private final Writer writer;
+        private final boolean csv;
+        private final boolean includeText;
+
+        private Map<String, Object> search;
+        private final List<Map<String, Object>> sources = new ArrayList<>();
+        private long searches;
+
+        ExportHandler(Writer writer, boolean csv, boolean includeText) {
+            this.writer = writer;
+            this.csv = csv;
+            this.includeText = includeText;
+        }
+
+        @Override
+        public void processRow(ResultSet rs) throws SQLException {
+            long id = rs.getLong("id");
+            if (search == null || !search.get("id").equals(id)) {
+                finish();
+                search = readSearch(rs, id);
+            }
+            rs.getLong("source_id");
+            if (!rs.wasNull()) {
+                sources.add(readSource(rs));
+            }
+        }
+
+        void finish() {
+            if (search == null) {
+                return;
+            }
+            sources.sort(BY_SIMILARITY_DESC);
+            try {
+                if (csv) {
+                    writeCsv();
+                } else {
+                    search.put("sources", sources);
+                    writer.write(objectMapper.writeValueAsString(search));
+                    writer.write('\n');
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            searches++;
+            search = null;
+            sources.clear();
+        }
+
+        private Map<String, Object> readSearch(ResultSet rs, long id) throws SQLException {
+            Map<String, Object> row = new LinkedHashMap<>();
+            row.put("id", id);
+            Timestamp createdAt = rs.getTimestamp("created_at");
+            row.put("createdAt", createdAt != null ? createdAt.toLocalDateTime() : null);
+            row.put("status", rs.getString("status"));
+            row.put("similarityScore", rs.getObject("similarity_score", Double.class));
+            row.put("aiDetected", rs.getObject("ai_detected", Boolean.class));
+            row.put("aiConfidence", rs.getObject("ai_confidence", Double.class));
+            row.put("sourcesFound", rs.getObject("sources_found", Integer.class));
+            row.put("processingTimeMs", rs.getObject("processing_time_ms", Long.class));
+            row.put("servedFromCache", rs.getObject("served_from_cache", Boolean.class));
+            row.put("textLength", rs.getObject("text_length", Integer.class));
+            row.put("preview", rs.getString("query_preview"));
+            row.put("errorMessage", rs.getString("error_message"));
+            if (includeText) {
+                byte[] data = rs.getBytes("query_data");
+                row.put("text", data != null
+                    ? TextBlobStore.decode(rs.getString("query_codec"), rs.getInt("query_length"), data)
+                    : rs.getString("search_query"));
+            }
+            return row;
+        }
+
+        private Map<String, Object> readSource(ResultSet rs) throws SQLException {
+            Map<String, Object> source = new LinkedHashMap<>();
+            source.put("url", rs.getString("url"));
+            source.put("title", rs.getString("title"));
+            source.put("domain", rs.getString("domain"));
+            source.put("similarityPercentage", rs.getObject("similarity_percentage", Double.class));
+            byte[] data = rs.getBytes("matched_data");
+            source.put("matchedText", data != null
+                ? TextBlobStore.decode(rs.getString("matched_codec"), rs.getInt("matched_length"), data)
+                : rs.getString("matched_text"));
+            return source;
+        }
+
+        private void writeCsv() throws IOException {
+            List<Object> values = new ArrayList<>(search.values());
+            if (sources.isEmpty()) {
+                values.addAll(Collections.nCopies(CSV_SOURCE_HEADER.size(), null));
+                writeCsvLine(writer, values);
+                return;
+            }
+            for (Map<String, Object> source : sources) {
+                List<Object> line = new ArrayList<>(values);
+                line.addAll(source.values());
+                writeCsvLine(writer, line);
+            }
+        }
+    }
+
+    /**
+     * RFC 4180 line. Text that a spreadsheet would read as a formula gets a leading quote.
+     */
+    static void writeCsvLine(Writer writer, List<Object> values) throws IOException {
+        for (int i = 0; i < values.size(); i++) {
+            if (i > 0) {
+                writer.write(',');
+            }
+            Object value = values.get(i);
+            if (value == null) {
+                continue;
+            }
+            String cell = value.toString();
+            if (value instanceof String && !cell.isEmpty() && "=+-@".indexOf(cell.charAt(0)) >= 0) {
+                cell = "'" + cell;
+            }
+            if (cell.indexOf(',') >= 0 || cell.indexOf('"') >= 0 || cell.indexOf('\n') >= 0 || cell.indexOf('\r') >= 0) {
+                writer.write('"');
+                writer.write(cell.replace("\"", "\"\""));
+                writer.write('"');
+            } else {
+                writer.write(cell);
+            }
+        }
+        writer.write("\r\n");
+    }
+}
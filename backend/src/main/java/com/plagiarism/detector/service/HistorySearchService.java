@@ -0,0 +1,224 @@
+package com.plagiarism.detector.service;
+
+import com.plagiarism.detector.model.HistorySearchHit;
+import com.plagiarism.detector.model.SearchHistory;
+import com.plagiarism.detector.model.User;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Full-text search over a user's past submissions, backed by the search_history_terms
+ * inverted index. Each submission is tokenized once when its history row is created;
+ * a query is answered from the (user_id, term) postings without reading any TEXT column.
+ * Results rank by the number of query terms matched, then by how often they occur.
+ */
+@Service
+public class HistorySearchService {
+    
+    static final int MIN_TERM_LENGTH = 2;
+    static final int MAX_TERM_LENGTH = 40;
+    static final int MAX_QUERY_TERMS = 16;
+    
+    private static final Set<String> STOP_WORDS = Set.of(
+        "a", "an", "and", "are", "as", "at", "be", "but", "by", "for", "from", "has", "have",
+        "in", "is", "it", "its", "of", "on", "or", "that", "the", "this", "to", "was", "were",
+        "will", "with");
+    
+    // Terms that the column collation still treats as equal are merged rather than failing the batch
+    private static final String INSERT_TERM_SQL =
+        "INSERT INTO search_history_terms (user_id, term, search_history_id, tf) VALUES (:userId, :term, :historyId, :tf) " +
+        "ON DUPLICATE KEY UPDATE tf = tf + VALUES(tf)";
+    
+    private static final String SEARCH_SQL =
+        "SELECT h.id, h.query_preview, h.created_at, h.similarity_score, h.ai_detected, h.status, r.matched, r.weight " +
+        "FROM (SELECT t.search_history_id, COUNT(*) AS matched, SUM(t.tf) AS weight " +
+        "      FROM search_history_terms t WHERE t.user_id = :userId AND t.term IN (:terms) " +
+        "      GROUP BY t.search_history_id " +
+        "      ORDER BY matched DESC, weight DESC, t.search_history_id DESC LIMIT :limit OFFSET :offset) r " +
+        "JOIN search_history h ON h.id = r.search_history_id " +
+        "ORDER BY r.matched DESC, r.weight DESC, r.search_history_id DESC";
+    
+    @Value("${history.search.max-terms-per-document:1000}")
+    private int maxTermsPerDocument;
+    
+    @Value("${history.search.backfill-batch-size:200}")
+    private int backfillBatchSize;
+    
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final TextBlobStore textBlobStore;
+    
+    public HistorySearchService(NamedParameterJdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate,
+                                TextBlobStore textBlobStore) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.textBlobStore = textBlobStore;
+    }
+    
+    /**
+     * Writes the terms of already-inserted history rows. Must run in the transaction that
+     * inserted them, after a flush, so rows and terms commit together.
+     */
+    public void index(List<SearchHistory> searchHistories) {
+        List<SqlParameterSource> batch = new ArrayList<>();
+        for (SearchHistory searchHistory : searchHistories) {
+            addTerms(batch, searchHistory.getUser().getId(), searchHistory.getId(), searchHistory.getSearchQuery());
+        }
+        if (!batch.isEmpty()) {
+            jdbcTemplate.batchUpdate(INSERT_TERM_SQL, batch.toArray(new SqlParameterSource[0]));
+        }
+    }
+    
+    /**
+     * Ranked page of the user's submissions matching any of the query's terms. Fetches
+     * one extra row to tell whether another page follows.
+     */
+    public Map<String, Object> search(User user, String query, int page, int size) {
+        List<String> terms = new ArrayList<>(termFrequencies(query).keySet());
+        if (terms.size() > MAX_QUERY_TERMS) {
+            terms = terms.subList(0, MAX_QUERY_TERMS);
+        }
+        
+        List<HistorySearchHit> hits = new ArrayList<>();
+        if (!terms.isEmpty()) {
+            MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("userId", user.getId())
+                .addValue("terms", terms)
+                .addValue("limit", size + 1)
+                .addValue("offset", (long) page * size);
+            hits = jdbcTemplate.query(SEARCH_SQL, params, (rs, rowNum) -> {
+                Timestamp createdAt = rs.getTimestamp("created_at");
+                String status = rs.getString("status");
+                return new HistorySearchHit(
+                    rs.getLong("id"),
+                    rs.getString("query_preview"),
+                    createdAt != null ? createdAt.toLocalDateTime() : null,
+                    rs.getObject("similarity_score", Double.class),
+                    rs.getObject("ai_detected", Boolean.class),
+                    status != null ? SearchHistory.SearchStatus.valueOf(status) : null,
+                    rs.getInt("matched"),
+                    rs.getLong("weight"));
+            });
+        }
+        
+        boolean hasMore = hits.size() > size;
+        Map<String, Object> response = new HashMap<>();
+        response.put("content", hasMore ? hits.subList(0, size) : hits);
+        response.put("terms", terms);
+        response.put("currentPage", page);
+        response.put("size", size);
+        response.put("hasMore", hasMore);
+        return response;
+    }
+    
+    /**
+     * Indexes rows written before the term index existed, a batch at a time.
+     */
+    @Scheduled(initialDelayString = "${history.search.backfill-initial-delay-ms:30000}",
+               fixedDelayString = "${history.search.backfill-interval-ms:60000}")
+    public void backfill() {
+        try {
+            int indexed;
+            do {
+                Integer count = transactionTemplate.execute(status -> backfillBatch());
+                indexed = count != null ? count : 0;
+            } while (indexed == backfillBatchSize);
+        } catch (Exception e) {
+            System.err.println("History search backfill failed: " + e.getMessage());
+        }
+    }
+    
+    private int backfillBatch() {
+        List<Object[]> rows = jdbcTemplate.query(
+            "SELECT id, user_id, search_query, query_blob FROM search_history WHERE terms_indexed = FALSE ORDER BY id LIMIT :limit",
+            new MapSqlParameterSource("limit", backfillBatchSize),
+            (rs, rowNum) -> new Object[] {
+                rs.getLong("id"), rs.getLong("user_id"), rs.getString("search_query"), rs.getString("query_blob") });
+        if (rows.isEmpty()) {
+            return 0;
+        }
+        
+        List<String> blobs = new ArrayList<>();
+        for (Object[] row : rows) {
+            blobs.add((String) row[3]);
+        }
+        Map<String, String> texts = textBlobStore.getAll(blobs);
+        
+        List<SqlParameterSource> batch = new ArrayList<>();
+        List<Long> ids = new ArrayList<>();
+        for (Object[] row : rows) {
+            ids.add((Long) row[0]);
+            String text = row[3] != null ? texts.get((String) row[3]) : (String) row[2];
+            addTerms(batch, (Long) row[1], (Long) row[0], text);
+        }
+        // Clear partial postings first so a retried batch cannot hit duplicate keys
+        jdbcTemplate.update("DELETE FROM search_history_terms WHERE search_history_id IN (:ids)",
+            new MapSqlParameterSource("ids", ids));
+        if (!batch.isEmpty()) {
+            jdbcTemplate.batchUpdate(INSERT_TERM_SQL, batch.toArray(new SqlParameterSource[0]));
+        }
+        jdbcTemplate.update("UPDATE search_history SET terms_indexed = TRUE WHERE id IN (:ids)",
+            new MapSqlParameterSource("ids", ids));
+        return rows.size();
+    }
+    
+    private void addTerms(List<SqlParameterSource> batch, Long userId, Long historyId, String text) {
+        List<Map.Entry<String, Integer>> terms = new ArrayList<>(termFrequencies(text).entrySet());
+        if (terms.size() > maxTermsPerDocument) {
+            // Keep the most frequent terms of very long texts
+            terms.sort(Map.Entry.<String, Integer>comparingByValue(Comparator.reverseOrder()));
+            terms = terms.subList(0, maxTermsPerDocument);
+        }
+        for (Map.Entry<String, Integer> term : terms) {
+            batch.add(new MapSqlParameterSource()
+                .addValue("userId", userId)
+                .addValue("term", term.getKey())
+                .addValue("historyId", historyId)
+                .addValue("tf", term.getValue()));
+        }
+    }
+    
+    /**
+     * Lower-cased runs of letters and digits, without stop words or tokens too short or
+     * too long to be useful, with their counts in first-seen order.
+     */
+    static Map<String, Integer> termFrequencies(String text) {
+        Map<String, Integer> frequencies = new LinkedHashMap<>();
+        if (text == null) {
+            return frequencies;
+        }
+        int i = 0;
+        int length = text.length();
+        while (i < length) {
+            while (i < length && !Character.isLetterOrDigit(text.codePointAt(i))) {
+                i += Character.charCount(text.codePointAt(i));
+            }
+            int start = i;
+            while (i < length && Character.isLetterOrDigit(text.codePointAt(i))) {
+                i += Character.charCount(text.codePointAt(i));
+            }
+            if (i > start) {
+                String term = text.substring(start, i).toLowerCase(Locale.ROOT);
+                if (term.length() >= MIN_TERM_LENGTH && term.length() <= MAX_TERM_LENGTH && !STOP_WORDS.contains(term)) {
+                    frequencies.merge(term, 1, Integer::sum);
+                }
+            }
+        }
+        return frequencies;
+    }
+}
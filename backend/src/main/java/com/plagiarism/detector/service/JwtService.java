@@ -2,6 +2,7 @@ package com.plagiarism.detector.service;
 
 import io.jsonwebtoken.*;
 import io.jsonwebtoken.security.Keys;
+import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Service;
@@ -21,8 +22,20 @@ public class JwtService {
     @Value("${jwt.expiration}")
     private Long expiration;
     
+    // Both are immutable and thread-safe, so they are built once
+    private SecretKey signingKey;
+    private JwtParser jwtParser;
+    
+    @PostConstruct
+    void init() {
+        signingKey = Keys.hmacShaKeyFor(secret.getBytes());
+        jwtParser = Jwts.parserBuilder()
+                .setSigningKey(signingKey)
+                .build();
+    }
+    
     private SecretKey getSigningKey() {
-        return Keys.hmacShaKeyFor(secret.getBytes());
+        return signingKey;
     }
     
     public String extractUsername(String token) {
@@ -38,16 +51,13 @@ public class JwtService {
         return claimsResolver.apply(claims);
     }
     
-    private Claims extractAllClaims(String token) {
-        return Jwts.parserBuilder()
-                .setSigningKey(getSigningKey())
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
-    }
-    
-    private Boolean isTokenExpired(String token) {
-        return extractExpiration(token).before(new Date());
+    /**
+     * Verifies the signature and expiry and returns the claims.
+     *
+     * @throws JwtException when the token is malformed, tampered with or expired
+     */
+    public Claims extractAllClaims(String token) {
+        return jwtParser.parseClaimsJws(token).getBody();
     }
     
     public String generateToken(UserDetails userDetails) {
@@ -66,7 +76,13 @@ public class JwtService {
     }
     
     public Boolean validateToken(String token, UserDetails userDetails) {
-        final String username = extractUsername(token);
-        return (username.equals(userDetails.getUsername()) && !isTokenExpired(token));
+        return validateClaims(extractAllClaims(token), userDetails);
+    }
+    
+    /**
+     * Same check as {@link #validateToken} on claims that were already parsed.
+     */
+    public Boolean validateClaims(Claims claims, UserDetails userDetails) {
+        return (claims.getSubject().equals(userDetails.getUsername()) && !claims.getExpiration().before(new Date()));
     }
 } 
\ No newline at end of file
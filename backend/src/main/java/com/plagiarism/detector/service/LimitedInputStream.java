@@ -0,0 +1,64 @@
+package com.plagiarism.detector.service;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Fails as soon as more than {@code limit} bytes have been read, so an oversized analyzer
+ * reply is rejected while it is being parsed rather than after it has been buffered.
+ * Closing it leaves the underlying stream open, which lets a parser be closed after each
+ * reply on a worker's long-lived stdout.
+ */
+public final class LimitedInputStream extends FilterInputStream {
+
+    private final long limit;
+    private long count;
+
+    public LimitedInputStream(InputStream in, long limit) {
+        super(in);
+        this.limit = limit;
+    }
+
+    @Override
+    public int read() throws IOException {
+        int b = super.read();
+        if (b >= 0) {
+            advance(1);
+        }
+        return b;
+    }
+
+    @Override
+    public int read(byte[] buffer, int offset, int length) throws IOException {
+        int n = super.read(buffer, offset, (int) Math.min(length, limit - count + 1));
+        if (n > 0) {
+            advance(n);
+        }
+        return n;
+    }
+
+    @Override
+    public long skip(long n) throws IOException {
+        long skipped = super.skip(Math.min(n, limit - count + 1));
+        advance(skipped);
+        return skipped;
+    }
+
+    @Override
+    public boolean markSupported() {
+        return false;
+    }
+
+    @Override
+    public void close() {
+        // The underlying stream belongs to the caller
+    }
+
+    private void advance(long n) throws IOException {
+        count += n;
+        if (count > limit) {
+            throw new IOException("Analyzer reply exceeds " + limit + " bytes");
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package com.plagiarism.detector.service;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Aho–Corasick automaton over up to 64 lowercase ASCII phrases, compiled to a dense
+ * transition table so matching costs one array lookup per input char. Each state carries
+ * a bit mask of the phrases that end there (including those ending in its suffixes), so
+ * a single pass reports every occurrence of every phrase, overlaps included.
+ */
+public final class PhraseAutomaton {
+
+    private static final int ALPHABET = 128;
+
+    private final int[] transitions;
+    private final long[] matches;
+
+    public PhraseAutomaton(List<String> phrases) {
+        if (phrases.size() > Long.SIZE) {
+            throw new IllegalArgumentException("At most " + Long.SIZE + " phrases are supported");
+        }
+
+        // Trie, with -1 for missing edges
+        List<int[]> edges = new ArrayList<>();
+        List<Long> outputs = new ArrayList<>();
+        edges.add(emptyRow());
+        outputs.add(0L);
+        for (int p = 0; p < phrases.size(); p++) {
+            String phrase = phrases.get(p);
+            int state = 0;
+            for (int i = 0; i < phrase.length(); i++) {
+                char c = phrase.charAt(i);
+                if (c >= ALPHABET || Character.toLowerCase(c) != c) {
+                    throw new IllegalArgumentException("Phrases must be lowercase ASCII: " + phrase);
+                }
+                if (edges.get(state)[c] < 0) {
+                    edges.get(state)[c] = edges.size();
+                    edges.add(emptyRow());
+                    outputs.add(0L);
+                }
+                state = edges.get(state)[c];
+            }
+            outputs.set(state, outputs.get(state) | (1L << p));
+        }
+
+        // Breadth-first over the trie, filling missing edges from the failure state
+        int states = edges.size();
+        transitions = new int[states * ALPHABET];
+        matches = new long[states];
+        int[] failure = new int[states];
+        ArrayDeque<Integer> queue = new ArrayDeque<>();
+        for (int c = 0; c < ALPHABET; c++) {
+            int next = edges.get(0)[c];
+            transitions[c] = Math.max(next, 0);
+            if (next > 0) {
+                queue.add(next);
+            }
+        }
+        matches[0] = outputs.get(0);
+        while (!queue.isEmpty()) {
+            int state = queue.poll();
+            matches[state] = outputs.get(state) | matches[failure[state]];
+            for (int c = 0; c < ALPHABET; c++) {
+                int next = edges.get(state)[c];
+                if (next > 0) {
+                    failure[next] = transitions[failure[state] * ALPHABET + c];
+                    transitions[state * ALPHABET + c] = next;
+                    queue.add(next);
+                } else {
+                    transitions[state * ALPHABET + c] = transitions[failure[state] * ALPHABET + c];
+                }
+            }
+        }
+    }
+
+    public int start() {
+        return 0;
+    }
+
+    /**
+     * The state after reading {@code c}, which must already be lowercased.
+     * Chars outside ASCII cannot be part of a phrase and reset to the start state.
+     */
+    public int next(int state, char c) {
+        return c < ALPHABET ? transitions[state * ALPHABET + c] : 0;
+    }
+
+    /**
+     * Bit {@code i} is set when phrase {@code i} ends at the char that led to {@code state}.
+     */
+    public long matches(int state) {
+        return matches[state];
+    }
+
+    private static int[] emptyRow() {
+        int[] row = new int[ALPHABET];
+        Arrays.fill(row, -1);
+        return row;
+    }
+}
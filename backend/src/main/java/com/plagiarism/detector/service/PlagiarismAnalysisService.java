@@ -1,92 +1,204 @@
 package com.plagiarism.detector.service;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
 import com.plagiarism.detector.model.*;
 import com.plagiarism.detector.repository.SearchHistoryRepository;
 import com.plagiarism.detector.repository.SimilaritySourceRepository;
+import jakarta.annotation.PreDestroy;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
 
-import java.io.BufferedReader;
 import java.io.IOException;
-import java.io.InputStreamReader;
 import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
 
 @Service
 public class PlagiarismAnalysisService {
     
-    @Value("${ai.service.python.path:ai_service/ai_similarity.py}")
-    private String pythonScriptPath;
+    @Value("${ai.similarity.native-scoring:true}")
+    private boolean nativeScoring;
     
-    @Value("${ai.service.python.command:python}")
-    private String pythonCommand;
+    @Value("${search.native:true}")
+    private boolean nativeSearch;
+    
+    @Value("${analysis.ai-detection.native:true}")
+    private boolean nativeAiDetection;
+    
+    @Value("${analysis.chunking.enabled:true}")
+    private boolean chunkingEnabled;
+    
+    @Value("${analysis.chunking.chunk-chars:4000}")
+    private int chunkChars;
     
     private final SearchHistoryRepository searchHistoryRepository;
     private final SimilaritySourceRepository similaritySourceRepository;
-    private final ObjectMapper objectMapper;
+    private final PythonWorkerPool pythonWorkerPool;
+    private final RemoteAnalyzerClient remoteAnalyzerClient;
+    private final SimilarityEngine similarityEngine;
+    private final AiTextDetector aiTextDetector;
+    private final AnalysisResultCache analysisResultCache;
+    private final WebSearchService webSearchService;
+    private final TransactionTemplate transactionTemplate;
+    private final UserStatisticsService userStatisticsService;
+    private final HistorySearchService historySearchService;
+    private final TextBlobStore textBlobStore;
+    private final AnalysisMetrics analysisMetrics;
+    private final ExecutorService chunkExecutor;
     
     @Autowired
     public PlagiarismAnalysisService(
             SearchHistoryRepository searchHistoryRepository,
-            SimilaritySourceRepository similaritySourceRepository) {
+            SimilaritySourceRepository similaritySourceRepository,
+            PythonWorkerPool pythonWorkerPool,
+            RemoteAnalyzerClient remoteAnalyzerClient,
+            SimilarityEngine similarityEngine,
+            AiTextDetector aiTextDetector,
+            AnalysisResultCache analysisResultCache,
+            WebSearchService webSearchService,
+            TransactionTemplate transactionTemplate,
+            UserStatisticsService userStatisticsService,
+            HistorySearchService historySearchService,
+            TextBlobStore textBlobStore,
+            AnalysisMetrics analysisMetrics,
+            @Value("${analysis.chunking.parallelism:8}") int chunkParallelism) {
         this.searchHistoryRepository = searchHistoryRepository;
         this.similaritySourceRepository = similaritySourceRepository;
-        this.objectMapper = new ObjectMapper();
+        this.pythonWorkerPool = pythonWorkerPool;
+        this.remoteAnalyzerClient = remoteAnalyzerClient;
+        this.similarityEngine = similarityEngine;
+        this.aiTextDetector = aiTextDetector;
+        this.analysisResultCache = analysisResultCache;
+        this.webSearchService = webSearchService;
+        this.transactionTemplate = transactionTemplate;
+        this.userStatisticsService = userStatisticsService;
+        this.historySearchService = historySearchService;
+        this.textBlobStore = textBlobStore;
+        this.analysisMetrics = analysisMetrics;
+        
+        AtomicInteger threadIds = new AtomicInteger();
+        this.chunkExecutor = Executors.newFixedThreadPool(chunkParallelism,
+            runnable -> new Thread(runnable, "analysis-chunk-" + threadIds.incrementAndGet()));
+    }
+    
+    @PreDestroy
+    public void shutdown() {
+        chunkExecutor.shutdown();
     }
     
     public AnalysisResponse analyzeText(AnalysisRequest request, User user) {
-        long startTime = System.currentTimeMillis();
+        SearchHistory searchHistory = createSearchHistory(request, user, SearchHistory.SearchStatus.PROCESSING);
+        return processAnalysis(searchHistory, request);
+    }
+    
+    /**
+     * Analyzes an uploaded document that was spooled to disk. The text is read once for
+     * the history row and JVM scoring; the Python worker reads the file itself.
+     *
+     * @throws java.nio.charset.CharacterCodingException when the file is not valid UTF-8
+     */
+    public AnalysisResponse analyzeDocument(Path document, boolean checkParaphrasing, User user) throws IOException {
+        AnalysisRequest request = new AnalysisRequest();
+        request.setText(Files.readString(document, StandardCharsets.UTF_8));
+        request.setCheckParaphrasing(checkParaphrasing);
         
-        // Create search history record
+        SearchHistory searchHistory = createSearchHistory(request, user, SearchHistory.SearchStatus.PROCESSING);
+        return processAnalysis(searchHistory, request, document);
+    }
+    
+    /**
+     * Persists the history row that tracks one analysis; its id doubles as the job id
+     * for asynchronous analyses.
+     */
+    public SearchHistory createSearchHistory(AnalysisRequest request, User user, SearchHistory.SearchStatus status) {
+        return createSearchHistories(List.of(newSearchHistory(request, user, status))).get(0);
+    }
+    
+    /**
+     * Inserts history rows together with their history-search terms and stored texts,
+     * in one transaction.
+     */
+    public List<SearchHistory> createSearchHistories(List<SearchHistory> searchHistories) {
+        long start = System.nanoTime();
+        List<SearchHistory> created = transactionTemplate.execute(status -> {
+            searchHistories.forEach(searchHistory -> searchHistory.setTermsIndexed(true));
+            Map<String, String> keys = textBlobStore.putAll(
+                searchHistories.stream().map(SearchHistory::getSearchQuery).toList());
+            searchHistories.forEach(searchHistory -> searchHistory.setQueryBlob(keys.get(searchHistory.getSearchQuery())));
+            // Flush so the term rows can reference the new ids
+            List<SearchHistory> saved = searchHistoryRepository.saveAllAndFlush(searchHistories);
+            historySearchService.index(saved);
+            return saved;
+        });
+        analysisMetrics.recordStage(AnalysisMetrics.STAGE_DB_CREATE, start);
+        return created;
+    }
+    
+    /**
+     * Builds an unsaved history row, for callers that insert many at once
+     * through {@link #createSearchHistories}.
+     */
+    public SearchHistory newSearchHistory(AnalysisRequest request, User user, SearchHistory.SearchStatus status) {
         SearchHistory searchHistory = new SearchHistory();
         searchHistory.setUser(user);
         searchHistory.setSearchQuery(request.getText());
+        searchHistory.setQueryHash(TextFingerprint.of(request.getText()));
+        searchHistory.setQueryPreview(TextFingerprint.preview(request.getText(), SearchHistory.QUERY_PREVIEW_LENGTH));
         searchHistory.setTextLength(request.getText().length());
-        searchHistory.setStatus(SearchHistory.SearchStatus.PROCESSING);
-        searchHistory = searchHistoryRepository.save(searchHistory);
+        searchHistory.setStatus(status);
+        return searchHistory;
+    }
+    
+    /**
+     * Runs the analysis for an existing history row and records the outcome on it.
+     */
+    public AnalysisResponse processAnalysis(SearchHistory searchHistory, AnalysisRequest request) {
+        return processAnalysis(searchHistory, request, null);
+    }
+    
+    private AnalysisResponse processAnalysis(SearchHistory searchHistory, AnalysisRequest request, Path document) {
+        long startTime = System.currentTimeMillis();
+        long startNanos = System.nanoTime();
+        StageTimings timings = analysisMetrics.newTimings();
+        
+        if (searchHistory.getStatus() != SearchHistory.SearchStatus.PROCESSING) {
+            searchHistory.setStatus(SearchHistory.SearchStatus.PROCESSING);
+            searchHistory = searchHistoryRepository.save(searchHistory);
+        }
         
         try {
-            // Call Python AI service
-            Map<String, Object> pythonResult = callPythonAIService(request.getText(), request.isCheckParaphrasing());
-            
-            // Parse Python response
-            AnalysisResponse response = parsePythonResponse(pythonResult);
-            
-            // Save sources to database
-            if (response.getMatchedSources() != null) {
-                for (AnalysisResponse.SimilaritySource source : response.getMatchedSources()) {
-                    SimilaritySource dbSource = new SimilaritySource();
-                    dbSource.setSearchHistory(searchHistory);
-                    dbSource.setUrl(source.getUrl());
-                    dbSource.setTitle(source.getTitle());
-                    dbSource.setSimilarityPercentage(source.getSimilarityPercentage());
-                    dbSource.setMatchedText(source.getMatchedText());
-                    dbSource.setDomain(extractDomain(source.getUrl()));
-                    similaritySourceRepository.save(dbSource);
-                }
-            }
+            AnalysisResultCache.Lookup lookup = computeAnalysis(request, document, timings);
+            AnalysisResponse response = lookup.getResponse();
             
-            // Update search history
-            long processingTime = System.currentTimeMillis() - startTime;
-            searchHistory.setSimilarityScore(response.getSimilarityScore());
-            searchHistory.setAiDetected(response.isAiDetected());
-            searchHistory.setAiConfidence(response.getAiConfidence());
-            searchHistory.setSourcesFound(response.getMatchedSources() != null ? response.getMatchedSources().size() : 0);
-            searchHistory.setProcessingTimeMs(processingTime);
-            searchHistory.setStatus(SearchHistory.SearchStatus.COMPLETED);
-            searchHistoryRepository.save(searchHistory);
+            // Save sources and the updated history in one transaction
+            recordResult(searchHistory, lookup, System.currentTimeMillis() - startTime);
+            searchHistory.setStageTimings(timings.toJson());
+            saveResults(List.of(searchHistory), toSimilaritySources(searchHistory, response));
             
+            analysisMetrics.recordRequest(response.getError() == null, startNanos);
             return response;
             
         } catch (Exception e) {
             // Update search history with error
-            searchHistory.setStatus(SearchHistory.SearchStatus.FAILED);
-            searchHistory.setErrorMessage(e.getMessage());
+            recordFailure(searchHistory, e);
+            searchHistory.setStageTimings(timings.toJson());
             searchHistoryRepository.save(searchHistory);
+            userStatisticsService.recordFinished(List.of(searchHistory));
+            analysisMetrics.recordRequest(false, startNanos);
             
             AnalysisResponse errorResponse = new AnalysisResponse();
             errorResponse.setError("Analysis failed: " + e.getMessage());
@@ -94,97 +206,314 @@ public class PlagiarismAnalysisService {
         }
     }
     
-    private Map<String, Object> callPythonAIService(String text, boolean checkParaphrasing) throws IOException, InterruptedException {
-        // Build command to call Python script
-        List<String> command = new ArrayList<>();
-        command.add(pythonCommand);
-        command.add(pythonScriptPath);
-        command.add("--text");
-        command.add(text);
-        command.add("--format");
-        command.add("json");
-        
-        if (checkParaphrasing) {
-            command.add("--paraphrasing");
+    /**
+     * Runs the analysis pipeline for a request without touching the database.
+     * Identical submissions are answered from the cache or share one in-flight run.
+     */
+    public AnalysisResultCache.Lookup computeAnalysis(AnalysisRequest request, StageTimings timings) throws Exception {
+        return computeAnalysis(request, null, timings);
+    }
+    
+    /**
+     * Same as {@link #computeAnalysis(AnalysisRequest, StageTimings)}, but hands
+     * {@code document} to the Python worker by path instead of sending the text through its stdin.
+     */
+    private AnalysisResultCache.Lookup computeAnalysis(AnalysisRequest request, Path document, StageTimings timings)
+            throws Exception {
+        String cacheKey = AnalysisResultCache.key(request.getText(), request.isCheckParaphrasing());
+        try {
+            AnalysisResultCache.Lookup lookup = analysisResultCache.getOrCompute(cacheKey,
+                () -> runAnalysis(request.getText(), document, request.isCheckParaphrasing(), timings));
+            analysisMetrics.recordLookup(lookup);
+            return lookup;
+        } catch (Exception e) {
+            analysisMetrics.recordException();
+            throw e;
+        }
+    }
+    
+    /**
+     * Builds (unsaved) source rows for the matches in a response.
+     */
+    public List<SimilaritySource> toSimilaritySources(SearchHistory searchHistory, AnalysisResponse response) {
+        List<SimilaritySource> dbSources = new ArrayList<>();
+        if (response.getMatchedSources() != null) {
+            for (AnalysisResponse.SimilaritySource source : response.getMatchedSources()) {
+                SimilaritySource dbSource = new SimilaritySource();
+                dbSource.setSearchHistory(searchHistory);
+                dbSource.setUrl(source.getUrl());
+                dbSource.setTitle(source.getTitle());
+                dbSource.setSimilarityPercentage(source.getSimilarityPercentage());
+                dbSource.setMatchedText(source.getMatchedText());
+                dbSource.setDomain(extractDomain(source.getUrl()));
+                dbSources.add(dbSource);
+            }
+        }
+        return dbSources;
+    }
+    
+    /**
+     * Copies a finished analysis onto its history row (not saved).
+     */
+    public void recordResult(SearchHistory searchHistory, AnalysisResultCache.Lookup lookup, long processingTime) {
+        AnalysisResponse response = lookup.getResponse();
+        searchHistory.setSimilarityScore(response.getSimilarityScore());
+        searchHistory.setAiDetected(response.isAiDetected());
+        searchHistory.setAiConfidence(response.getAiConfidence());
+        searchHistory.setSourcesFound(response.getMatchedSources() != null ? response.getMatchedSources().size() : 0);
+        searchHistory.setProcessingTimeMs(processingTime);
+        searchHistory.setServedFromCache(lookup.isServedFromCache());
+        searchHistory.setStatus(SearchHistory.SearchStatus.COMPLETED);
+    }
+    
+    /**
+     * Writes finished history rows and their sources in a single transaction, so the
+     * source inserts go out as JDBC batches instead of one round trip per row.
+     * Snippets go to the text blob store, once per distinct text.
+     * The owners' statistics rollups are updated once the rows are committed.
+     */
+    public void saveResults(List<SearchHistory> searchHistories, List<SimilaritySource> sources) {
+        long start = System.nanoTime();
+        transactionTemplate.executeWithoutResult(status -> {
+            searchHistoryRepository.saveAll(searchHistories);
+            Map<String, String> keys = textBlobStore.putAll(sources.stream().map(SimilaritySource::getMatchedText).toList());
+            sources.forEach(source -> source.setMatchedTextBlob(keys.get(source.getMatchedText())));
+            similaritySourceRepository.saveAll(sources);
+        });
+        userStatisticsService.recordFinished(searchHistories);
+        analysisMetrics.recordStage(AnalysisMetrics.STAGE_DB_SAVE, start);
+    }
+    
+    /**
+     * Marks history rows whose results could not be saved as failed and saves them in a
+     * transaction of their own. Rows that already failed keep their own error.
+     */
+    public void saveFailures(List<SearchHistory> searchHistories, Exception e) {
+        for (SearchHistory searchHistory : searchHistories) {
+            if (searchHistory.getStatus() != SearchHistory.SearchStatus.FAILED) {
+                recordFailure(searchHistory, e);
+            }
+        }
+        transactionTemplate.executeWithoutResult(status -> searchHistoryRepository.saveAll(searchHistories));
+        userStatisticsService.recordFinished(searchHistories);
+    }
+    
+    /**
+     * Marks a history row as failed (not saved).
+     */
+    public void recordFailure(SearchHistory searchHistory, Exception e) {
+        searchHistory.setStatus(SearchHistory.SearchStatus.FAILED);
+        searchHistory.setErrorMessage(e.getMessage());
+    }
+    
+    private AnalysisResponse runAnalysis(String text, Path document, boolean checkParaphrasing, StageTimings timings)
+            throws Exception {
+        if (chunkingEnabled && text.length() > chunkChars) {
+            return runChunkedAnalysis(text, document, checkParaphrasing, timings);
+        }
+        return runSingleAnalysis(text, document, null, checkParaphrasing, timings);
+    }
+    
+    /**
+     * Analyzes each section of a long document on its own, in parallel, and merges the
+     * results. Every chunk gets its own search phrases and is scored only against its own
+     * snippets, so coverage grows with the document while scoring cost stays per chunk.
+     * A chunk's text is only cut out while it is analyzed, and for a spooled upload the
+     * Python worker reads the chunk's byte range from the file instead of the pipe.
+     */
+    private AnalysisResponse runChunkedAnalysis(String text, Path document, boolean checkParaphrasing, StageTimings timings)
+            throws Exception {
+        List<DocumentChunker.Chunk> chunks = DocumentChunker.split(text, chunkChars);
+        List<Future<AnalysisResponse>> futures = new ArrayList<>(chunks.size());
+        for (DocumentChunker.Chunk chunk : chunks) {
+            futures.add(chunkExecutor.submit(
+                () -> runSingleAnalysis(chunk.text(text), document, chunk, checkParaphrasing, timings)));
         }
         
-        // Execute Python script
-        ProcessBuilder processBuilder = new ProcessBuilder(command);
-        processBuilder.redirectErrorStream(true);
-        
-        Process process = processBuilder.start();
+        List<AnalysisResponse> results = new ArrayList<>(chunks.size());
+        for (Future<AnalysisResponse> future : futures) {
+            try {
+                results.add(future.get());
+            } catch (ExecutionException e) {
+                futures.forEach(pending -> pending.cancel(true));
+                throw e.getCause() instanceof Exception cause ? cause : e;
+            }
+        }
+        long mergeStart = System.nanoTime();
+        AnalysisResponse merged = mergeChunkResults(chunks, results);
+        timings.record(AnalysisMetrics.STAGE_MERGE, mergeStart);
+        return merged;
+    }
+    
+    private AnalysisResponse mergeChunkResults(List<DocumentChunker.Chunk> chunks, List<AnalysisResponse> results) {
+        AnalysisResponse merged = new AnalysisResponse();
+        List<AnalysisResponse.ChunkScore> chunkScores = new ArrayList<>(chunks.size());
+        Map<String, AnalysisResponse.SimilaritySource> sourcesByUrl = new LinkedHashMap<>();
+        List<String> paraphrases = new ArrayList<>();
+        double maxSimilarity = 0.0;
+        double weightedConfidence = 0.0;
         
-        // Read output
-        StringBuilder output = new StringBuilder();
-        try (BufferedReader reader = new BufferedReader(new InputStreamReader(process.getInputStream()))) {
-            String line;
-            while ((line = reader.readLine()) != null) {
-                output.append(line).append("\n");
+        for (int i = 0; i < chunks.size(); i++) {
+            DocumentChunker.Chunk chunk = chunks.get(i);
+            AnalysisResponse result = results.get(i);
+            if (result.getError() != null) {
+                merged.setError("Chunk " + chunk.getIndex() + ": " + result.getError());
+                return merged;
+            }
+            
+            List<AnalysisResponse.SimilaritySource> sources = result.getMatchedSources() != null
+                ? result.getMatchedSources() : List.of();
+            // The same page can match several chunks; keep its best match
+            for (AnalysisResponse.SimilaritySource source : sources) {
+                sourcesByUrl.merge(source.getUrl(), source, (current, candidate) ->
+                    candidate.getSimilarityPercentage() > current.getSimilarityPercentage() ? candidate : current);
             }
+            if (result.getParaphrasedText() != null) {
+                paraphrases.add(result.getParaphrasedText());
+            }
+            
+            maxSimilarity = Math.max(maxSimilarity, result.getSimilarityScore());
+            weightedConfidence += result.getAiConfidence() * chunk.length();
+            chunkScores.add(new AnalysisResponse.ChunkScore(chunk.getIndex(), chunk.getStart(), chunk.getEnd(),
+                result.getSimilarityScore(), result.getAiConfidence(), sources.size()));
         }
         
-        // Wait for process to complete
-        int exitCode = process.waitFor();
+        List<AnalysisResponse.SimilaritySource> sources = new ArrayList<>(sourcesByUrl.values());
+        sources.sort(Comparator.comparingDouble(AnalysisResponse.SimilaritySource::getSimilarityPercentage).reversed());
         
-        if (exitCode != 0) {
-            throw new RuntimeException("Python script failed with exit code: " + exitCode + "\nOutput: " + output.toString());
-        }
+        // Confidence is weighted by chunk length so a short tail chunk cannot swing it
+        int totalLength = chunks.stream().mapToInt(DocumentChunker.Chunk::length).sum();
+        double aiConfidence = SimilarityEngine.round(weightedConfidence / Math.max(1, totalLength), 4);
         
-        // Parse JSON response
-        String jsonOutput = output.toString().trim();
-        return objectMapper.readValue(jsonOutput, Map.class);
+        merged.setSimilarityScore(maxSimilarity);
+        merged.setMatchedSources(sources);
+        merged.setAiConfidence(aiConfidence);
+        merged.setAiDetected(aiConfidence > AiTextDetector.DETECTION_THRESHOLD);
+        merged.setParaphrasedText(paraphrases.isEmpty() ? null : String.join("\n\n", paraphrases));
+        merged.setChunks(chunkScores);
+        return merged;
     }
     
-    private AnalysisResponse parsePythonResponse(Map<String, Object> pythonResult) {
-        AnalysisResponse response = new AnalysisResponse();
+    /**
+     * Analyzes {@code text}, which is the whole of {@code document} when {@code section} is
+     * null and that section of it otherwise; {@code document} is null for submitted text.
+     */
+    private AnalysisResponse runSingleAnalysis(String text, Path document, DocumentChunker.Chunk section,
+                                               boolean checkParaphrasing, StageTimings timings) throws Exception {
+        // Start the web searches first so they overlap with the Python call
+        boolean searchInJvm = nativeSearch && nativeScoring && webSearchService.isAvailable();
+        long searchStart = System.nanoTime();
+        CompletableFuture<List<SearchResult>> searches = searchInJvm
+            ? webSearchService.searchAll(SearchPhraseExtractor.extract(text))
+                .whenComplete((results, error) -> timings.record(AnalysisMetrics.STAGE_SEARCH, searchStart))
+            : null;
         
-        // Check for error
-        if (pythonResult.containsKey("error") && pythonResult.get("error") != null) {
-            response.setError((String) pythonResult.get("error"));
-            return response;
+        // With search, scoring and AI detection all in the JVM, Python is only needed to paraphrase
+        AnalyzerResult pythonResult = null;
+        AnalysisResponse response;
+        if (searchInJvm && nativeAiDetection && !checkParaphrasing) {
+            response = new AnalysisResponse();
+        } else {
+            long pythonStart = System.nanoTime();
+            pythonResult = callPythonAIService(text, document, section, checkParaphrasing, !searchInJvm);
+            timings.record(AnalysisMetrics.STAGE_PYTHON, pythonStart);
+            
+            long parseStart = System.nanoTime();
+            response = parsePythonResponse(pythonResult);
+            timings.record(AnalysisMetrics.STAGE_PARSE, parseStart);
+            if (response.getError() != null) {
+                return response;
+            }
         }
         
-        // Parse similarity score
-        if (pythonResult.containsKey("similarityScore")) {
-            response.setSimilarityScore(((Number) pythonResult.get("similarityScore")).doubleValue());
+        if (nativeAiDetection) {
+            long detectionStart = System.nanoTime();
+            AiTextDetector.Detection detection = aiTextDetector.detect(text);
+            response.setAiDetected(detection.isAiDetected());
+            response.setAiConfidence(detection.getConfidence());
+            timings.record(AnalysisMetrics.STAGE_AI_DETECTION, detectionStart);
         }
         
-        // Parse AI detection
-        if (pythonResult.containsKey("aiDetected")) {
-            response.setAiDetected((Boolean) pythonResult.get("aiDetected"));
+        // Score the search results in the JVM when Python skipped scoring
+        List<SearchResult> searchResults = null;
+        if (searches != null) {
+            searchResults = searches.join();
+        } else if (nativeScoring && pythonResult.getSearchResults() != null) {
+            searchResults = pythonResult.getSearchResults();
         }
-        
-        if (pythonResult.containsKey("aiConfidence")) {
-            response.setAiConfidence(((Number) pythonResult.get("aiConfidence")).doubleValue());
+        if (searchResults != null) {
+            long scoringStart = System.nanoTime();
+            scoreSearchResults(text, searchResults, response);
+            timings.record(AnalysisMetrics.STAGE_SCORING, scoringStart);
         }
         
-        // Parse paraphrased text
-        if (pythonResult.containsKey("paraphrasedText")) {
-            response.setParaphrasedText((String) pythonResult.get("paraphrasedText"));
+        return response;
+    }
+    
+    private AnalyzerResult callPythonAIService(String text, Path document, DocumentChunker.Chunk section,
+                                               boolean checkParaphrasing, boolean webSearch)
+            throws IOException, InterruptedException, TimeoutException {
+        if (remoteAnalyzerClient.isEnabled()) {
+            // Remote analyzers cannot read our temp files, so documents go over as text
+            return remoteAnalyzerClient.analyze(text, checkParaphrasing, !nativeScoring, webSearch);
+        }
+        // Borrow a long-lived worker instead of forking a new interpreter per request
+        if (document != null && section != null) {
+            return pythonWorkerPool.analyzeDocument(document, section.getByteStart(),
+                section.getByteEnd() - section.getByteStart(), checkParaphrasing, !nativeScoring, webSearch);
+        }
+        if (document != null) {
+            return pythonWorkerPool.analyzeDocument(document, checkParaphrasing, !nativeScoring, webSearch);
         }
+        return pythonWorkerPool.analyze(text, checkParaphrasing, !nativeScoring, webSearch);
+    }
+    
+    private void scoreSearchResults(String text, List<SearchResult> searchResults, AnalysisResponse response) {
+        List<AnalysisResponse.SimilaritySource> sources = new ArrayList<>();
+        double maxSimilarity = 0.0;
         
-        // Parse matched sources
-        if (pythonResult.containsKey("matchedSources")) {
-            List<Map<String, Object>> sourcesData = (List<Map<String, Object>>) pythonResult.get("matchedSources");
-            List<AnalysisResponse.SimilaritySource> sources = new ArrayList<>();
+        for (SearchResult result : searchResults) {
+            String snippet = result.getSnippet();
+            double similarity = similarityEngine.calculateSimilarity(text, snippet, SimilarityEngine.RELEVANCE_THRESHOLD);
             
-            for (Map<String, Object> sourceData : sourcesData) {
-                AnalysisResponse.SimilaritySource source = new AnalysisResponse.SimilaritySource(
-                    (String) sourceData.get("url"),
-                    (String) sourceData.get("title"),
-                    ((Number) sourceData.get("similarityPercentage")).doubleValue(),
-                    (String) sourceData.get("matchedText")
-                );
-                sources.add(source);
+            // Only include relevant matches, same cut-off as ai_similarity.py
+            if (similarity > SimilarityEngine.RELEVANCE_THRESHOLD) {
+                sources.add(new AnalysisResponse.SimilaritySource(
+                    result.getUrl(),
+                    result.getTitle(),
+                    SimilarityEngine.round(similarity * 100, 2),
+                    snippet
+                ));
+                maxSimilarity = Math.max(maxSimilarity, similarity);
             }
-            
-            response.setMatchedSources(sources);
         }
         
+        sources.sort(Comparator.comparingDouble(AnalysisResponse.SimilaritySource::getSimilarityPercentage).reversed());
+        response.setSimilarityScore(SimilarityEngine.round(maxSimilarity, 4));
+        response.setMatchedSources(sources);
+    }
+    
+    // Package-private for the JMH benchmarks in src/jmh
+    static AnalysisResponse parsePythonResponse(AnalyzerResult result) {
+        AnalysisResponse response = new AnalysisResponse();
+        
+        // Check for error
+        if (result.getError() != null) {
+            response.setError(result.getError());
+            return response;
+        }
+        
+        // The sources were decoded as AnalysisResponse.SimilaritySource, so they are handed over as is
+        response.setSimilarityScore(result.getSimilarityScore());
+        response.setAiDetected(result.isAiDetected());
+        response.setAiConfidence(result.getAiConfidence());
+        response.setParaphrasedText(result.getParaphrasedText());
+        response.setMatchedSources(result.getMatchedSources());
+        
         return response;
     }
     
-    private String extractDomain(String url) {
+    static String extractDomain(String url) {
         try {
             URL urlObj = new URL(url);
             return urlObj.getHost();
@@ -0,0 +1,458 @@
+package com.plagiarism.detector.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.plagiarism.detector.model.AnalyzerResult;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Pool of long-lived {@code ai_similarity.py --worker} processes.
+ * Each worker speaks line-delimited JSON over stdin/stdout, so the interpreter
+ * start-up and module imports are paid once per worker instead of once per analysis.
+ * Replies are decoded straight from the worker's stdout into {@link AnalyzerResult}.
+ */
+@Component
+public class PythonWorkerPool {
+
+    @Value("${ai.service.python.path:ai_service/ai_similarity.py}")
+    private String pythonScriptPath;
+
+    @Value("${ai.service.python.command:python}")
+    private String pythonCommand;
+
+    @Value("${ai.service.python.pool.min-size:2}")
+    private int minSize;
+
+    @Value("${ai.service.python.pool.max-size:8}")
+    private int maxSize;
+
+    @Value("${ai.service.python.pool.borrow-timeout-ms:30000}")
+    private long borrowTimeoutMs;
+
+    @Value("${ai.service.python.pool.request-timeout-ms:60000}")
+    private long requestTimeoutMs;
+
+    @Value("${ai.service.python.pool.idle-timeout-ms:300000}")
+    private long idleTimeoutMs;
+
+    @Value("${ai.service.python.pool.ping-timeout-ms:2000}")
+    private long pingTimeoutMs;
+
+    @Value("${ai.service.max-reply-bytes:67108864}")
+    private long maxReplyBytes;
+
+    private final ObjectMapper objectMapper;
+    private final ObjectReader resultReader;
+    private final ObjectWriter requestWriter;
+    private final LinkedBlockingDeque<PythonWorker> idleWorkers = new LinkedBlockingDeque<>();
+    private final AtomicInteger totalWorkers = new AtomicInteger();
+    private final AtomicInteger waitingBorrowers = new AtomicInteger();
+    private final AtomicLong restartedWorkers = new AtomicLong();
+    private final AtomicLong requestIds = new AtomicLong();
+    private final ScheduledExecutorService watchdog = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "python-worker-watchdog");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final AnalysisMetrics analysisMetrics;
+
+    private volatile boolean shuttingDown;
+
+    public PythonWorkerPool(AnalysisMetrics analysisMetrics, ObjectMapper objectMapper) {
+        this.analysisMetrics = analysisMetrics;
+        this.objectMapper = objectMapper;
+        this.resultReader = objectMapper.readerFor(AnalyzerResult.class);
+        // The worker's stdin stays open across requests
+        this.requestWriter = objectMapper.writer().without(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        analysisMetrics.gauge("python.workers.total", totalWorkers, AtomicInteger::get);
+        analysisMetrics.gauge("python.workers.idle", idleWorkers, LinkedBlockingDeque::size);
+        analysisMetrics.gauge("python.workers.waiting", waitingBorrowers, AtomicInteger::get);
+    }
+
+    @PostConstruct
+    public void start() {
+        ensureMinimumWorkers();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        shuttingDown = true;
+        PythonWorker worker;
+        while ((worker = idleWorkers.pollFirst()) != null) {
+            discard(worker);
+        }
+        watchdog.shutdownNow();
+    }
+
+    /**
+     * Runs one analysis on a pooled worker, waiting at most the configured
+     * borrow timeout for a worker to become available. With {@code scoreMatches}
+     * false the worker skips snippet scoring and returns raw "searchResults"; with
+     * {@code webSearch} false it makes no searches at all.
+     */
+    public AnalyzerResult analyze(String text, boolean checkParaphrasing, boolean scoreMatches, boolean webSearch)
+            throws IOException, InterruptedException, TimeoutException {
+        Map<String, Object> payload = new HashMap<>();
+        payload.put("text", text);
+        return run(payload, checkParaphrasing, scoreMatches, webSearch);
+    }
+
+    /**
+     * Same as {@link #analyze}, but the worker reads the text from a UTF-8 file
+     * instead of receiving it over the pipe.
+     */
+    public AnalyzerResult analyzeDocument(Path document, boolean checkParaphrasing, boolean scoreMatches, boolean webSearch)
+            throws IOException, InterruptedException, TimeoutException {
+        Map<String, Object> payload = new HashMap<>();
+        payload.put("path", document.toAbsolutePath().toString());
+        return run(payload, checkParaphrasing, scoreMatches, webSearch);
+    }
+
+    /**
+     * Same as {@link #analyzeDocument(Path, boolean, boolean, boolean)} for the
+     * {@code length} UTF-8 bytes of the file starting at {@code offset}, which must lie
+     * on character boundaries.
+     */
+    public AnalyzerResult analyzeDocument(Path document, long offset, long length, boolean checkParaphrasing,
+                                          boolean scoreMatches, boolean webSearch)
+            throws IOException, InterruptedException, TimeoutException {
+        Map<String, Object> payload = new HashMap<>();
+        payload.put("path", document.toAbsolutePath().toString());
+        payload.put("offset", offset);
+        payload.put("length", length);
+        return run(payload, checkParaphrasing, scoreMatches, webSearch);
+    }
+
+    private AnalyzerResult run(Map<String, Object> payload, boolean checkParaphrasing, boolean scoreMatches, boolean webSearch)
+            throws IOException, InterruptedException, TimeoutException {
+        payload.put("paraphrasing", checkParaphrasing);
+        payload.put("scoring", scoreMatches);
+        payload.put("search", webSearch);
+
+        long borrowStart = System.nanoTime();
+        PythonWorker worker = borrow();
+        analysisMetrics.recordStage(AnalysisMetrics.STAGE_PYTHON_BORROW, borrowStart);
+        boolean healthy = false;
+        try {
+            AnalyzerResult result = worker.send(payload, requestTimeoutMs);
+            healthy = true;
+            return result;
+        } finally {
+            if (healthy) {
+                release(worker);
+            } else {
+                discard(worker);
+            }
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("totalWorkers", totalWorkers.get());
+        stats.put("idleWorkers", idleWorkers.size());
+        stats.put("waitingBorrowers", waitingBorrowers.get());
+        stats.put("restartedWorkers", restartedWorkers.get());
+        stats.put("minSize", minSize);
+        stats.put("maxSize", maxSize);
+        return stats;
+    }
+
+    /**
+     * Health-checks idle workers, retires workers that sat idle beyond the idle
+     * timeout while the pool is above its minimum, and pre-spawns workers while
+     * callers are queued. Workers are taken out of the pool one at a time and put back
+     * as soon as they pass, so borrowers only ever miss the one being pinged.
+     */
+    @Scheduled(fixedDelayString = "${ai.service.python.pool.health-check-interval-ms:30000}")
+    public void maintain() {
+        if (shuttingDown) {
+            return;
+        }
+
+        for (PythonWorker worker : new ArrayList<>(idleWorkers)) {
+            if (shuttingDown || !idleWorkers.remove(worker)) {
+                // Borrowed since the snapshot
+                continue;
+            }
+            if (!worker.isAlive()) {
+                System.err.println("Python worker " + worker.pid() + " died, restarting");
+                restartedWorkers.incrementAndGet();
+                discard(worker);
+            } else if (worker.idleMillis() > idleTimeoutMs && totalWorkers.get() > minSize) {
+                System.out.println("Retiring idle Python worker " + worker.pid());
+                discard(worker);
+            } else if (!worker.ping(pingTimeoutMs)) {
+                System.err.println("Python worker " + worker.pid() + " failed health check, restarting");
+                restartedWorkers.incrementAndGet();
+                discard(worker);
+            } else {
+                idleWorkers.offerLast(worker);
+            }
+        }
+
+        ensureMinimumWorkers();
+
+        int backlog = waitingBorrowers.get();
+        while (backlog-- > 0 && reserveSlot()) {
+            spawnIntoPool();
+        }
+    }
+
+    private PythonWorker borrow() throws IOException, InterruptedException, TimeoutException {
+        PythonWorker worker = pollLiveWorker();
+        if (worker != null) {
+            return worker;
+        }
+
+        // Grow the pool while there is headroom instead of queueing behind busy workers
+        if (reserveSlot()) {
+            try {
+                return spawn();
+            } catch (IOException e) {
+                totalWorkers.decrementAndGet();
+                throw e;
+            }
+        }
+
+        waitingBorrowers.incrementAndGet();
+        try {
+            long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(borrowTimeoutMs);
+            while (true) {
+                long remaining = deadline - System.nanoTime();
+                if (remaining <= 0) {
+                    throw new TimeoutException("No Python worker available within " + borrowTimeoutMs + " ms");
+                }
+                worker = idleWorkers.pollFirst(remaining, TimeUnit.NANOSECONDS);
+                if (worker == null) {
+                    continue;
+                }
+                if (worker.isAlive()) {
+                    return worker;
+                }
+                restartedWorkers.incrementAndGet();
+                discard(worker);
+                if (reserveSlot()) {
+                    try {
+                        return spawn();
+                    } catch (IOException e) {
+                        totalWorkers.decrementAndGet();
+                        throw e;
+                    }
+                }
+            }
+        } finally {
+            waitingBorrowers.decrementAndGet();
+        }
+    }
+
+    private PythonWorker pollLiveWorker() {
+        PythonWorker worker;
+        while ((worker = idleWorkers.pollFirst()) != null) {
+            if (worker.isAlive()) {
+                return worker;
+            }
+            restartedWorkers.incrementAndGet();
+            discard(worker);
+        }
+        return null;
+    }
+
+    private void release(PythonWorker worker) {
+        if (shuttingDown) {
+            discard(worker);
+            return;
+        }
+        worker.touch();
+        // Most recently used workers go to the front so cold ones age out at the back
+        idleWorkers.offerFirst(worker);
+    }
+
+    private void discard(PythonWorker worker) {
+        if (worker.destroy()) {
+            totalWorkers.decrementAndGet();
+        }
+    }
+
+    private boolean reserveSlot() {
+        while (true) {
+            int current = totalWorkers.get();
+            if (current >= maxSize) {
+                return false;
+            }
+            if (totalWorkers.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    private void ensureMinimumWorkers() {
+        while (!shuttingDown && totalWorkers.get() < minSize && reserveSlot()) {
+            if (!spawnIntoPool()) {
+                return;
+            }
+        }
+    }
+
+    private boolean spawnIntoPool() {
+        try {
+            idleWorkers.offerLast(spawn());
+            return true;
+        } catch (IOException e) {
+            totalWorkers.decrementAndGet();
+            System.err.println("Failed to start Python worker: " + e.getMessage());
+            return false;
+        }
+    }
+
+    private PythonWorker spawn() throws IOException {
+        long start = System.nanoTime();
+        ProcessBuilder processBuilder = new ProcessBuilder(pythonCommand, pythonScriptPath, "--worker");
+        // stdout carries the protocol, so diagnostics must not be merged into it
+        processBuilder.redirectError(ProcessBuilder.Redirect.INHERIT);
+        PythonWorker worker = new PythonWorker(processBuilder.start());
+        analysisMetrics.recordStage(AnalysisMetrics.STAGE_PYTHON_SPAWN, start);
+        return worker;
+    }
+
+    private class PythonWorker {
+
+        private final Process process;
+        private final BufferedOutputStream stdin;
+        private final InputStream stdout;
+        private final AtomicBoolean destroyed = new AtomicBoolean();
+        private volatile long lastUsed = System.currentTimeMillis();
+
+        PythonWorker(Process process) {
+            this.process = process;
+            this.stdin = new BufferedOutputStream(process.getOutputStream());
+            this.stdout = process.getInputStream();
+        }
+
+        AnalyzerResult send(Map<String, Object> payload, long timeoutMs) throws IOException, TimeoutException {
+            long requestId = requestIds.incrementAndGet();
+            Map<String, Object> request = new HashMap<>(payload);
+            request.put("id", requestId);
+
+            AtomicBoolean timedOut = new AtomicBoolean();
+            ScheduledFuture<?> timer = watchdog.schedule(() -> {
+                timedOut.set(true);
+                process.destroyForcibly();
+            }, timeoutMs, TimeUnit.MILLISECONDS);
+
+            AnalyzerResult response;
+            try {
+                requestWriter.writeValue(stdin, request);
+                stdin.write('\n');
+                stdin.flush();
+                response = readReply();
+            } catch (IOException e) {
+                if (timedOut.get()) {
+                    throw new TimeoutException("Python worker did not respond within " + timeoutMs + " ms");
+                }
+                throw e;
+            } finally {
+                timer.cancel(false);
+            }
+
+            if (response == null) {
+                if (timedOut.get()) {
+                    throw new TimeoutException("Python worker did not respond within " + timeoutMs + " ms");
+                }
+                throw new IOException("Python worker exited unexpectedly");
+            }
+
+            if (response.getId() == null || response.getId() != requestId) {
+                throw new IOException("Python worker answered request " + response.getId() + " instead of " + requestId);
+            }
+            return response;
+        }
+
+        /**
+         * Parses the next reply off stdout, or returns null at end of stream. Malformed JSON
+         * or a reply over the size limit fails at the offending byte; the caller then
+         * discards the worker, since its stream is no longer at a reply boundary.
+         */
+        private AnalyzerResult readReply() throws IOException {
+            try (JsonParser parser = objectMapper.createParser(new LimitedInputStream(stdout, maxReplyBytes))) {
+                if (parser.nextToken() == null) {
+                    return null;
+                }
+                return resultReader.readValue(parser);
+            }
+        }
+
+        boolean ping(long timeoutMs) {
+            try {
+                AnalyzerResult response = send(Map.of("op", "ping"), timeoutMs);
+                return Boolean.TRUE.equals(response.getOk());
+            } catch (Exception e) {
+                return false;
+            }
+        }
+
+        boolean isAlive() {
+            return !destroyed.get() && process.isAlive();
+        }
+
+        long idleMillis() {
+            return System.currentTimeMillis() - lastUsed;
+        }
+
+        void touch() {
+            lastUsed = System.currentTimeMillis();
+        }
+
+        long pid() {
+            return process.pid();
+        }
+
+        /**
+         * @return true the first time the worker is destroyed, so it is only counted out once
+         */
+        boolean destroy() {
+            if (!destroyed.compareAndSet(false, true)) {
+                return false;
+            }
+            try {
+                stdin.close();
+            } catch (IOException ignored) {
+                // the process is being torn down anyway
+            }
+            process.destroy();
+            try {
+                if (!process.waitFor(2, TimeUnit.SECONDS)) {
+                    process.destroyForcibly();
+                }
+            } catch (InterruptedException e) {
+                process.destroyForcibly();
+                Thread.currentThread().interrupt();
+            }
+            return true;
+        }
+    }
+}
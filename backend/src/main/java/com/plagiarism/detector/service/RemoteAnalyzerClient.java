@@ -0,0 +1,316 @@
+package com.plagiarism.detector.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.plagiarism.detector.model.AnalyzerResult;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.retry.RetryContext;
+import org.springframework.retry.RetryState;
+import org.springframework.retry.policy.CircuitBreakerRetryPolicy;
+import org.springframework.retry.policy.MapRetryContextCache;
+import org.springframework.retry.policy.SimpleRetryPolicy;
+import org.springframework.retry.support.DefaultRetryState;
+import org.springframework.retry.support.RetryTemplate;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Client for analyzers running {@code ai_similarity.py --serve} at {@code ai.service.url}
+ * (primary) and {@code ai.backup.service.url} (backup).
+ * <p>
+ * Each endpoint sits behind a circuit breaker: after {@code failure-threshold} failures
+ * within {@code open-timeout-ms} it is skipped for {@code reset-timeout-ms}. A failed or
+ * short-circuited primary call fails over to the backup. Once the primary has enough
+ * latency samples, a call still running after the primary's {@code hedge.percentile}
+ * latency is hedged with a second request to the backup and the first success wins.
+ */
+@Component
+public class RemoteAnalyzerClient {
+
+    private static final String PRIMARY = "primary";
+    private static final String BACKUP = "backup";
+
+    @Value("${ai.service.remote.enabled:false}")
+    private boolean enabled;
+
+    @Value("${ai.service.url:http://localhost:5000}")
+    private String primaryUrl;
+
+    @Value("${ai.backup.service.url:http://localhost:5001}")
+    private String backupUrl;
+
+    @Value("${ai.service.remote.request-timeout-ms:30000}")
+    private long requestTimeoutMs;
+
+    @Value("${ai.service.remote.hedge.enabled:true}")
+    private boolean hedgingEnabled;
+
+    @Value("${ai.service.remote.hedge.min-samples:20}")
+    private long hedgeMinSamples;
+
+    @Value("${ai.service.remote.hedge.min-delay-ms:50}")
+    private long hedgeMinDelayMs;
+
+    @Value("${ai.service.max-reply-bytes:67108864}")
+    private long maxReplyBytes;
+
+    private final ObjectMapper objectMapper;
+    private final ObjectReader resultReader;
+    private final ExecutorService httpExecutor = Executors.newVirtualThreadPerTaskExecutor();
+    private final HttpClient httpClient;
+    private final MapRetryContextCache breakerStates = new MapRetryContextCache();
+    private final RetryTemplate breaker = new RetryTemplate();
+    private final RetryState primaryState = new DefaultRetryState(PRIMARY);
+    private final RetryState backupState = new DefaultRetryState(BACKUP);
+    private final AtomicInteger inFlightHedges = new AtomicInteger();
+    private final Timer primaryLatency;
+    private final Timer backupLatency;
+    private final Counter failovers;
+    private final Counter hedgesWonByPrimary;
+    private final Counter hedgesWonByBackup;
+
+    public RemoteAnalyzerClient(
+            ObjectMapper objectMapper,
+            MeterRegistry registry,
+            @Value("${ai.service.remote.breaker.failure-threshold:5}") int failureThreshold,
+            @Value("${ai.service.remote.breaker.open-timeout-ms:10000}") long openTimeoutMs,
+            @Value("${ai.service.remote.breaker.reset-timeout-ms:30000}") long resetTimeoutMs,
+            @Value("${ai.service.remote.hedge.percentile:0.95}") double hedgePercentile) {
+        this.objectMapper = objectMapper;
+        this.resultReader = objectMapper.readerFor(AnalyzerResult.class);
+        this.httpClient = HttpClient.newBuilder()
+            .executor(httpExecutor)
+            .connectTimeout(Duration.ofSeconds(2))
+            .build();
+
+        CircuitBreakerRetryPolicy policy = new CircuitBreakerRetryPolicy(new SimpleRetryPolicy(failureThreshold));
+        policy.setOpenTimeout(openTimeoutMs);
+        policy.setResetTimeout(resetTimeoutMs);
+        breaker.setRetryPolicy(policy);
+        breaker.setRetryContextCache(breakerStates);
+
+        this.primaryLatency = latencyTimer(registry, PRIMARY, hedgePercentile);
+        this.backupLatency = latencyTimer(registry, BACKUP, hedgePercentile);
+        this.failovers = Counter.builder("analysis.remote.failovers")
+            .description("Primary analyzer calls that failed or were short-circuited and went to the backup")
+            .register(registry);
+        this.hedgesWonByPrimary = hedges(registry, PRIMARY);
+        this.hedgesWonByBackup = hedges(registry, BACKUP);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        httpExecutor.shutdownNow();
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Same contract as {@link PythonWorkerPool#analyze}, served by the remote analyzers.
+     *
+     * @throws IOException when neither endpoint produced a result
+     */
+    public AnalyzerResult analyze(String text, boolean checkParaphrasing, boolean scoreMatches, boolean webSearch)
+            throws IOException, InterruptedException, TimeoutException {
+        Map<String, Object> payload = new HashMap<>();
+        payload.put("text", text);
+        payload.put("paraphrasing", checkParaphrasing);
+        payload.put("scoring", scoreMatches);
+        payload.put("search", webSearch);
+        byte[] body = objectMapper.writeValueAsBytes(payload);
+
+        long hedgeDelayMs = hedgeDelayMs();
+        if (hedgeDelayMs < 0) {
+            try {
+                return callPrimary(body);
+            } catch (IOException e) {
+                return failOver(body, e);
+            }
+        }
+
+        CompletableFuture<AnalyzerResult> primary = callAsync(PRIMARY, body);
+        try {
+            return primary.get(hedgeDelayMs, TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            return failOver(body, e.getCause());
+        } catch (TimeoutException e) {
+            // Slower than the primary's usual tail: ask the backup as well
+        }
+
+        CompletableFuture<AnalyzerResult> backup = callAsync(BACKUP, body);
+        inFlightHedges.incrementAndGet();
+        try {
+            return firstSuccessful(primary, backup).get(requestTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            throw new IOException("Primary and backup analyzers failed: " + e.getCause().getMessage(), e.getCause());
+        } finally {
+            inFlightHedges.decrementAndGet();
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", enabled);
+        stats.put("primaryUrl", primaryUrl);
+        stats.put("backupUrl", backupUrl);
+        stats.put("primaryCircuitOpen", isCircuitOpen(primaryState));
+        stats.put("backupCircuitOpen", isCircuitOpen(backupState));
+        stats.put("hedgeDelayMs", hedgeDelayMs());
+        stats.put("inFlightHedges", inFlightHedges.get());
+        stats.put("failovers", (long) failovers.count());
+        stats.put("hedgesWonByPrimary", (long) hedgesWonByPrimary.count());
+        stats.put("hedgesWonByBackup", (long) hedgesWonByBackup.count());
+        return stats;
+    }
+
+    private AnalyzerResult failOver(byte[] body, Throwable primaryFailure) throws IOException {
+        failovers.increment();
+        System.err.println("Primary analyzer unavailable, using backup: " + primaryFailure);
+        try {
+            return callBackup(body);
+        } catch (IOException e) {
+            e.addSuppressed(primaryFailure);
+            throw e;
+        }
+    }
+
+    private AnalyzerResult callPrimary(byte[] body) throws IOException {
+        return breaker.execute(context -> post(primaryUrl, body, primaryLatency),
+            context -> { throw circuitOpen(PRIMARY); }, primaryState);
+    }
+
+    private AnalyzerResult callBackup(byte[] body) throws IOException {
+        return breaker.execute(context -> post(backupUrl, body, backupLatency),
+            context -> { throw circuitOpen(BACKUP); }, backupState);
+    }
+
+    private CompletableFuture<AnalyzerResult> callAsync(String endpoint, byte[] body) {
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                return PRIMARY.equals(endpoint) ? callPrimary(body) : callBackup(body);
+            } catch (IOException e) {
+                throw new CompletionException(e);
+            }
+        }, httpExecutor);
+    }
+
+    /**
+     * Completes with whichever call succeeds first, or fails once both have failed.
+     * The slower call is left to finish so its latency and outcome still reach the breaker.
+     */
+    private CompletableFuture<AnalyzerResult> firstSuccessful(CompletableFuture<AnalyzerResult> primary,
+                                                                   CompletableFuture<AnalyzerResult> backup) {
+        CompletableFuture<AnalyzerResult> winner = new CompletableFuture<>();
+        AtomicInteger failures = new AtomicInteger();
+        primary.whenComplete((result, error) -> {
+            if (error == null) {
+                if (winner.complete(result)) {
+                    hedgesWonByPrimary.increment();
+                }
+            } else if (failures.incrementAndGet() == 2) {
+                winner.completeExceptionally(error);
+            }
+        });
+        backup.whenComplete((result, error) -> {
+            if (error == null) {
+                if (winner.complete(result)) {
+                    hedgesWonByBackup.increment();
+                }
+            } else if (failures.incrementAndGet() == 2) {
+                winner.completeExceptionally(error);
+            }
+        });
+        return winner;
+    }
+
+    private AnalyzerResult post(String baseUrl, byte[] body, Timer latency) throws IOException {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + "/analyze"))
+            .timeout(Duration.ofMillis(requestTimeoutMs))
+            .header("Content-Type", "application/json")
+            .header("Accept", "application/json")
+            .POST(HttpRequest.BodyPublishers.ofByteArray(body))
+            .build();
+
+        long start = System.nanoTime();
+        HttpResponse<InputStream> response;
+        try {
+            response = httpClient.send(request, HttpResponse.BodyHandlers.ofInputStream());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted calling " + baseUrl, e);
+        }
+        // Decoded while the body streams in; oversized or malformed replies fail part-way
+        try (InputStream in = response.body()) {
+            if (response.statusCode() != 200) {
+                throw new IOException("Analyzer at " + baseUrl + " returned HTTP " + response.statusCode());
+            }
+            AnalyzerResult result = resultReader.readValue(new LimitedInputStream(in, maxReplyBytes));
+            latency.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            return result;
+        }
+    }
+
+    /**
+     * The primary's latency at the hedge percentile, or -1 while hedging is off or the
+     * primary has too few samples to trust the estimate.
+     */
+    private long hedgeDelayMs() {
+        if (!hedgingEnabled || primaryLatency.count() < hedgeMinSamples) {
+            return -1;
+        }
+        ValueAtPercentile[] percentiles = primaryLatency.takeSnapshot().percentileValues();
+        if (percentiles.length == 0) {
+            return -1;
+        }
+        return Math.max(hedgeMinDelayMs, (long) percentiles[0].value(TimeUnit.MILLISECONDS));
+    }
+
+    private boolean isCircuitOpen(RetryState state) {
+        RetryContext context = breakerStates.get(state.getKey());
+        return context != null && Boolean.TRUE.equals(context.getAttribute(CircuitBreakerRetryPolicy.CIRCUIT_OPEN));
+    }
+
+    private static IOException circuitOpen(String endpoint) {
+        return new IOException("Circuit open for the " + endpoint + " analyzer");
+    }
+
+    private static Timer latencyTimer(MeterRegistry registry, String endpoint, double percentile) {
+        return Timer.builder("analysis.remote.latency")
+            .tag("endpoint", endpoint)
+            .description("Successful remote analyzer calls")
+            .publishPercentiles(percentile)
+            .register(registry);
+    }
+
+    private static Counter hedges(MeterRegistry registry, String winner) {
+        return Counter.builder("analysis.remote.hedges")
+            .tag("winner", winner)
+            .description("Hedged analyzer calls by the endpoint that answered first")
+            .register(registry);
+    }
+}
@@ -0,0 +1,327 @@
+package com.plagiarism.detector.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.sql.Clob;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Removes search_history rows older than {@code history.retention.max-age-days}, with their
+ * similarity_sources and (by cascade) search_history_terms rows.
+ * <p>
+ * Work is split into batches of {@code batch-size} rows, each deleted by primary key in its
+ * own short transaction and followed by a {@code batch-pause-ms} pause, so no statement
+ * holds locks for long or competes with analyses for more than a moment. With archiving on,
+ * each batch is first appended, one JSON object per row with its sources nested, to a
+ * gzip-compressed NDJSON file under {@code archive-dir} and synced to disk before the rows
+ * are deleted. A batch that fails after being archived is archived again on the next run,
+ * so readers of the archive should keep the last line per id.
+ * <p>
+ * Each batch's rows are subtracted from their owners' user_statistics rollups in the
+ * transaction that deletes them. Stored texts the batch referred to are deleted afterwards
+ * unless other rows still share them.
+ */
+@Service
+public class SearchHistoryRetentionService {
+
+    private static final DateTimeFormatter ARCHIVE_NAME = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss");
+
+    @Value("${history.retention.enabled:false}")
+    private boolean enabled;
+
+    @Value("${history.retention.max-age-days:365}")
+    private int maxAgeDays;
+
+    @Value("${history.retention.batch-size:200}")
+    private int batchSize;
+
+    @Value("${history.retention.batch-pause-ms:200}")
+    private long batchPauseMs;
+
+    @Value("${history.retention.max-rows-per-run:100000}")
+    private long maxRowsPerRun;
+
+    @Value("${history.retention.archive:true}")
+    private boolean archive;
+
+    @Value("${history.retention.archive-dir:archive}")
+    private String archiveDir;
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final TextBlobStore textBlobStore;
+    private final UserStatisticsService userStatisticsService;
+
+    private final AtomicBoolean running = new AtomicBoolean();
+    private final Counter archivedRows;
+    private final Counter deletedRows;
+    private final Counter deletedSources;
+    private final Counter deletedBlobs;
+    private final Timer batchTimer;
+
+    private volatile LocalDateTime lastRunStartedAt;
+    private volatile LocalDateTime lastRunFinishedAt;
+    private volatile long lastRunRows;
+    private volatile boolean lastRunArchived;
+    private volatile boolean lastRunFailed;
+
+    public SearchHistoryRetentionService(
+            NamedParameterJdbcTemplate jdbcTemplate,
+            TransactionTemplate transactionTemplate,
+            ObjectMapper objectMapper,
+            TextBlobStore textBlobStore,
+            UserStatisticsService userStatisticsService,
+            MeterRegistry registry) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.objectMapper = objectMapper;
+        this.textBlobStore = textBlobStore;
+        this.userStatisticsService = userStatisticsService;
+        this.archivedRows = Counter.builder("history.retention.rows").tag("action", "archived")
+            .description("Expired search history rows written to an archive").register(registry);
+        this.deletedRows = Counter.builder("history.retention.rows").tag("action", "deleted")
+            .description("Expired search history rows deleted").register(registry);
+        this.deletedSources = Counter.builder("history.retention.sources.deleted")
+            .description("Similarity sources deleted with expired search history rows").register(registry);
+        this.deletedBlobs = Counter.builder("history.retention.blobs.deleted")
+            .description("Stored texts no longer referenced after expired rows were deleted").register(registry);
+        this.batchTimer = Timer.builder("history.retention.batch")
+            .description("Time to archive and delete one batch of expired rows").register(registry);
+        Gauge.builder("history.retention.running", running, flag -> flag.get() ? 1 : 0)
+            .description("Whether a retention run is in progress").register(registry);
+    }
+
+    @Scheduled(initialDelayString = "${history.retention.initial-delay-ms:300000}",
+               fixedDelayString = "${history.retention.interval-ms:3600000}")
+    public void run() {
+        if (!enabled) {
+            return;
+        }
+        purgeOlderThan(maxAgeDays);
+    }
+
+    /**
+     * Archives (if enabled) and deletes rows created more than {@code daysToKeep} days ago,
+     * up to {@code max-rows-per-run}. Returns the number of rows deleted, or 0 if another run
+     * is already in progress.
+     */
+    public long purgeOlderThan(int daysToKeep) {
+        if (daysToKeep < 1) {
+            throw new IllegalArgumentException("daysToKeep must be at least 1");
+        }
+        if (!running.compareAndSet(false, true)) {
+            return 0;
+        }
+
+        LocalDateTime startedAt = LocalDateTime.now();
+        LocalDateTime cutoff = startedAt.minusDays(daysToKeep);
+        lastRunStartedAt = startedAt;
+        lastRunRows = 0;
+        lastRunArchived = false;
+        lastRunFailed = false;
+
+        Path archiveFile = archive ? archivePath(startedAt) : null;
+        FileOutputStream file = null;
+        OutputStream out = null;
+        try {
+            while (lastRunRows < maxRowsPerRun) {
+                int limit = (int) Math.min(batchSize, maxRowsPerRun - lastRunRows);
+                List<long[]> expired = jdbcTemplate.query(
+                    "SELECT id, user_id FROM search_history WHERE created_at < :cutoff ORDER BY created_at, id LIMIT :limit",
+                    new MapSqlParameterSource().addValue("cutoff", Timestamp.valueOf(cutoff)).addValue("limit", limit),
+                    (rs, rowNum) -> new long[] { rs.getLong("id"), rs.getLong("user_id") });
+                if (expired.isEmpty()) {
+                    break;
+                }
+
+                long batchStart = System.nanoTime();
+                List<Long> ids = new ArrayList<>();
+                Set<Long> userIds = new LinkedHashSet<>();
+                for (long[] row : expired) {
+                    ids.add(row[0]);
+                    userIds.add(row[1]);
+                }
+
+                if (archiveFile != null) {
+                    if (out == null) {
+                        Files.createDirectories(archiveFile.getParent());
+                        file = new FileOutputStream(archiveFile.toFile(), true);
+                        out = new GZIPOutputStream(file, 64 * 1024, true);
+                        lastRunArchived = true;
+                        System.out.println("Archiving expired search history to " + archiveFile);
+                    }
+                    writeArchive(out, ids);
+                    out.flush();
+                    file.getFD().sync();
+                    archivedRows.increment(ids.size());
+                }
+
+                List<String> blobs = jdbcTemplate.queryForList(
+                    "SELECT query_blob FROM search_history WHERE id IN (:ids) AND query_blob IS NOT NULL " +
+                    "UNION SELECT matched_text_blob FROM similarity_sources " +
+                    "WHERE search_history_id IN (:ids) AND matched_text_blob IS NOT NULL",
+                    new MapSqlParameterSource("ids", ids), String.class);
+                Integer sources = transactionTemplate.execute(status -> delete(ids, userIds));
+                deletedSources.increment(sources != null ? sources : 0);
+                deletedRows.increment(ids.size());
+                deletedBlobs.increment(textBlobStore.deleteUnreferenced(blobs));
+                lastRunRows += ids.size();
+                batchTimer.record(System.nanoTime() - batchStart, TimeUnit.NANOSECONDS);
+
+                if (expired.size() < limit) {
+                    break;
+                }
+                if (batchPauseMs > 0) {
+                    Thread.sleep(batchPauseMs);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            lastRunFailed = true;
+            System.err.println("Search history retention failed: " + e.getMessage());
+        } finally {
+            if (out != null) {
+                try {
+                    out.close();
+                } catch (IOException e) {
+                    System.err.println("Failed to close history archive " + archiveFile + ": " + e.getMessage());
+                }
+            }
+            lastRunFinishedAt = LocalDateTime.now();
+            running.set(false);
+        }
+
+        if (lastRunRows > 0) {
+            System.out.println("Search history retention removed " + lastRunRows + " rows older than " + cutoff
+                + (out != null ? ", archived to " + archiveFile : ""));
+        }
+        return lastRunRows;
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("enabled", enabled);
+        stats.put("maxAgeDays", maxAgeDays);
+        stats.put("archive", archive);
+        stats.put("running", running.get());
+        stats.put("lastRunStartedAt", lastRunStartedAt);
+        stats.put("lastRunFinishedAt", lastRunFinishedAt);
+        stats.put("lastRunRows", lastRunRows);
+        // Served unauthenticated: the archive path and the failure message stay in the log
+        stats.put("lastRunArchived", lastRunArchived);
+        stats.put("lastRunFailed", lastRunFailed);
+        stats.put("totalArchived", (long) archivedRows.count());
+        stats.put("totalDeleted", (long) deletedRows.count());
+        stats.put("totalBlobsDeleted", (long) deletedBlobs.count());
+        return stats;
+    }
+
+    private int delete(List<Long> ids, Set<Long> userIds) {
+        userStatisticsService.recordDeleted(userIds, ids);
+        MapSqlParameterSource params = new MapSqlParameterSource("ids", ids);
+        int sources = jdbcTemplate.update("DELETE FROM similarity_sources WHERE search_history_id IN (:ids)", params);
+        jdbcTemplate.update("DELETE FROM search_history WHERE id IN (:ids)", params);
+        return sources;
+    }
+
+    private void writeArchive(OutputStream out, List<Long> ids) throws IOException, SQLException {
+        MapSqlParameterSource params = new MapSqlParameterSource("ids", ids);
+        List<Map<String, Object>> histories = new ArrayList<>();
+        for (Map<String, Object> row : jdbcTemplate.queryForList(
+                "SELECT * FROM search_history WHERE id IN (:ids) ORDER BY id", params)) {
+            histories.add(archivable(row));
+        }
+        List<Map<String, Object>> sourceRows = new ArrayList<>();
+        for (Map<String, Object> row : jdbcTemplate.queryForList(
+                "SELECT * FROM similarity_sources WHERE search_history_id IN (:ids) ORDER BY id", params)) {
+            sourceRows.add(archivable(row));
+        }
+
+        // Archives carry the texts themselves rather than keys into text_blobs
+        List<Object> blobs = new ArrayList<>();
+        histories.forEach(history -> blobs.add(history.get("query_blob")));
+        sourceRows.forEach(source -> blobs.add(source.get("matched_text_blob")));
+        Map<String, String> texts = textBlobStore.getAll(blobs.stream().map(blob -> (String) blob).toList());
+
+        Map<Object, Map<String, Object>> rows = new LinkedHashMap<>();
+        for (Map<String, Object> history : histories) {
+            inlineText(history, "query_blob", "search_query", texts);
+            history.put("sources", new ArrayList<Map<String, Object>>());
+            rows.put(((Number) history.get("id")).longValue(), history);
+        }
+        for (Map<String, Object> source : sourceRows) {
+            inlineText(source, "matched_text_blob", "matched_text", texts);
+            Map<String, Object> history = rows.get(((Number) source.remove("search_history_id")).longValue());
+            if (history != null) {
+                @SuppressWarnings("unchecked")
+                List<Map<String, Object>> sources = (List<Map<String, Object>>) history.get("sources");
+                sources.add(source);
+            }
+        }
+        for (Map<String, Object> history : rows.values()) {
+            out.write(objectMapper.writeValueAsBytes(history));
+            out.write('\n');
+        }
+    }
+
+    private static void inlineText(Map<String, Object> row, String blobColumn, String textColumn,
+                                   Map<String, String> texts) {
+        Object blob = row.remove(blobColumn);
+        if (blob != null) {
+            row.put(textColumn, texts.get((String) blob));
+        }
+    }
+
+    /**
+     * Lower-cased column names, with timestamps and CLOBs turned into values Jackson writes
+     * as ISO strings and text.
+     */
+    private static Map<String, Object> archivable(Map<String, Object> row) throws SQLException {
+        Map<String, Object> values = new LinkedHashMap<>();
+        for (Map.Entry<String, Object> column : row.entrySet()) {
+            Object value = column.getValue();
+            if (value instanceof Timestamp timestamp) {
+                value = timestamp.toLocalDateTime();
+            } else if (value instanceof Clob clob) {
+                value = clob.getSubString(1, (int) clob.length());
+            }
+            values.put(column.getKey().toLowerCase(), value);
+        }
+        return values;
+    }
+
+    private Path archivePath(LocalDateTime startedAt) {
+        return Paths.get(archiveDir).resolve("search-history-" + ARCHIVE_NAME.format(startedAt) + ".ndjson.gz");
+    }
+}
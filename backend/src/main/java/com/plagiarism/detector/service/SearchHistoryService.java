@@ -1,5 +1,7 @@
 package com.plagiarism.detector.service;
 
+import com.plagiarism.detector.model.CommonQuery;
+import com.plagiarism.detector.model.HistoryEntry;
 import com.plagiarism.detector.model.SearchHistory;
 import com.plagiarism.detector.model.SimilaritySource;
 import com.plagiarism.detector.model.User;
@@ -7,32 +9,90 @@ import com.plagiarism.detector.repository.SearchHistoryRepository;
 import com.plagiarism.detector.repository.SimilaritySourceRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
+import java.util.Base64;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 
 @Service
 public class SearchHistoryService {
     
+    private static final int DEFAULT_COMMON_QUERIES = 10;
+    
     private final SearchHistoryRepository searchHistoryRepository;
     private final SimilaritySourceRepository similaritySourceRepository;
+    private final UserStatisticsService userStatisticsService;
+    private final SearchHistoryRetentionService searchHistoryRetentionService;
+    private final TextBlobStore textBlobStore;
     
     @Autowired
     public SearchHistoryService(
             SearchHistoryRepository searchHistoryRepository,
-            SimilaritySourceRepository similaritySourceRepository) {
+            SimilaritySourceRepository similaritySourceRepository,
+            UserStatisticsService userStatisticsService,
+            SearchHistoryRetentionService searchHistoryRetentionService,
+            TextBlobStore textBlobStore) {
         this.searchHistoryRepository = searchHistoryRepository;
         this.similaritySourceRepository = similaritySourceRepository;
+        this.userStatisticsService = userStatisticsService;
+        this.searchHistoryRetentionService = searchHistoryRetentionService;
+        this.textBlobStore = textBlobStore;
     }
     
     public Page<SearchHistory> getUserSearchHistory(User user, Pageable pageable) {
         return searchHistoryRepository.findByUserOrderByCreatedAtDesc(user, pageable);
     }
     
+    /**
+     * One page of the user's history, newest first, as slim entries. Pages are addressed by
+     * the opaque {@code cursor} returned as {@code nextCursor} with the previous page, so each
+     * one is a range read of the (user_id, created_at, id) index however deep it is.
+     * {@code totalElements} is only included on request and comes from the statistics rollup,
+     * so it counts finished searches and skips any still pending.
+     */
+    public Map<String, Object> getHistoryPage(User user, String cursor, int size, boolean includeTotal) {
+        // One extra row tells whether another page follows
+        Pageable limit = PageRequest.of(0, size + 1);
+        List<HistoryEntry> entries;
+        if (cursor == null || cursor.isEmpty()) {
+            entries = searchHistoryRepository.findHistoryEntries(user.getId(), limit);
+        } else {
+            HistoryCursor position = HistoryCursor.decode(cursor);
+            entries = searchHistoryRepository.findHistoryEntriesBefore(
+                user.getId(), position.createdAt, position.id, limit);
+        }
+        
+        boolean hasMore = entries.size() > size;
+        if (hasMore) {
+            entries = entries.subList(0, size);
+        }
+        
+        Map<String, Object> page = new HashMap<>();
+        page.put("content", entries);
+        page.put("size", size);
+        page.put("hasMore", hasMore);
+        page.put("nextCursor", hasMore ? HistoryCursor.encode(entries.get(entries.size() - 1)) : null);
+        if (includeTotal) {
+            page.put("totalElements", userStatisticsService.getTotalSearches(user));
+        }
+        return page;
+    }
+    
+    /**
+     * The full submitted text of one of the user's searches, if it is theirs.
+     */
+    public Optional<String> getSearchText(User user, Long id) {
+        return searchHistoryRepository.findByIdAndUserId(id, user.getId())
+            .map(searchHistory -> textBlobStore.text(searchHistory.getQueryBlob(), searchHistory.getSearchQuery()));
+    }
+    
     public List<SearchHistory> getRecentSearches(User user, int limit) {
         return searchHistoryRepository.findTop10ByUserOrderByCreatedAtDesc(user);
     }
@@ -50,48 +110,34 @@ public class SearchHistoryService {
     }
     
     public List<SimilaritySource> getSearchSources(SearchHistory searchHistory) {
-        return similaritySourceRepository.findBySearchHistoryOrderBySimilarityPercentageDesc(searchHistory);
+        return textBlobStore.resolveMatchedText(
+            similaritySourceRepository.findBySearchHistoryOrderBySimilarityPercentageDesc(searchHistory));
     }
     
     public Map<String, Object> getUserStatistics(User user) {
-        Map<String, Object> statistics = new HashMap<>();
-        
-        // Total searches
-        long totalSearches = searchHistoryRepository.countByUser(user);
-        statistics.put("totalSearches", totalSearches);
-        
-        // Average similarity score
-        Double avgSimilarity = searchHistoryRepository.findAverageSimilarityScoreByUser(user);
-        statistics.put("averageSimilarity", avgSimilarity != null ? avgSimilarity : 0.0);
-        
-        // Recent searches (last 7 days)
-        LocalDateTime weekAgo = LocalDateTime.now().minusDays(7);
-        List<SearchHistory> recentSearches = searchHistoryRepository
-            .findByUserAndCreatedAtBetweenOrderByCreatedAtDesc(user, weekAgo, LocalDateTime.now());
-        statistics.put("recentSearches", recentSearches.size());
-        
-        // High similarity searches (>50%)
-        List<SearchHistory> highSimilaritySearches = searchHistoryRepository
-            .findByUserAndSimilarityScoreGreaterThanOrderBySimilarityScoreDesc(user, 50.0);
-        statistics.put("highSimilaritySearches", highSimilaritySearches.size());
-        
-        // Failed searches
-        List<SearchHistory> failedSearches = searchHistoryRepository
-            .findByUserAndStatusOrderByCreatedAtDesc(user, SearchHistory.SearchStatus.FAILED);
-        statistics.put("failedSearches", failedSearches.size());
-        
-        // Success rate
-        double successRate = totalSearches > 0 ? 
-            ((double) (totalSearches - failedSearches.size()) / totalSearches) * 100 : 0.0;
-        statistics.put("successRate", Math.round(successRate * 100.0) / 100.0);
+        // Counts come from the user_statistics rollup
+        Map<String, Object> statistics = userStatisticsService.getStatistics(user);
         
         // Most common search patterns
-        List<Object[]> commonQueries = searchHistoryRepository.findMostCommonQueries(user);
-        statistics.put("commonQueries", commonQueries);
+        statistics.put("commonQueries", getCommonQueries(user, DEFAULT_COMMON_QUERIES));
         
         return statistics;
     }
     
+    /**
+     * The user's {@code limit} most repeated submissions, with a preview instead of the full text.
+     */
+    public List<CommonQuery> getCommonQueries(User user, int limit) {
+        return searchHistoryRepository.findMostCommonQueries(user, PageRequest.of(0, limit));
+    }
+    
+    /**
+     * Earlier submissions of the same (whitespace-normalized) text, newest first.
+     */
+    public List<SearchHistory> getPreviousSubmissions(User user, String text) {
+        return searchHistoryRepository.findByUserAndQueryHashOrderByCreatedAtDesc(user, TextFingerprint.of(text));
+    }
+    
     public Map<String, Object> getSystemStatistics() {
         Map<String, Object> statistics = new HashMap<>();
         
@@ -106,10 +152,41 @@ public class SearchHistoryService {
         return statistics;
     }
     
-    public void cleanupOldSearches(int daysToKeep) {
-        LocalDateTime cutoffDate = LocalDateTime.now().minusDays(daysToKeep);
-        // This would require a custom query to implement cleanup
-        // For now, we'll just log the intention
-        System.out.println("Cleanup requested for searches older than " + daysToKeep + " days");
+    /**
+     * Archives and deletes searches older than {@code daysToKeep} days in throttled batches
+     * (see SearchHistoryRetentionService). Returns the number of searches removed.
+     */
+    public long cleanupOldSearches(int daysToKeep) {
+        return searchHistoryRetentionService.purgeOlderThan(daysToKeep);
+    }
+    
+    /**
+     * Position of the last entry of a page, sent to clients as base64url of "createdAt|id".
+     */
+    private static class HistoryCursor {
+        private final LocalDateTime createdAt;
+        private final Long id;
+        
+        private HistoryCursor(LocalDateTime createdAt, Long id) {
+            this.createdAt = createdAt;
+            this.id = id;
+        }
+        
+        static String encode(HistoryEntry last) {
+            String position = last.getCreatedAt() + "|" + last.getId();
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(position.getBytes(StandardCharsets.UTF_8));
+        }
+        
+        static HistoryCursor decode(String cursor) {
+            try {
+                String position = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+                int separator = position.lastIndexOf('|');
+                return new HistoryCursor(
+                    LocalDateTime.parse(position.substring(0, separator)),
+                    Long.parseLong(position.substring(separator + 1)));
+            } catch (RuntimeException e) {
+                throw new IllegalArgumentException("Invalid history cursor");
+            }
+        }
     }
-} 
\ No newline at end of file
+}  
\ No newline at end of file
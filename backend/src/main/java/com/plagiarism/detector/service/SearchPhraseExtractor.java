@@ -0,0 +1,94 @@
+package com.plagiarism.detector.service;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Java port of {@code AISimilarityService.extract_search_phrases}: the first eight words
+ * of each sentence between 20 and 200 characters that has more than four words.
+ */
+public final class SearchPhraseExtractor {
+
+    public static final int DEFAULT_LIMIT = 3;
+    private static final int WORDS_PER_PHRASE = 8;
+
+    private SearchPhraseExtractor() {
+    }
+
+    public static List<String> extract(String text) {
+        return extract(text, DEFAULT_LIMIT);
+    }
+
+    public static List<String> extract(String text, int limit) {
+        List<String> phrases = new ArrayList<>();
+        int start = 0;
+        int length = text.length();
+
+        while (start <= length && phrases.size() < limit) {
+            int end = start;
+            while (end < length && !isSentenceEnd(text.charAt(end))) {
+                end++;
+            }
+
+            String sentence = strip(text, start, end);
+            if (sentence.length() > 20 && sentence.length() < 200) {
+                List<String> words = words(sentence, WORDS_PER_PHRASE + 1);
+                if (words.size() > 4) {
+                    phrases.add(String.join(" ", words.subList(0, Math.min(WORDS_PER_PHRASE, words.size()))));
+                }
+            }
+
+            // Skip the whole run of terminators, like re.split(r'[.!?]+')
+            while (end < length && isSentenceEnd(text.charAt(end))) {
+                end++;
+            }
+            start = end == length ? length + 1 : end;
+        }
+
+        // If no good phrases found, use the whole text
+        if (phrases.isEmpty()) {
+            String phrase = String.join(" ", words(text, WORDS_PER_PHRASE));
+            if (!phrase.isEmpty()) {
+                phrases.add(phrase);
+            }
+        }
+
+        return phrases;
+    }
+
+    private static boolean isSentenceEnd(char c) {
+        return c == '.' || c == '!' || c == '?';
+    }
+
+    private static String strip(String text, int start, int end) {
+        while (start < end && SimilarityEngine.isPythonWhitespace(text.charAt(start))) {
+            start++;
+        }
+        while (end > start && SimilarityEngine.isPythonWhitespace(text.charAt(end - 1))) {
+            end--;
+        }
+        return text.substring(start, end);
+    }
+
+    /**
+     * The first {@code max} entries of Python's {@code str.split()}.
+     */
+    private static List<String> words(String text, int max) {
+        List<String> words = new ArrayList<>();
+        int i = 0;
+        int length = text.length();
+        while (i < length && words.size() < max) {
+            while (i < length && SimilarityEngine.isPythonWhitespace(text.charAt(i))) {
+                i++;
+            }
+            int wordStart = i;
+            while (i < length && !SimilarityEngine.isPythonWhitespace(text.charAt(i))) {
+                i++;
+            }
+            if (i > wordStart) {
+                words.add(text.substring(wordStart, i));
+            }
+        }
+        return words;
+    }
+}
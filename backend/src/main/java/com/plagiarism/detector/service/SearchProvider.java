@@ -0,0 +1,25 @@
+package com.plagiarism.detector.service;
+
+import com.plagiarism.detector.model.SearchResult;
+
+import java.time.Duration;
+import java.util.Optional;
+
+/**
+ * A web search backend used to find candidate sources for a phrase.
+ */
+public interface SearchProvider {
+
+    /**
+     * Returns the top result for {@code query}, or empty when there was no result
+     * or the call failed or did not finish within {@code timeout}.
+     */
+    Optional<SearchResult> search(String query, Duration timeout);
+
+    /**
+     * Whether the backend is configured well enough to be called at all.
+     */
+    default boolean isAvailable() {
+        return true;
+    }
+}
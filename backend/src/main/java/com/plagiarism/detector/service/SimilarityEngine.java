@@ -0,0 +1,397 @@
+package com.plagiarism.detector.service;
+
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Arrays;
+
+/**
+ * In-JVM port of the snippet scoring done by {@code ai_similarity.py}:
+ * {@code difflib.SequenceMatcher(None, clean(a), clean(b)).ratio()}, including
+ * difflib's "popular element" autojunk heuristic, so scores match the Python service.
+ *
+ * All work happens on per-thread primitive buffers that are grown on demand and reused,
+ * so scoring a snippet does not allocate. Matching is done on UTF-16 chars, so BMP text
+ * scores identically to Python.
+ */
+@Component
+public class SimilarityEngine {
+
+    /** Snippets scoring at or below this ratio are dropped by the analyzer. */
+    public static final double RELEVANCE_THRESHOLD = 0.1;
+
+    private static final int AUTOJUNK_MIN_LENGTH = 200;
+
+    private final ThreadLocal<Scratch> scratch = ThreadLocal.withInitial(Scratch::new);
+
+    /**
+     * Same contract as {@code AISimilarityService.calculate_similarity}: the ratio of the
+     * cleaned texts rounded to four decimals, or 0.0 when either input is empty.
+     */
+    public double calculateSimilarity(String text1, String text2) {
+        return calculateSimilarity(text1, text2, -1.0);
+    }
+
+    /**
+     * Like {@link #calculateSimilarity(String, String)} but returns 0.0 without running the
+     * full matcher when the real-quick or quick upper bound already shows the ratio cannot
+     * exceed {@code threshold}.
+     */
+    public double calculateSimilarity(String text1, String text2, double threshold) {
+        if (text1 == null || text2 == null || text1.isEmpty() || text2.isEmpty()) {
+            return 0.0;
+        }
+
+        Scratch s = scratch.get();
+        s.load(text1, text2);
+
+        if (s.realQuickRatio() <= threshold || s.quickRatio() <= threshold) {
+            return 0.0;
+        }
+        return round(s.ratio(), 4);
+    }
+
+    /**
+     * Python's {@code round(value, digits)}: half-even on the exact binary value.
+     */
+    public static double round(double value, int digits) {
+        return new BigDecimal(value).setScale(digits, RoundingMode.HALF_EVEN).doubleValue();
+    }
+
+    /**
+     * Characters matched by Python's {@code str.isspace()} and therefore by {@code \s}
+     * and {@code str.strip()}.
+     */
+    static boolean isPythonWhitespace(char c) {
+        switch (c) {
+            case ' ': case '\t': case '\n': case 0x0B: case '\f': case '\r':
+            case 0x1C: case 0x1D: case 0x1E: case 0x1F:
+            case 0x85: case 0xA0: case 0x1680:
+            case 0x2028: case 0x2029: case 0x202F: case 0x205F: case 0x3000:
+                return true;
+            default:
+                return c >= 0x2000 && c <= 0x200A;
+        }
+    }
+
+    /**
+     * Reusable state for one thread. Mirrors the structures SequenceMatcher builds:
+     * b2j becomes an open-addressed char table pointing into a flat position array,
+     * and the j2len dictionaries become two int rows plus the list of touched indexes.
+     */
+    private static final class Scratch {
+
+        private char[] a = new char[256];
+        private char[] b = new char[256];
+        private int la;
+        private int lb;
+
+        // char -> slot table over the distinct chars of b
+        private int[] slotKeys = new int[64];
+        private int[] slotCount = new int[64];
+        private int[] slotStart = new int[64];
+        private int[] slotFill = new int[64];
+        private boolean[] slotPopular = new boolean[64];
+        private int slotMask = 63;
+
+        // b2j: positions of each char of b in ascending order, grouped by slot
+        private int[] positions = new int[256];
+        // slot of every char of a (-1 when the char does not occur in b)
+        private int[] aSlots = new int[256];
+
+        private int[] j2len = new int[257];
+        private int[] newJ2len = new int[257];
+        private int[] touched = new int[256];
+        private int[] newTouched = new int[256];
+
+        private int[] queue = new int[64];
+
+        // result of the last findLongestMatch call
+        private int matchI;
+        private int matchJ;
+        private int matchSize;
+
+        void load(String text1, String text2) {
+            a = clean(text1, a);
+            la = cleanLength;
+            b = clean(text2, b);
+            lb = cleanLength;
+            chainB();
+        }
+
+        private int cleanLength;
+
+        /**
+         * {@code re.sub(r'\s+', ' ', text.strip()).lower()} into {@code out}, growing it if needed.
+         */
+        private char[] clean(String text, char[] out) {
+            out = ensure(out, text.length());
+            int length = 0;
+            boolean pendingSpace = false;
+            for (int i = 0, n = text.length(); i < n; i++) {
+                char c = text.charAt(i);
+                if (isPythonWhitespace(c)) {
+                    pendingSpace = length > 0;
+                    continue;
+                }
+                if (pendingSpace) {
+                    out[length++] = ' ';
+                    pendingSpace = false;
+                }
+                if (c == '\u0130') {
+                    // Python lowercases dotted capital I to "i" + combining dot above
+                    out = ensure(out, length + 2 + (n - i - 1));
+                    out[length++] = 'i';
+                    out[length++] = '\u0307';
+                } else if (c == '\u03A3') {
+                    out[length++] = isFinalSigma(text, i) ? '\u03C2' : '\u03C3';
+                } else {
+                    out[length++] = Character.toLowerCase(c);
+                }
+            }
+            cleanLength = length;
+            return out;
+        }
+
+        /**
+         * Python's Final_Sigma condition: the capital sigma at {@code index} follows a cased
+         * letter and is not followed by one, skipping case-ignorable characters both ways.
+         */
+        private static boolean isFinalSigma(String text, int index) {
+            int i = index - 1;
+            while (i >= 0 && isCaseIgnorable(text.charAt(i))) {
+                i--;
+            }
+            if (i < 0 || !isCased(text.charAt(i))) {
+                return false;
+            }
+            int j = index + 1;
+            while (j < text.length() && isCaseIgnorable(text.charAt(j))) {
+                j++;
+            }
+            return j == text.length() || !isCased(text.charAt(j));
+        }
+
+        private static boolean isCased(char c) {
+            return Character.isLowerCase(c) || Character.isUpperCase(c) || Character.isTitleCase(c);
+        }
+
+        private static boolean isCaseIgnorable(char c) {
+            switch (Character.getType(c)) {
+                case Character.NON_SPACING_MARK: case Character.ENCLOSING_MARK: case Character.FORMAT:
+                case Character.MODIFIER_LETTER: case Character.MODIFIER_SYMBOL:
+                    return true;
+                default:
+                    // Word_Break MidLetter, MidNumLet and Single_Quote
+                    return "'.:\u00B7\u0387\u05F4\u2018\u2019\u2024\u2027\uFE13\uFE52\uFE55\uFF07\uFF0E\uFF1A"
+                        .indexOf(c) >= 0;
+            }
+        }
+
+        private void chainB() {
+            int capacity = Integer.highestOneBit(Math.max(32, lb * 2) - 1) << 1;
+            if (slotKeys.length < capacity) {
+                slotKeys = new int[capacity];
+                slotCount = new int[capacity];
+                slotStart = new int[capacity];
+                slotFill = new int[capacity];
+                slotPopular = new boolean[capacity];
+            }
+            slotMask = capacity - 1;
+            Arrays.fill(slotKeys, 0, capacity, -1);
+            Arrays.fill(slotCount, 0, capacity, 0);
+            Arrays.fill(slotFill, 0, capacity, 0);
+
+            for (int j = 0; j < lb; j++) {
+                slotCount[insertSlot(b[j])]++;
+            }
+
+            int offset = 0;
+            int popularLimit = lb / 100 + 1;
+            boolean autojunk = lb >= AUTOJUNK_MIN_LENGTH;
+            for (int slot = 0; slot < capacity; slot++) {
+                slotStart[slot] = offset;
+                offset += slotCount[slot];
+                slotPopular[slot] = autojunk && slotCount[slot] > popularLimit;
+            }
+
+            positions = ensure(positions, lb);
+            for (int j = 0; j < lb; j++) {
+                int slot = findSlot(b[j]);
+                positions[slotStart[slot] + slotFill[slot]++] = j;
+            }
+
+            aSlots = ensure(aSlots, la);
+            for (int i = 0; i < la; i++) {
+                aSlots[i] = findSlot(a[i]);
+            }
+        }
+
+        private int insertSlot(char c) {
+            int slot = mix(c) & slotMask;
+            while (slotKeys[slot] != -1 && slotKeys[slot] != c) {
+                slot = (slot + 1) & slotMask;
+            }
+            slotKeys[slot] = c;
+            return slot;
+        }
+
+        private int findSlot(char c) {
+            int slot = mix(c) & slotMask;
+            while (slotKeys[slot] != -1) {
+                if (slotKeys[slot] == c) {
+                    return slot;
+                }
+                slot = (slot + 1) & slotMask;
+            }
+            return -1;
+        }
+
+        private static int mix(char c) {
+            return (c * 0x9E3779B1) >>> 7;
+        }
+
+        double realQuickRatio() {
+            return calculateRatio(Math.min(la, lb), la + lb);
+        }
+
+        double quickRatio() {
+            // slotFill doubles as difflib's "avail" counter here
+            System.arraycopy(slotCount, 0, slotFill, 0, slotMask + 1);
+            int matches = 0;
+            for (int i = 0; i < la; i++) {
+                int slot = aSlots[i];
+                if (slot >= 0 && slotFill[slot] > 0) {
+                    slotFill[slot]--;
+                    matches++;
+                }
+            }
+            return calculateRatio(matches, la + lb);
+        }
+
+        double ratio() {
+            j2len = ensure(j2len, lb + 1);
+            newJ2len = ensure(newJ2len, lb + 1);
+            touched = ensure(touched, lb);
+            newTouched = ensure(newTouched, lb);
+
+            int matches = 0;
+            int top = 0;
+            queue = ensure(queue, 4);
+            queue[top++] = 0;
+            queue[top++] = la;
+            queue[top++] = 0;
+            queue[top++] = lb;
+
+            while (top > 0) {
+                int bhi = queue[--top];
+                int blo = queue[--top];
+                int ahi = queue[--top];
+                int alo = queue[--top];
+
+                findLongestMatch(alo, ahi, blo, bhi);
+                int i = matchI;
+                int j = matchJ;
+                int k = matchSize;
+                if (k == 0) {
+                    continue;
+                }
+
+                matches += k;
+                queue = ensure(queue, top + 8);
+                if (alo < i && blo < j) {
+                    queue[top++] = alo;
+                    queue[top++] = i;
+                    queue[top++] = blo;
+                    queue[top++] = j;
+                }
+                if (i + k < ahi && j + k < bhi) {
+                    queue[top++] = i + k;
+                    queue[top++] = ahi;
+                    queue[top++] = j + k;
+                    queue[top++] = bhi;
+                }
+            }
+            return calculateRatio(matches, la + lb);
+        }
+
+        /**
+         * difflib's find_longest_match with an empty junk set. The match is left in
+         * matchI, matchJ and matchSize to stay allocation free.
+         */
+        private void findLongestMatch(int alo, int ahi, int blo, int bhi) {
+            int besti = alo;
+            int bestj = blo;
+            int bestsize = 0;
+            int touchedCount = 0;
+
+            for (int i = alo; i < ahi; i++) {
+                int slot = aSlots[i];
+                int newTouchedCount = 0;
+                if (slot >= 0 && !slotPopular[slot]) {
+                    for (int p = slotStart[slot], end = p + slotCount[slot]; p < end; p++) {
+                        int j = positions[p];
+                        if (j < blo) {
+                            continue;
+                        }
+                        if (j >= bhi) {
+                            break;
+                        }
+                        int k = j2len[j] + 1;
+                        newJ2len[j + 1] = k;
+                        newTouched[newTouchedCount++] = j + 1;
+                        if (k > bestsize) {
+                            besti = i - k + 1;
+                            bestj = j - k + 1;
+                            bestsize = k;
+                        }
+                    }
+                }
+
+                for (int t = 0; t < touchedCount; t++) {
+                    j2len[touched[t]] = 0;
+                }
+                int[] row = j2len;
+                j2len = newJ2len;
+                newJ2len = row;
+                int[] list = touched;
+                touched = newTouched;
+                newTouched = list;
+                touchedCount = newTouchedCount;
+            }
+            for (int t = 0; t < touchedCount; t++) {
+                j2len[touched[t]] = 0;
+            }
+
+            // Popular chars are not junk, so the match may still grow over them
+            while (besti > alo && bestj > blo && a[besti - 1] == b[bestj - 1]) {
+                besti--;
+                bestj--;
+                bestsize++;
+            }
+            while (besti + bestsize < ahi && bestj + bestsize < bhi && a[besti + bestsize] == b[bestj + bestsize]) {
+                bestsize++;
+            }
+
+            matchI = besti;
+            matchJ = bestj;
+            matchSize = bestsize;
+        }
+
+        private static double calculateRatio(int matches, int length) {
+            if (length > 0) {
+                return 2.0 * matches / length;
+            }
+            return 1.0;
+        }
+
+        private static char[] ensure(char[] buffer, int size) {
+            return buffer.length >= size ? buffer : Arrays.copyOf(buffer, Math.max(size, buffer.length * 2));
+        }
+
+        private static int[] ensure(int[] buffer, int size) {
+            return buffer.length >= size ? buffer : Arrays.copyOf(buffer, Math.max(size, buffer.length * 2));
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package com.plagiarism.detector.service;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Milliseconds spent per pipeline stage for one analysis, stored on its history row.
+ * Chunks of a long document run in parallel, so their stage times are summed and can
+ * add up to more than the wall-clock processing time.
+ */
+public class StageTimings {
+
+    private final AnalysisMetrics metrics;
+    private final Map<String, Long> nanosByStage = new LinkedHashMap<>();
+
+    StageTimings(AnalysisMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    /**
+     * Adds the time since {@code startNanos} to {@code stage} here and on the stage timer.
+     */
+    public void record(String stage, long startNanos) {
+        long nanos = System.nanoTime() - startNanos;
+        metrics.recordStageNanos(stage, nanos);
+        synchronized (nanosByStage) {
+            nanosByStage.merge(stage, nanos, Long::sum);
+        }
+    }
+
+    /**
+     * Compact JSON object of stage to milliseconds, or null when nothing was recorded
+     * (e.g. a cache hit).
+     */
+    public String toJson() {
+        synchronized (nanosByStage) {
+            if (nanosByStage.isEmpty()) {
+                return null;
+            }
+            StringBuilder json = new StringBuilder("{");
+            for (Map.Entry<String, Long> entry : nanosByStage.entrySet()) {
+                if (json.length() > 1) {
+                    json.append(',');
+                }
+                json.append('"').append(entry.getKey()).append("\":").append(entry.getValue() / 1_000_000);
+            }
+            return json.append('}').toString();
+        }
+    }
+}
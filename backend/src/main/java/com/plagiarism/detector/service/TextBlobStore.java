@@ -0,0 +1,336 @@
+package com.plagiarism.detector.service;
+
+import com.plagiarism.detector.model.SimilaritySource;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Content-addressed store for submitted texts and matched snippets in the text_blobs
+ * table. A text is keyed by the hex SHA-256 of its exact UTF-8 bytes, stored once however
+ * many search_history or similarity_sources rows refer to it, and deflated unless that
+ * would not make it smaller. Rows keep only the 64-character key, and a text is inflated
+ * only when a caller asks for it.
+ * <p>
+ * Rows written before text_blobs existed keep their text inline until {@link #backfill}
+ * moves it here; {@link #text} reads either form.
+ */
+@Service
+public class TextBlobStore {
+
+    static final String CODEC_DEFLATE = "deflate";
+    static final String CODEC_NONE = "none";
+
+    private static final String INSERT_SQL =
+        "INSERT INTO text_blobs (hash, codec, original_length, data, created_at) " +
+        "VALUES (:hash, :codec, :originalLength, :data, CURRENT_TIMESTAMP) " +
+        "ON DUPLICATE KEY UPDATE hash = hash";
+
+    @Value("${storage.text-blobs.compression-level:6}")
+    private int compressionLevel;
+
+    @Value("${storage.text-blobs.backfill-batch-size:200}")
+    private int backfillBatchSize;
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final Counter stored;
+    private final Counter deduplicated;
+    private final Counter rawBytes;
+    private final Counter storedBytes;
+
+    private volatile String shareLockClause;
+
+    public TextBlobStore(NamedParameterJdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate,
+                         MeterRegistry registry) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.stored = Counter.builder("text.blobs.writes").tag("result", "stored")
+            .description("Texts written to text_blobs").register(registry);
+        this.deduplicated = Counter.builder("text.blobs.writes").tag("result", "deduplicated")
+            .description("Texts that were already in text_blobs").register(registry);
+        this.rawBytes = Counter.builder("text.blobs.bytes").tag("kind", "raw")
+            .description("UTF-8 size of texts written to text_blobs").register(registry);
+        this.storedBytes = Counter.builder("text.blobs.bytes").tag("kind", "stored")
+            .description("Stored size of texts written to text_blobs").register(registry);
+    }
+
+    /**
+     * Hex SHA-256 of the exact UTF-8 bytes of {@code text}, the key it is stored under.
+     */
+    public static String hash(String text) {
+        return hash(text.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Stores each distinct non-null text that is not stored yet and returns the key of
+     * every non-null text. Runs in the caller's transaction, so the blobs commit with the
+     * rows that refer to them.
+     * <p>
+     * Keys that are already stored get a shared lock until the caller commits, so
+     * retention cannot delete a blob that is about to be referenced again, while other
+     * writers of the same text still go ahead. Only the missing keys are written. Keys are
+     * locked and written in sorted order, so writers that share texts cannot deadlock.
+     */
+    public Map<String, String> putAll(Collection<String> texts) {
+        Map<String, byte[]> utf8ByHash = new TreeMap<>();
+        Map<String, String> keys = new HashMap<>();
+        for (String text : texts) {
+            if (text == null || keys.containsKey(text)) {
+                continue;
+            }
+            byte[] utf8 = text.getBytes(StandardCharsets.UTF_8);
+            String hash = hash(utf8);
+            keys.put(text, hash);
+            utf8ByHash.putIfAbsent(hash, utf8);
+        }
+        if (utf8ByHash.isEmpty()) {
+            return keys;
+        }
+
+        // Only keys known to exist are locked: a locking read of a missing key also locks
+        // the gap before it, which would block other writers' inserts
+        Set<String> existing = new TreeSet<>(jdbcTemplate.queryForList(
+            "SELECT hash FROM text_blobs WHERE hash IN (:hashes)",
+            new MapSqlParameterSource("hashes", utf8ByHash.keySet()), String.class));
+        Set<String> locked = existing.isEmpty() ? Set.of() : new HashSet<>(jdbcTemplate.queryForList(
+            "SELECT hash FROM text_blobs WHERE hash IN (:hashes) ORDER BY hash " + shareLock(),
+            new MapSqlParameterSource("hashes", existing), String.class));
+        deduplicated.increment(locked.size());
+
+        List<SqlParameterSource> batch = new ArrayList<>();
+        for (Map.Entry<String, byte[]> entry : utf8ByHash.entrySet()) {
+            if (locked.contains(entry.getKey())) {
+                continue;
+            }
+            byte[] utf8 = entry.getValue();
+            byte[] deflated = deflate(utf8);
+            boolean compress = deflated.length < utf8.length;
+            byte[] data = compress ? deflated : utf8;
+            rawBytes.increment(utf8.length);
+            storedBytes.increment(data.length);
+            batch.add(new MapSqlParameterSource()
+                .addValue("hash", entry.getKey())
+                .addValue("codec", compress ? CODEC_DEFLATE : CODEC_NONE)
+                .addValue("originalLength", utf8.length)
+                .addValue("data", data));
+        }
+        if (!batch.isEmpty()) {
+            // The duplicate-key update covers a concurrent writer of the same text
+            jdbcTemplate.batchUpdate(INSERT_SQL, batch.toArray(new SqlParameterSource[0]));
+            stored.increment(batch.size());
+        }
+        return keys;
+    }
+
+    /**
+     * The texts stored under {@code hashes}; keys that are not stored are left out.
+     */
+    public Map<String, String> getAll(Collection<String> hashes) {
+        Set<String> distinct = new HashSet<>(hashes);
+        distinct.remove(null);
+        Map<String, String> texts = new HashMap<>();
+        if (distinct.isEmpty()) {
+            return texts;
+        }
+        jdbcTemplate.query("SELECT hash, codec, original_length, data FROM text_blobs WHERE hash IN (:hashes)",
+            new MapSqlParameterSource("hashes", distinct),
+            rs -> {
+                texts.put(rs.getString("hash"),
+                    decode(rs.getString("codec"), rs.getInt("original_length"), rs.getBytes("data")));
+            });
+        return texts;
+    }
+
+    /**
+     * The text of a row that stores it either by key or, for rows not yet backfilled, inline.
+     */
+    public String text(String hash, String inline) {
+        if (hash == null) {
+            return inline;
+        }
+        return getAll(List.of(hash)).get(hash);
+    }
+
+    /**
+     * Fills in the matched text of source rows that store it by key, with one lookup.
+     */
+    public List<SimilaritySource> resolveMatchedText(List<SimilaritySource> sources) {
+        Map<String, String> texts = getAll(sources.stream().map(SimilaritySource::getMatchedTextBlob).toList());
+        for (SimilaritySource source : sources) {
+            if (source.getMatchedTextBlob() != null) {
+                source.setMatchedText(texts.get(source.getMatchedTextBlob()));
+            }
+        }
+        return sources;
+    }
+
+    /**
+     * Deletes those of {@code hashes} that no row refers to any more, one key at a time so
+     * a text that was just reused by a concurrent insert is skipped rather than failing the
+     * rest. Returns the number of blobs deleted.
+     */
+    public int deleteUnreferenced(Collection<String> hashes) {
+        int deleted = 0;
+        for (String hash : new HashSet<>(hashes)) {
+            if (hash == null) {
+                continue;
+            }
+            try {
+                deleted += jdbcTemplate.update(
+                    "DELETE FROM text_blobs WHERE hash = :hash " +
+                    "AND NOT EXISTS (SELECT 1 FROM search_history WHERE query_blob = :hash) " +
+                    "AND NOT EXISTS (SELECT 1 FROM similarity_sources WHERE matched_text_blob = :hash)",
+                    new MapSqlParameterSource("hash", hash));
+            } catch (DataIntegrityViolationException e) {
+                // Referenced again since the check; keep it
+            }
+        }
+        return deleted;
+    }
+
+    /**
+     * Moves inline texts of rows written before text_blobs existed into the store, a batch
+     * at a time, clearing the inline copy as each row is switched to its key.
+     */
+    @Scheduled(initialDelayString = "${storage.text-blobs.backfill-initial-delay-ms:60000}",
+               fixedDelayString = "${storage.text-blobs.backfill-interval-ms:300000}")
+    public void backfill() {
+        try {
+            int moved;
+            do {
+                Integer count = transactionTemplate.execute(status -> backfillBatch(
+                    "SELECT id, search_query AS text FROM search_history " +
+                    "WHERE query_blob IS NULL AND search_query IS NOT NULL ORDER BY id LIMIT :limit",
+                    "UPDATE search_history SET query_blob = :hash, search_query = NULL WHERE id = :id"));
+                moved = count != null ? count : 0;
+            } while (moved == backfillBatchSize);
+            do {
+                Integer count = transactionTemplate.execute(status -> backfillBatch(
+                    "SELECT id, matched_text AS text FROM similarity_sources " +
+                    "WHERE matched_text_blob IS NULL AND matched_text IS NOT NULL ORDER BY id LIMIT :limit",
+                    "UPDATE similarity_sources SET matched_text_blob = :hash, matched_text = NULL WHERE id = :id"));
+                moved = count != null ? count : 0;
+            } while (moved == backfillBatchSize);
+        } catch (Exception e) {
+            System.err.println("Text blob backfill failed: " + e.getMessage());
+        }
+    }
+
+    private int backfillBatch(String selectSql, String updateSql) {
+        Map<Long, String> rows = new LinkedHashMap<>();
+        jdbcTemplate.query(selectSql, new MapSqlParameterSource("limit", backfillBatchSize),
+            rs -> {
+                rows.put(rs.getLong("id"), rs.getString("text"));
+            });
+        if (rows.isEmpty()) {
+            return 0;
+        }
+
+        Map<String, String> keys = putAll(rows.values());
+        List<SqlParameterSource> batch = new ArrayList<>();
+        for (Map.Entry<Long, String> row : rows.entrySet()) {
+            batch.add(new MapSqlParameterSource()
+                .addValue("id", row.getKey())
+                .addValue("hash", keys.get(row.getValue())));
+        }
+        jdbcTemplate.batchUpdate(updateSql, batch.toArray(new SqlParameterSource[0]));
+        return rows.size();
+    }
+
+    /**
+     * MySQL takes a shared row lock. H2, which the benchmark and load-test profiles run on,
+     * has no shared row locks, so there the rows are locked exclusively.
+     */
+    private String shareLock() {
+        String clause = shareLockClause;
+        if (clause == null) {
+            String product = jdbcTemplate.getJdbcTemplate().execute(
+                (ConnectionCallback<String>) connection -> connection.getMetaData().getDatabaseProductName());
+            clause = "MySQL".equals(product) ? "FOR SHARE" : "FOR UPDATE";
+            shareLockClause = clause;
+        }
+        return clause;
+    }
+
+    private byte[] deflate(byte[] utf8) {
+        Deflater deflater = new Deflater(compressionLevel);
+        try {
+            deflater.setInput(utf8);
+            deflater.finish();
+            ByteArrayOutputStream out = new ByteArrayOutputStream(Math.max(64, utf8.length / 2));
+            byte[] buffer = new byte[8192];
+            while (!deflater.finished()) {
+                out.write(buffer, 0, deflater.deflate(buffer));
+            }
+            return out.toByteArray();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    static String decode(String codec, int originalLength, byte[] data) {
+        if (CODEC_NONE.equals(codec)) {
+            return new String(data, StandardCharsets.UTF_8);
+        }
+        if (!CODEC_DEFLATE.equals(codec)) {
+            throw new IllegalStateException("Unknown text blob codec '" + codec + "'");
+        }
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(data);
+            byte[] utf8 = new byte[originalLength];
+            int length = 0;
+            while (length < originalLength && !inflater.finished()) {
+                int n = inflater.inflate(utf8, length, originalLength - length);
+                if (n == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    break;
+                }
+                length += n;
+            }
+            if (length != originalLength) {
+                throw new IllegalStateException("Text blob inflated to " + length + " of " + originalLength + " bytes");
+            }
+            return new String(utf8, StandardCharsets.UTF_8);
+        } catch (DataFormatException e) {
+            throw new IllegalStateException("Corrupt text blob", e);
+        } finally {
+            inflater.end();
+        }
+    }
+
+    private static String hash(byte[] utf8) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(utf8));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
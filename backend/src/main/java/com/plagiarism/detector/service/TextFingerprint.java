@@ -0,0 +1,70 @@
+package com.plagiarism.detector.service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+/**
+ * Content hashing for submitted texts. Texts that only differ in leading, trailing
+ * or repeated whitespace get the same fingerprint.
+ */
+public final class TextFingerprint {
+
+    private TextFingerprint() {
+    }
+
+    /**
+     * Strips the text and collapses every whitespace run to a single space,
+     * using the same whitespace definition as the Python analyzer.
+     */
+    public static String normalize(String text) {
+        if (text == null) {
+            return "";
+        }
+        StringBuilder normalized = new StringBuilder(text.length());
+        boolean pendingSpace = false;
+        for (int i = 0, n = text.length(); i < n; i++) {
+            char c = text.charAt(i);
+            if (SimilarityEngine.isPythonWhitespace(c)) {
+                pendingSpace = normalized.length() > 0;
+                continue;
+            }
+            if (pendingSpace) {
+                normalized.append(' ');
+                pendingSpace = false;
+            }
+            normalized.append(c);
+        }
+        return normalized.toString();
+    }
+
+    /**
+     * Hex SHA-256 of the normalized text.
+     */
+    public static String of(String text) {
+        return sha256Hex(normalize(text));
+    }
+
+    /**
+     * The first {@code maxLength} characters of the normalized text, never splitting
+     * a surrogate pair.
+     */
+    public static String preview(String text, int maxLength) {
+        String normalized = normalize(text);
+        if (normalized.length() <= maxLength) {
+            return normalized;
+        }
+        int end = Character.isHighSurrogate(normalized.charAt(maxLength - 1)) ? maxLength - 1 : maxLength;
+        return normalized.substring(0, end);
+    }
+
+    public static String sha256Hex(String value) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(value.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package com.plagiarism.detector.service;
+
+import com.plagiarism.detector.model.User;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.stereotype.Component;
+
+/**
+ * JPA listener on {@link User} that drops the cached principal whenever the row changes.
+ * Hibernate obtains it from the Spring context, so the cache is injected.
+ */
+@Component
+public class UserChangeListener {
+
+    private final UserPrincipalCache userPrincipalCache;
+
+    public UserChangeListener(UserPrincipalCache userPrincipalCache) {
+        this.userPrincipalCache = userPrincipalCache;
+    }
+
+    @PostPersist
+    @PostRemove
+    public void onInsertOrDelete(User user) {
+        userPrincipalCache.invalidate(user.getUsername());
+    }
+
+    @PostUpdate
+    public void onUpdate(User user) {
+        // The username itself may have changed, so the old key is unknown here
+        userPrincipalCache.invalidateAll();
+    }
+}
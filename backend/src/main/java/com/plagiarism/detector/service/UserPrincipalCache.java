@@ -0,0 +1,81 @@
+package com.plagiarism.detector.service;
+
+import com.plagiarism.detector.model.User;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Optional;
+import java.util.function.Function;
+
+/**
+ * Users already loaded for authentication, by username. Bounded by entry count (LRU) and
+ * TTL, and evicted by {@link UserChangeListener} whenever a user row is written, so the
+ * JWT filter does not hit the database on every request.
+ */
+@Component
+public class UserPrincipalCache {
+
+    @Value("${auth.user-cache.enabled:true}")
+    private boolean enabled;
+
+    @Value("${auth.user-cache.max-entries:10000}")
+    private int maxEntries;
+
+    @Value("${auth.user-cache.ttl-seconds:300}")
+    private long ttlSeconds;
+
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+    /**
+     * Returns the cached user or loads it; users that do not exist are not cached.
+     */
+    public Optional<User> get(String username, Function<String, Optional<User>> loader) {
+        if (!enabled) {
+            return loader.apply(username);
+        }
+
+        long now = System.currentTimeMillis();
+        synchronized (entries) {
+            Entry entry = entries.get(username);
+            if (entry != null && entry.expiresAt > now) {
+                return Optional.of(entry.user);
+            }
+        }
+
+        Optional<User> user = loader.apply(username);
+        user.ifPresent(found -> put(username, found, now));
+        return user;
+    }
+
+    public void invalidate(String username) {
+        synchronized (entries) {
+            entries.remove(username);
+        }
+    }
+
+    public void invalidateAll() {
+        synchronized (entries) {
+            entries.clear();
+        }
+    }
+
+    private void put(String username, User user, long now) {
+        synchronized (entries) {
+            entries.put(username, new Entry(user, now + ttlSeconds * 1000));
+            while (entries.size() > maxEntries) {
+                entries.remove(entries.keySet().iterator().next());
+            }
+        }
+    }
+
+    private static final class Entry {
+        private final User user;
+        private final long expiresAt;
+
+        private Entry(User user, long expiresAt) {
+            this.user = user;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
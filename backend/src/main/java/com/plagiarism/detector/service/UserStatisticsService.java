@@ -0,0 +1,239 @@
+package com.plagiarism.detector.service;
+
+import com.plagiarism.detector.model.DailyCountsConverter;
+import com.plagiarism.detector.model.SearchHistory;
+import com.plagiarism.detector.model.User;
+import com.plagiarism.detector.model.UserStatistics;
+import com.plagiarism.detector.repository.SearchHistoryRepository;
+import com.plagiarism.detector.repository.UserStatisticsRepository;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Maintains the user_statistics rollup. Every finished analysis (completed or failed)
+ * is folded into its owner's row, so reading a user's statistics is a single
+ * primary-key lookup. A missing row is rebuilt from search_history.
+ * <p>
+ * Updates run at READ COMMITTED under a lock on the user's row. When the row is missing
+ * it is created empty first, so concurrent first analyses queue on that row instead of
+ * racing to insert it. Each search_history row carries a rolled_up flag that is set,
+ * under the same lock, by whichever of a rebuild or the row's own update counts it
+ * first, and the other one leaves it alone, so every search is counted exactly once.
+ * Rows removed by retention are subtracted again under the same lock.
+ */
+@Service
+public class UserStatisticsService {
+    
+    // Same cut-off the statistics endpoint has always used
+    public static final double HIGH_SIMILARITY_THRESHOLD = 50.0;
+    
+    private static final List<SearchHistory.SearchStatus> FINISHED = List.of(
+        SearchHistory.SearchStatus.COMPLETED, SearchHistory.SearchStatus.FAILED);
+    
+    private static final List<String> FINISHED_NAMES = FINISHED.stream().map(Enum::name).toList();
+    
+    private static final String EMPTY_RECENT_COUNTS =
+        new DailyCountsConverter().convertToDatabaseColumn(new long[UserStatistics.RECENT_DAYS]);
+    
+    private final UserStatisticsRepository userStatisticsRepository;
+    private final SearchHistoryRepository searchHistoryRepository;
+    private final TransactionTemplate transactionTemplate;
+    
+    public UserStatisticsService(
+            UserStatisticsRepository userStatisticsRepository,
+            SearchHistoryRepository searchHistoryRepository,
+            TransactionTemplate transactionTemplate) {
+        this.userStatisticsRepository = userStatisticsRepository;
+        this.searchHistoryRepository = searchHistoryRepository;
+        // A rebuild that waited for the row lock must see what was committed meanwhile
+        this.transactionTemplate = new TransactionTemplate(transactionTemplate.getTransactionManager());
+        this.transactionTemplate.setIsolationLevel(TransactionDefinition.ISOLATION_READ_COMMITTED);
+    }
+    
+    /**
+     * Folds finished history rows into their owners' rollups. Call after the rows are
+     * committed; rows that are not COMPLETED or FAILED are ignored.
+     */
+    public void recordFinished(List<SearchHistory> searchHistories) {
+        Map<Long, List<SearchHistory>> byUser = new LinkedHashMap<>();
+        for (SearchHistory searchHistory : searchHistories) {
+            if (FINISHED.contains(searchHistory.getStatus())) {
+                byUser.computeIfAbsent(searchHistory.getUser().getId(), id -> new ArrayList<>()).add(searchHistory);
+            }
+        }
+        
+        for (Map.Entry<Long, List<SearchHistory>> entry : byUser.entrySet()) {
+            try {
+                transactionTemplate.executeWithoutResult(status -> apply(entry.getKey(), entry.getValue()));
+            } catch (Exception e) {
+                // Statistics are derived data; never fail an analysis over them
+                System.err.println("Failed to update statistics for user " + entry.getKey() + ": " + e.getMessage());
+            }
+        }
+    }
+    
+    public Map<String, Object> getStatistics(User user) {
+        UserStatistics userStatistics = load(user);
+        
+        Map<String, Object> statistics = new HashMap<>();
+        long totalSearches = userStatistics.getTotalSearches();
+        statistics.put("totalSearches", totalSearches);
+        statistics.put("averageSimilarity", userStatistics.averageSimilarity());
+        statistics.put("recentSearches", userStatistics.recentTotal(LocalDate.now()));
+        statistics.put("highSimilaritySearches", userStatistics.getHighSimilaritySearches());
+        statistics.put("failedSearches", userStatistics.getFailedSearches());
+        
+        double successRate = totalSearches > 0 ?
+            ((double) (totalSearches - userStatistics.getFailedSearches()) / totalSearches) * 100 : 0.0;
+        statistics.put("successRate", Math.round(successRate * 100.0) / 100.0);
+        return statistics;
+    }
+    
+    /**
+     * The user's number of finished (COMPLETED or FAILED) searches, read from the rollup.
+     */
+    public long getTotalSearches(User user) {
+        return load(user).getTotalSearches();
+    }
+    
+    private UserStatistics load(User user) {
+        return userStatisticsRepository.findById(user.getId())
+            .orElseGet(() -> transactionTemplate.execute(status -> rebuild(user.getId())));
+    }
+    
+    private void apply(Long userId, List<SearchHistory> searchHistories) {
+        UserStatistics userStatistics = userStatisticsRepository.findForUpdate(userId).orElse(null);
+        if (userStatistics == null) {
+            // The rebuild counts the committed rows, these ones included
+            rebuild(userId);
+            return;
+        }
+        
+        // A rebuild that held the lock before us may have counted some of them already
+        Set<Long> uncounted = new HashSet<>(searchHistoryRepository.findIdsNotRolledUp(
+            searchHistories.stream().map(SearchHistory::getId).toList()));
+        if (uncounted.isEmpty()) {
+            return;
+        }
+        searchHistoryRepository.markRolledUp(uncounted);
+        
+        LocalDate today = LocalDate.now();
+        for (SearchHistory searchHistory : searchHistories) {
+            if (uncounted.contains(searchHistory.getId())) {
+                count(userStatistics, searchHistory, 1, today);
+            }
+        }
+        userStatisticsRepository.save(userStatistics);
+    }
+    
+    /**
+     * Takes search_history rows that are about to be deleted out of their owners' rollups,
+     * in the caller's transaction, which must delete the rows before it commits. The
+     * rollups are locked before the rows, in the order updates and rebuilds lock them, and
+     * only rows a rollup has counted are subtracted, so no rollup needs rebuilding after.
+     */
+    public void recordDeleted(Collection<Long> userIds, Collection<Long> historyIds) {
+        Map<Long, UserStatistics> rollups = new HashMap<>();
+        for (Long userId : new TreeSet<>(userIds)) {
+            userStatisticsRepository.findForUpdate(userId).ifPresent(rollup -> rollups.put(userId, rollup));
+        }
+        
+        Map<Long, UserStatistics> changed = new LinkedHashMap<>();
+        LocalDate today = LocalDate.now();
+        for (SearchHistory searchHistory : searchHistoryRepository.findAllForUpdate(historyIds)) {
+            if (!searchHistory.isRolledUp()) {
+                continue;
+            }
+            Long userId = searchHistory.getUser().getId();
+            // A rebuild that committed after the lookup above has counted the row
+            UserStatistics userStatistics = rollups.computeIfAbsent(userId,
+                id -> userStatisticsRepository.findForUpdate(id).orElse(null));
+            if (userStatistics != null) {
+                count(userStatistics, searchHistory, -1, today);
+                changed.put(userId, userStatistics);
+            }
+        }
+        userStatisticsRepository.saveAll(changed.values());
+    }
+    
+    /**
+     * Adds ({@code delta} 1) or removes ({@code delta} -1) one finished search.
+     */
+    private static void count(UserStatistics userStatistics, SearchHistory searchHistory, int delta, LocalDate today) {
+        userStatistics.setTotalSearches(userStatistics.getTotalSearches() + delta);
+        if (searchHistory.getStatus() == SearchHistory.SearchStatus.FAILED) {
+            userStatistics.setFailedSearches(userStatistics.getFailedSearches() + delta);
+        }
+        Double score = searchHistory.getSimilarityScore();
+        if (score != null) {
+            userStatistics.setSimilaritySum(userStatistics.getSimilaritySum() + delta * score);
+            userStatistics.setSimilarityCount(userStatistics.getSimilarityCount() + delta);
+            if (score > HIGH_SIMILARITY_THRESHOLD) {
+                userStatistics.setHighSimilaritySearches(userStatistics.getHighSimilaritySearches() + delta);
+            }
+        }
+        LocalDateTime createdAt = searchHistory.getCreatedAt() != null ? searchHistory.getCreatedAt() : LocalDateTime.now();
+        if (delta > 0) {
+            userStatistics.addRecent(createdAt.toLocalDate(), today);
+        } else {
+            userStatistics.removeRecent(createdAt.toLocalDate(), today);
+        }
+    }
+    
+    /**
+     * Recomputes a user's rollup from search_history and stores it, in the caller's
+     * transaction. The row is created empty first and locked, so a concurrent rebuild
+     * waits for this one to commit rather than failing on a duplicate key. Every finished
+     * row committed by now is marked rolled up before the counts are taken over the marked
+     * rows, so an update that waited for the lock skips the rows counted here, and a row
+     * that commits in between is left to its own update.
+     */
+    private UserStatistics rebuild(Long userId) {
+        LocalDate today = LocalDate.now();
+        userStatisticsRepository.insertIfAbsent(userId, today, EMPTY_RECENT_COUNTS);
+        UserStatistics userStatistics = userStatisticsRepository.findForUpdate(userId)
+            .orElseGet(() -> new UserStatistics(userId, today));
+        searchHistoryRepository.markRolledUpByUserAndStatusIn(userId, FINISHED_NAMES);
+        return userStatisticsRepository.save(computeFromHistory(userStatistics, today));
+    }
+    
+    /**
+     * Overwrites every counter of {@code userStatistics} with aggregates over the user's
+     * rolled-up search_history rows.
+     */
+    private UserStatistics computeFromHistory(UserStatistics userStatistics, LocalDate today) {
+        Long userId = userStatistics.getUserId();
+        Object[] totals = searchHistoryRepository
+            .aggregateRolledUpByUser(userId, SearchHistory.SearchStatus.FAILED, HIGH_SIMILARITY_THRESHOLD).get(0);
+        userStatistics.setTotalSearches(toLong(totals[0]));
+        userStatistics.setFailedSearches(toLong(totals[1]));
+        userStatistics.setHighSimilaritySearches(toLong(totals[2]));
+        userStatistics.setSimilaritySum(totals[3] != null ? ((Number) totals[3]).doubleValue() : 0.0);
+        userStatistics.setSimilarityCount(toLong(totals[4]));
+        
+        userStatistics.setRecentDay(today);
+        userStatistics.setRecentCounts(new long[UserStatistics.RECENT_DAYS]);
+        LocalDateTime windowStart = today.minusDays(UserStatistics.RECENT_DAYS - 1).atStartOfDay();
+        for (LocalDateTime createdAt : searchHistoryRepository.findRolledUpCreatedAtByUserSince(userId, windowStart)) {
+            userStatistics.addRecent(createdAt.toLocalDate(), today);
+        }
+        return userStatistics;
+    }
+    
+    private static long toLong(Object value) {
+        return value != null ? ((Number) value).longValue() : 0L;
+    }
+}
@@ -0,0 +1,73 @@
+package com.plagiarism.detector.service;
+
+import com.plagiarism.detector.model.SearchResult;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Searches all phrases of a submission in parallel, one virtual thread per phrase, so the
+ * latency of a submission is that of its slowest search rather than the sum of all of them.
+ */
+@Service
+public class WebSearchService {
+
+    @Value("${search.timeout-ms:10000}")
+    private long timeoutMs;
+
+    @Value("${search.max-results:5}")
+    private int maxResults;
+
+    private final SearchProvider searchProvider;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+
+    public WebSearchService(SearchProvider searchProvider) {
+        this.searchProvider = searchProvider;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Whether searches can run in the JVM; callers fall back to the analyzer's search otherwise.
+     */
+    public boolean isAvailable() {
+        return searchProvider.isAvailable();
+    }
+
+    /**
+     * Starts one search per phrase. The future completes once every search has answered
+     * or hit its deadline, with results in phrase order.
+     */
+    public CompletableFuture<List<SearchResult>> searchAll(List<String> phrases) {
+        Duration timeout = Duration.ofMillis(timeoutMs);
+        List<CompletableFuture<Optional<SearchResult>>> searches = new ArrayList<>();
+        for (String phrase : phrases) {
+            searches.add(CompletableFuture
+                .supplyAsync(() -> searchProvider.search(phrase, timeout), executor)
+                .completeOnTimeout(Optional.empty(), timeoutMs, TimeUnit.MILLISECONDS));
+        }
+
+        return CompletableFuture.allOf(searches.toArray(new CompletableFuture[0])).thenApply(ignored -> {
+            List<SearchResult> results = new ArrayList<>();
+            for (CompletableFuture<Optional<SearchResult>> search : searches) {
+                search.join().ifPresent(results::add);
+                if (results.size() >= maxResults) {
+                    break;
+                }
+            }
+            return results;
+        });
+    }
+}
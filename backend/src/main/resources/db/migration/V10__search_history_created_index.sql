@@ -0,0 +1,3 @@
+-- Lets the retention job find the oldest rows across all users with a short index range
+-- scan instead of reading the whole table for every batch.
+CREATE INDEX idx_search_history_created ON search_history (created_at);
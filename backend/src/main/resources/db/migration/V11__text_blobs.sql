@@ -0,0 +1,22 @@
+-- Content-addressed store for submitted texts and matched snippets (see TextBlobStore).
+-- hash is the hex SHA-256 of the exact UTF-8 text; data is that text deflated (codec
+-- 'deflate') or as is when deflating would not shrink it (codec 'none').
+-- search_history.search_query and similarity_sources.matched_text are no longer written;
+-- existing values are moved into text_blobs by a background backfill and then cleared.
+CREATE TABLE text_blobs (
+    hash VARCHAR(64) NOT NULL,
+    codec VARCHAR(16) NOT NULL,
+    original_length INT NOT NULL,
+    data LONGBLOB NOT NULL,
+    created_at DATETIME(6),
+    PRIMARY KEY (hash)
+) ENGINE = InnoDB;
+
+ALTER TABLE search_history MODIFY search_query TEXT NULL;
+ALTER TABLE search_history ADD COLUMN query_blob VARCHAR(64);
+ALTER TABLE search_history
+    ADD CONSTRAINT fk_search_history_query_blob FOREIGN KEY (query_blob) REFERENCES text_blobs (hash);
+
+ALTER TABLE similarity_sources ADD COLUMN matched_text_blob VARCHAR(64);
+ALTER TABLE similarity_sources
+    ADD CONSTRAINT fk_similarity_sources_matched_text_blob FOREIGN KEY (matched_text_blob) REFERENCES text_blobs (hash);
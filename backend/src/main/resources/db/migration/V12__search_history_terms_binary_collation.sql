@@ -0,0 +1,6 @@
+-- Terms are case-folded in Java but compared as-is, so the column must not fold them
+-- again: under the default utf8mb4_0900_ai_ci "resume" and "résumé" are one key, and a
+-- text containing both failed its insert. Rows already stored are distinct under the
+-- accent-insensitive collation, so they stay distinct under the binary one.
+
+ALTER TABLE search_history_terms MODIFY term VARCHAR(40) NOT NULL COLLATE utf8mb4_bin;
@@ -0,0 +1,10 @@
+-- Whether a finished search is counted in its owner's user_statistics row. Folding a
+-- search in sets the flag under the rollup's row lock, so a search that both a rebuild
+-- and its own update see is still counted once. Existing rollups were built from every
+-- finished search, so those searches start out counted.
+
+ALTER TABLE search_history ADD COLUMN rolled_up BIT NOT NULL DEFAULT 0;
+
+UPDATE search_history SET rolled_up = 1
+WHERE status IN ('COMPLETED', 'FAILED')
+  AND user_id IN (SELECT user_id FROM user_statistics);
@@ -0,0 +1,45 @@
+-- Schema as it existed before migrations were introduced.
+-- Databases created earlier are baselined at this version and skip this script.
+
+CREATE TABLE users (
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    username VARCHAR(50) NOT NULL,
+    email VARCHAR(100) NOT NULL,
+    password VARCHAR(255) NOT NULL,
+    role ENUM('USER', 'ADMIN'),
+    created_at DATETIME(6),
+    updated_at DATETIME(6),
+    PRIMARY KEY (id),
+    CONSTRAINT uk_users_username UNIQUE (username),
+    CONSTRAINT uk_users_email UNIQUE (email)
+) ENGINE = InnoDB;
+
+CREATE TABLE search_history (
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    user_id BIGINT NOT NULL,
+    search_query TEXT NOT NULL,
+    text_length INT,
+    similarity_score DOUBLE,
+    ai_detected BIT,
+    ai_confidence DOUBLE,
+    sources_found INT,
+    processing_time_ms BIGINT,
+    created_at DATETIME(6),
+    status ENUM('PENDING', 'PROCESSING', 'COMPLETED', 'FAILED'),
+    error_message TEXT,
+    PRIMARY KEY (id),
+    CONSTRAINT fk_search_history_user FOREIGN KEY (user_id) REFERENCES users (id)
+) ENGINE = InnoDB;
+
+CREATE TABLE similarity_sources (
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    search_history_id BIGINT NOT NULL,
+    url TEXT NOT NULL,
+    title TEXT,
+    similarity_percentage DOUBLE NOT NULL,
+    matched_text LONGTEXT,
+    domain VARCHAR(255),
+    created_at DATETIME(6),
+    PRIMARY KEY (id),
+    CONSTRAINT fk_similarity_sources_search_history FOREIGN KEY (search_history_id) REFERENCES search_history (id)
+) ENGINE = InnoDB;
@@ -0,0 +1,3 @@
+-- Marks history rows whose result came from the analysis cache instead of a fresh run.
+ALTER TABLE search_history
+    ADD COLUMN served_from_cache BIT NOT NULL DEFAULT 0;
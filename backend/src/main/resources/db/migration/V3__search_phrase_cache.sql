@@ -0,0 +1,17 @@
+-- Results of outbound web searches, keyed by the SHA-256 of the normalized phrase.
+-- last_accessed_at drives LRU eviction once the table exceeds its size cap.
+
+CREATE TABLE search_phrase_cache (
+    phrase_hash CHAR(64) NOT NULL,
+    phrase VARCHAR(1024) NOT NULL,
+    url TEXT NOT NULL,
+    title TEXT,
+    snippet TEXT,
+    hit_count BIGINT NOT NULL DEFAULT 0,
+    created_at DATETIME(6) NOT NULL,
+    last_accessed_at DATETIME(6) NOT NULL,
+    expires_at DATETIME(6) NOT NULL,
+    PRIMARY KEY (phrase_hash),
+    INDEX idx_search_phrase_cache_last_accessed (last_accessed_at),
+    INDEX idx_search_phrase_cache_expires (expires_at)
+) ENGINE = InnoDB;
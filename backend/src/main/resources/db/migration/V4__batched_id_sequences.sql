@@ -0,0 +1,18 @@
+-- Ids for search_history and similarity_sources now come from pooled sequences
+-- (allocation size 50) so Hibernate can batch inserts. MySQL has no sequences, so
+-- each one is a single-row table. The first allocation hands out next_val - 49, so
+-- seed 50 past the current maximum to stay clear of existing rows.
+
+CREATE TABLE search_history_seq (
+    next_val BIGINT
+) ENGINE = InnoDB;
+
+INSERT INTO search_history_seq (next_val)
+SELECT COALESCE(MAX(id) + 51, 1) FROM search_history;
+
+CREATE TABLE similarity_sources_seq (
+    next_val BIGINT
+) ENGINE = InnoDB;
+
+INSERT INTO similarity_sources_seq (next_val)
+SELECT COALESCE(MAX(id) + 51, 1) FROM similarity_sources;
@@ -0,0 +1,17 @@
+-- Per-user rollup of finished analyses, kept up to date as each one completes or fails.
+-- recent_counts holds one count per day for the seven days ending at recent_day.
+-- Rows are built lazily from search_history the first time a user needs one.
+
+CREATE TABLE user_statistics (
+    user_id BIGINT NOT NULL,
+    total_searches BIGINT NOT NULL DEFAULT 0,
+    failed_searches BIGINT NOT NULL DEFAULT 0,
+    high_similarity_searches BIGINT NOT NULL DEFAULT 0,
+    similarity_sum DOUBLE NOT NULL DEFAULT 0,
+    similarity_count BIGINT NOT NULL DEFAULT 0,
+    recent_day DATE NOT NULL,
+    recent_counts VARCHAR(255) NOT NULL,
+    updated_at DATETIME(6),
+    PRIMARY KEY (user_id),
+    CONSTRAINT fk_user_statistics_user FOREIGN KEY (user_id) REFERENCES users (id)
+) ENGINE = InnoDB;
@@ -0,0 +1,13 @@
+-- Fixed-width fingerprint and short preview of each submitted text, so common-query
+-- and duplicate lookups group on an indexed CHAR(64) instead of the TEXT body.
+-- The hash matches TextFingerprint: SHA-256 of the text with whitespace runs
+-- collapsed to one space and the ends trimmed.
+
+ALTER TABLE search_history ADD COLUMN query_hash CHAR(64);
+ALTER TABLE search_history ADD COLUMN query_preview VARCHAR(200);
+
+UPDATE search_history
+SET query_hash = SHA2(TRIM(REGEXP_REPLACE(search_query, '[[:space:]]+', ' ')), 256),
+    query_preview = LEFT(TRIM(REGEXP_REPLACE(search_query, '[[:space:]]+', ' ')), 200);
+
+CREATE INDEX idx_search_history_user_query_hash ON search_history (user_id, query_hash);
@@ -0,0 +1,19 @@
+-- Inverted term index over submitted texts for history search. Terms are produced
+-- by HistorySearchService; rows written before this migration are indexed by its
+-- background backfill, which picks up search_history rows with terms_indexed = 0.
+
+ALTER TABLE search_history ADD COLUMN terms_indexed BIT NOT NULL DEFAULT 0;
+CREATE INDEX idx_search_history_terms_indexed ON search_history (terms_indexed);
+
+CREATE TABLE search_history_terms (
+    user_id BIGINT NOT NULL,
+    term VARCHAR(40) NOT NULL,
+    search_history_id BIGINT NOT NULL,
+    tf INT NOT NULL,
+    PRIMARY KEY (user_id, term, search_history_id),
+    CONSTRAINT fk_search_history_terms_search_history FOREIGN KEY (search_history_id)
+        REFERENCES search_history (id) ON DELETE CASCADE
+) ENGINE = InnoDB;
+
+-- Source lookups go through the extracted domain instead of LIKE '%...%' on the URL
+CREATE INDEX idx_similarity_sources_domain ON similarity_sources (domain);
@@ -0,0 +1,5 @@
+-- Per-stage breakdown of processing_time_ms as a small JSON object of stage -> ms,
+-- e.g. {"search":412,"python":380,"parse":0,"scoring":3}. NULL for cache hits and
+-- rows written before this migration.
+ALTER TABLE search_history
+    ADD COLUMN stage_timings VARCHAR(255);
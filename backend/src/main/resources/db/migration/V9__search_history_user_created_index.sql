@@ -0,0 +1,3 @@
+-- Serves the keyset-paginated history list: WHERE user_id = ? AND (created_at, id) < cursor
+-- ORDER BY created_at DESC, id DESC becomes a backward range scan of this index.
+CREATE INDEX idx_search_history_user_created ON search_history (user_id, created_at, id);
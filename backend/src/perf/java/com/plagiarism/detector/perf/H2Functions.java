@@ -0,0 +1,28 @@
+package com.plagiarism.detector.perf;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+/**
+ * MySQL functions used by the Flyway migrations that H2 lacks. The JMH benchmarks and
+ * the load test register them as aliases in the H2 URL, see {@link #H2_URL_INIT}.
+ */
+public final class H2Functions {
+
+    /** H2 URL suffix that registers the aliases on every new connection. */
+    public static final String H2_URL_INIT =
+        "INIT=CREATE ALIAS IF NOT EXISTS SHA2 FOR 'com.plagiarism.detector.perf.H2Functions.sha2'";
+
+    private H2Functions() {
+    }
+
+    public static String sha2(String value, int bits) throws NoSuchAlgorithmException {
+        if (value == null) {
+            return null;
+        }
+        byte[] digest = MessageDigest.getInstance("SHA-" + bits).digest(value.getBytes(StandardCharsets.UTF_8));
+        return HexFormat.of().formatHex(digest);
+    }
+}
@@ -0,0 +1,89 @@
+package com.plagiarism.detector.service;
+
+import com.plagiarism.detector.model.AnalysisRequest;
+import com.plagiarism.detector.model.BatchAnalysisResponse;
+import com.plagiarism.detector.model.User;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class AIServiceTest {
+
+    private final ExecutorService callers = Executors.newCachedThreadPool();
+    private BatchAnalysisService batchAnalysisService;
+    private AIService aiService;
+
+    @BeforeEach
+    void setUp() {
+        AnalysisAdmissionService admission = new AnalysisAdmissionService(new SimpleMeterRegistry(), 2);
+        ReflectionTestUtils.setField(admission, "enabled", true);
+        ReflectionTestUtils.setField(admission, "perUser", 1);
+        ReflectionTestUtils.setField(admission, "queueCapacity", 0);
+        ReflectionTestUtils.setField(admission, "maxWaitMs", 0L);
+
+        batchAnalysisService = mock(BatchAnalysisService.class);
+        aiService = new AIService(mock(PlagiarismAnalysisService.class), admission,
+            mock(DocumentUploadService.class), batchAnalysisService);
+    }
+
+    @AfterEach
+    void tearDown() {
+        callers.shutdownNow();
+    }
+
+    @Test
+    void aBatchHoldsOneOfTheUsersSlotsUntilItFinishes() throws Exception {
+        User alice = user(1L);
+        User bob = user(2L);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(batchAnalysisService.analyzeBatch(anyList(), eq(alice))).thenAnswer(invocation -> {
+            started.countDown();
+            release.await();
+            return new BatchAnalysisResponse();
+        });
+        when(batchAnalysisService.analyzeBatch(anyList(), eq(bob))).thenReturn(new BatchAnalysisResponse());
+
+        Future<BatchAnalysisResponse> first = callers.submit(() -> aiService.analyzeBatch(batch(), alice));
+        assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+
+        assertThatThrownBy(() -> aiService.analyzeBatch(batch(), alice))
+            .isInstanceOf(AnalysisAdmissionService.AdmissionRejectedException.class)
+            .satisfies(e -> assertThat(((AnalysisAdmissionService.AdmissionRejectedException) e)
+                .getRetryAfterSeconds()).isPositive());
+        // Other users still get in
+        assertThat(aiService.analyzeBatch(batch(), bob)).isNotNull();
+
+        release.countDown();
+        first.get(5, TimeUnit.SECONDS);
+        assertThat(aiService.analyzeBatch(batch(), alice)).isNotNull();
+    }
+
+    private static List<AnalysisRequest> batch() {
+        AnalysisRequest request = new AnalysisRequest();
+        request.setText("some text");
+        return List.of(request);
+    }
+
+    private static User user(Long id) {
+        User user = new User();
+        user.setId(id);
+        return user;
+    }
+}
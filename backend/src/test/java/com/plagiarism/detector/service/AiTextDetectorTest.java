@@ -0,0 +1,74 @@
+package com.plagiarism.detector.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Checks {@link AiTextDetector} against the features and confidences of
+ * {@code detect_ai_generated} in {@code ai_similarity.py}. The fixture is regenerated with
+ * {@code src/test/resources/ai_detection/generate_golden.py}.
+ */
+class AiTextDetectorTest {
+
+    private static final String GOLDEN = "/ai_detection/golden.ndjson";
+
+    private final AiTextDetector detector =
+        new AiTextDetector(List.of(new HeuristicAiScoringModel()), HeuristicAiScoringModel.NAME);
+
+    static List<Arguments> golden() throws IOException {
+        ObjectMapper mapper = new ObjectMapper();
+        List<Arguments> cases = new ArrayList<>();
+        try (InputStream in = AiTextDetectorTest.class.getResourceAsStream(GOLDEN);
+             BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8))) {
+            String line;
+            int number = 0;
+            while ((line = reader.readLine()) != null) {
+                number++;
+                JsonNode row = mapper.readTree(line);
+                cases.add(Arguments.of(number + ": " + row.get("kind").asText(), row.get("text").asText(), row));
+            }
+        }
+        return cases;
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("golden")
+    void matchesPythonFeatures(String name, String text, JsonNode row) {
+        JsonNode expected = row.get("features");
+        AiTextFeatures features = AiTextDetector.extractFeatures(text);
+
+        assertThat(features.getLength()).as("length").isEqualTo(expected.get("length").asInt());
+        assertThat(features.getSentences()).as("sentences").isEqualTo(expected.get("sentences").asInt());
+        assertThat(features.getSimilarSentencePairs()).as("similarSentencePairs")
+            .isEqualTo(expected.get("similarSentencePairs").asInt());
+        assertThat(features.getParagraphs()).as("paragraphs").isEqualTo(expected.get("paragraphs").asInt());
+        assertThat(features.getSimilarParagraphPairs()).as("similarParagraphPairs")
+            .isEqualTo(expected.get("similarParagraphPairs").asInt());
+        assertThat(features.getGenericPhrases()).as("genericPhrases")
+            .isEqualTo(expected.get("genericPhrases").asInt());
+        assertThat(features.getGenericPhraseOccurrences()).as("genericPhraseOccurrences")
+            .isEqualTo(expected.get("genericPhraseOccurrences").asInt());
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("golden")
+    void matchesPythonConfidence(String name, String text, JsonNode row) {
+        AiTextDetector.Detection detection = detector.detect(text);
+
+        assertThat(detection.getConfidence()).isEqualTo(row.get("confidence").asDouble());
+        assertThat(detection.isAiDetected()).isEqualTo(row.get("aiDetected").asBoolean());
+    }
+}
@@ -0,0 +1,103 @@
+package com.plagiarism.detector.service;
+
+import com.plagiarism.detector.model.AnalysisRequest;
+import com.plagiarism.detector.model.AnalysisResponse;
+import com.plagiarism.detector.model.BatchAnalysisResponse;
+import com.plagiarism.detector.model.SearchHistory;
+import com.plagiarism.detector.model.User;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.same;
+import static org.mockito.Mockito.doCallRealMethod;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class BatchAnalysisServiceTest {
+
+    private PlagiarismAnalysisService analysisService;
+    private BatchAnalysisService batchService;
+    private User user;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        analysisService = mock(PlagiarismAnalysisService.class);
+        when(analysisService.newSearchHistory(any(), any(), any())).thenAnswer(invocation -> {
+            SearchHistory searchHistory = new SearchHistory();
+            searchHistory.setUser(invocation.getArgument(1));
+            searchHistory.setStatus(invocation.getArgument(2));
+            return searchHistory;
+        });
+        when(analysisService.createSearchHistories(anyList())).thenAnswer(invocation -> {
+            List<SearchHistory> created = new ArrayList<>(invocation.getArgument(0));
+            for (int i = 0; i < created.size(); i++) {
+                created.get(i).setId(100L + i);
+            }
+            return created;
+        });
+        when(analysisService.computeAnalysis(any(), any())).thenAnswer(invocation -> {
+            AnalysisResponse response = new AnalysisResponse();
+            response.setSimilarityScore(12.5);
+            return new AnalysisResultCache.Lookup(response, false);
+        });
+        doCallRealMethod().when(analysisService).recordResult(any(), any(), anyLong());
+        doCallRealMethod().when(analysisService).recordFailure(any(), any());
+
+        batchService = new BatchAnalysisService(analysisService, new AnalysisMetrics(new SimpleMeterRegistry()), 2);
+        ReflectionTestUtils.setField(batchService, "maxItems", 10);
+
+        user = new User();
+        user.setId(7L);
+    }
+
+    @AfterEach
+    void tearDown() {
+        batchService.shutdown();
+    }
+
+    @Test
+    void savesAllResultsTogether() throws Exception {
+        BatchAnalysisResponse response = batchService.analyzeBatch(List.of(request("one"), request("two")), user);
+
+        assertThat(response.getFailedItems()).isZero();
+        assertThat(response.getItems()).extracting(item -> item.getResult().getSimilarityScore())
+            .containsExactly(12.5, 12.5);
+        verify(analysisService).saveResults(anyList(), anyList());
+    }
+
+    @Test
+    void failsEveryRowWhenSavingTheResultsFails() throws Exception {
+        DataIntegrityViolationException failure = new DataIntegrityViolationException("lost connection");
+        doThrow(failure).when(analysisService).saveResults(anyList(), anyList());
+
+        BatchAnalysisResponse response = batchService.analyzeBatch(
+            List.of(request("one"), request("two"), request("one")), user);
+
+        assertThat(response.getFailedItems()).isEqualTo(3);
+        assertThat(response.getItems()).allSatisfy(item ->
+            assertThat(item.getResult().getError()).isEqualTo("Analysis failed: lost connection"));
+        ArgumentCaptor<List<SearchHistory>> failed = ArgumentCaptor.captor();
+        verify(analysisService).saveFailures(failed.capture(), same(failure));
+        assertThat(failed.getValue()).extracting(SearchHistory::getId).containsExactly(100L, 101L, 102L);
+    }
+
+    private static AnalysisRequest request(String text) {
+        AnalysisRequest request = new AnalysisRequest();
+        request.setText(text);
+        return request;
+    }
+}
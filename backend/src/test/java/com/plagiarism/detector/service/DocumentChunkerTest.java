@@ -0,0 +1,55 @@
+package com.plagiarism.detector.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class DocumentChunkerTest {
+
+    @Test
+    void byteRangesDecodeToTheChunkText() {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < 40; i++) {
+            text.append("Paragraph ").append(i).append(" talks about café culture, Straße names and 東京.");
+            text.append(i % 3 == 0 ? "\n\n" : " ");
+        }
+        assertChunksMatchFile(text.toString(), 300);
+    }
+
+    @Test
+    void forcedCutDoesNotSplitASurrogatePair() {
+        // No whitespace or punctuation to cut at, with the limit landing inside a pair
+        String text = "a" + "😀".repeat(200);
+        List<DocumentChunker.Chunk> chunks = assertChunksMatchFile(text, 100);
+
+        for (DocumentChunker.Chunk chunk : chunks) {
+            assertThat(Character.isLowSurrogate(text.charAt(chunk.getStart()))).isFalse();
+        }
+    }
+
+    @Test
+    void blankWindowsAreSkippedButStillCounted() {
+        String text = "x".repeat(50) + " ".repeat(200) + "\n\n" + "y".repeat(50);
+        List<DocumentChunker.Chunk> chunks = assertChunksMatchFile(text, 100);
+
+        assertThat(chunks).allSatisfy(chunk -> assertThat(chunk.text(text)).isNotBlank());
+    }
+
+    private static List<DocumentChunker.Chunk> assertChunksMatchFile(String text, int maxChars) {
+        byte[] file = text.getBytes(StandardCharsets.UTF_8);
+        List<DocumentChunker.Chunk> chunks = DocumentChunker.split(text, maxChars);
+
+        assertThat(chunks).isNotEmpty();
+        for (DocumentChunker.Chunk chunk : chunks) {
+            assertThat(chunk.length()).isLessThanOrEqualTo(maxChars);
+            byte[] range = Arrays.copyOfRange(file, (int) chunk.getByteStart(), (int) chunk.getByteEnd());
+            assertThat(new String(range, StandardCharsets.UTF_8)).isEqualTo(chunk.text(text));
+        }
+        assertThat(DocumentChunker.utf8Length(text, 0, text.length())).isEqualTo(file.length);
+        return chunks;
+    }
+}
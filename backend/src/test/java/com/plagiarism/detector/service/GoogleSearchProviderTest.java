@@ -0,0 +1,113 @@
+package com.plagiarism.detector.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.plagiarism.detector.model.SearchResult;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class GoogleSearchProviderTest {
+
+    private StubHttpServer stub;
+    private GoogleSearchProvider provider;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        stub = new StubHttpServer();
+        provider = new GoogleSearchProvider(new ObjectMapper());
+        ReflectionTestUtils.setField(provider, "endpoint", stub.url() + "/customsearch/v1");
+        ReflectionTestUtils.setField(provider, "apiKey", "test-key");
+        ReflectionTestUtils.setField(provider, "cx", "test-cx");
+    }
+
+    @AfterEach
+    void tearDown() {
+        provider.shutdown();
+        stub.close();
+    }
+
+    @Test
+    void returnsTheFirstItem() {
+        stub.respond(request -> StubHttpServer.Reply.json(200,
+            "{\"items\":[{\"link\":\"https://example.org/a\",\"title\":\"First\",\"snippet\":\"first snippet\"},"
+                + "{\"link\":\"https://example.org/b\",\"title\":\"Second\",\"snippet\":\"second\"}]}"));
+
+        Optional<SearchResult> result = provider.search("café & co", Duration.ofSeconds(5));
+
+        assertThat(result).isPresent();
+        assertThat(result.get().getUrl()).isEqualTo("https://example.org/a");
+        assertThat(result.get().getTitle()).isEqualTo("First");
+        assertThat(result.get().getSnippet()).isEqualTo("first snippet");
+
+        StubHttpServer.Request request = stub.requests().get(0);
+        assertThat(request.path).isEqualTo("/customsearch/v1");
+        assertThat(request.query)
+            .containsEntry("q", "café & co")
+            .containsEntry("key", "test-key")
+            .containsEntry("cx", "test-cx");
+    }
+
+    @Test
+    void fillsInMissingFieldsLikeTheAnalyzer() {
+        stub.respond(request -> StubHttpServer.Reply.json(200, "{\"items\":[{\"link\":\"https://example.org/a\"}]}"));
+
+        SearchResult result = provider.search("phrase", Duration.ofSeconds(5)).orElseThrow();
+
+        assertThat(result.getTitle()).isEqualTo("Untitled");
+        assertThat(result.getSnippet()).isEmpty();
+    }
+
+    @Test
+    void noItemsIsEmpty() {
+        stub.respond(request -> StubHttpServer.Reply.json(200, "{\"searchInformation\":{\"totalResults\":\"0\"}}"));
+
+        assertThat(provider.search("phrase", Duration.ofSeconds(5))).isEmpty();
+    }
+
+    @Test
+    void non200IsEmpty() {
+        stub.respond(request -> StubHttpServer.Reply.json(403, "{\"error\":{\"code\":403,\"message\":\"quota\"}}"));
+        assertThat(provider.search("phrase", Duration.ofSeconds(5))).isEmpty();
+
+        stub.respond(request -> StubHttpServer.Reply.json(500, "oops"));
+        assertThat(provider.search("phrase", Duration.ofSeconds(5))).isEmpty();
+    }
+
+    @Test
+    void malformedBodyIsEmpty() {
+        stub.respond(request -> StubHttpServer.Reply.json(200, "not json"));
+
+        assertThat(provider.search("phrase", Duration.ofSeconds(5))).isEmpty();
+    }
+
+    @Test
+    void slowAnswerIsEmptyAfterTheTimeout() {
+        stub.respond(request -> StubHttpServer.Reply.json(200,
+            "{\"items\":[{\"link\":\"https://example.org/late\"}]}").after(2000));
+
+        long start = System.nanoTime();
+        Optional<SearchResult> result = provider.search("phrase", Duration.ofMillis(200));
+        long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+
+        assertThat(result).isEmpty();
+        assertThat(elapsedMs).isLessThan(1500);
+    }
+
+    @Test
+    void unavailableWithoutKeyOrCx() {
+        assertThat(provider.isAvailable()).isTrue();
+
+        ReflectionTestUtils.setField(provider, "apiKey", "");
+        assertThat(provider.isAvailable()).isFalse();
+
+        ReflectionTestUtils.setField(provider, "apiKey", "test-key");
+        ReflectionTestUtils.setField(provider, "cx", " ");
+        assertThat(provider.isAvailable()).isFalse();
+    }
+}
@@ -0,0 +1,58 @@
+package com.plagiarism.detector.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Pins the statement settings Connector/J needs to stream the export row by row
+ * (forward-only, read-only, fetch size {@link Integer#MIN_VALUE}).
+ */
+class HistoryExportServiceTest {
+
+    private final HistoryExportService service = new HistoryExportService(
+        mock(DataSource.class), new ObjectMapper(), new SimpleMeterRegistry(), 250);
+
+    @Test
+    void streamsRowByRowOnMySql() throws Exception {
+        PreparedStatement statement = mock(PreparedStatement.class);
+        Connection connection = connection("MySQL", statement);
+
+        service.streamingStatement("SELECT 1", 42L).createPreparedStatement(connection);
+
+        verify(connection).prepareStatement("SELECT 1", ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+        verify(statement).setFetchSize(Integer.MIN_VALUE);
+        verify(statement).setLong(1, 42L);
+    }
+
+    @Test
+    void usesTheFetchSizeOnOtherDatabases() throws Exception {
+        PreparedStatement statement = mock(PreparedStatement.class);
+        Connection connection = connection("H2", statement);
+
+        service.streamingStatement("SELECT 1", 42L).createPreparedStatement(connection);
+
+        verify(statement).setFetchSize(250);
+        verify(statement).setLong(1, 42L);
+    }
+
+    private static Connection connection(String product, PreparedStatement statement) throws Exception {
+        Connection connection = mock(Connection.class);
+        DatabaseMetaData metaData = mock(DatabaseMetaData.class);
+        when(metaData.getDatabaseProductName()).thenReturn(product);
+        when(connection.getMetaData()).thenReturn(metaData);
+        when(connection.prepareStatement("SELECT 1", ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY))
+            .thenReturn(statement);
+        return connection;
+    }
+}
@@ -0,0 +1,172 @@
+package com.plagiarism.detector.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.plagiarism.detector.model.AnalyzerResult;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Drives {@link RemoteAnalyzerClient} against two in-process analyzers. The primary
+ * answers with a similarity score of 0.1 and the backup with 0.9, so every result shows
+ * which endpoint produced it.
+ */
+class RemoteAnalyzerClientTest {
+
+    private static final int FAILURE_THRESHOLD = 3;
+    private static final long RESET_TIMEOUT_MS = 1000;
+    private static final String PRIMARY_REPLY = "{\"similarityScore\":0.1,\"matchedSources\":[]}";
+    private static final String BACKUP_REPLY = "{\"similarityScore\":0.9,\"matchedSources\":[]}";
+
+    private StubHttpServer primary;
+    private StubHttpServer backup;
+    private RemoteAnalyzerClient client;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        primary = new StubHttpServer();
+        backup = new StubHttpServer();
+        primary.respond(request -> StubHttpServer.Reply.json(200, PRIMARY_REPLY));
+        backup.respond(request -> StubHttpServer.Reply.json(200, BACKUP_REPLY));
+
+        client = new RemoteAnalyzerClient(new ObjectMapper(), new SimpleMeterRegistry(),
+            FAILURE_THRESHOLD, 10_000, RESET_TIMEOUT_MS, 0.95);
+        ReflectionTestUtils.setField(client, "enabled", true);
+        ReflectionTestUtils.setField(client, "primaryUrl", primary.url());
+        ReflectionTestUtils.setField(client, "backupUrl", backup.url());
+        ReflectionTestUtils.setField(client, "requestTimeoutMs", 5000L);
+        ReflectionTestUtils.setField(client, "hedgingEnabled", false);
+        ReflectionTestUtils.setField(client, "hedgeMinSamples", 5L);
+        ReflectionTestUtils.setField(client, "hedgeMinDelayMs", 50L);
+        ReflectionTestUtils.setField(client, "maxReplyBytes", 1L << 20);
+    }
+
+    @AfterEach
+    void tearDown() {
+        client.shutdown();
+        primary.close();
+        backup.close();
+    }
+
+    @Test
+    void usesThePrimaryWhenItAnswers() throws Exception {
+        AnalyzerResult result = client.analyze("some text", true, false, true);
+
+        assertThat(result.getSimilarityScore()).isEqualTo(0.1);
+        assertThat(primary.requests("/analyze")).hasSize(1);
+        assertThat(primary.requests("/analyze").get(0).body)
+            .contains("\"text\":\"some text\"", "\"paraphrasing\":true", "\"scoring\":false", "\"search\":true");
+        assertThat(backup.requests()).isEmpty();
+    }
+
+    @Test
+    void failsOverToTheBackupOnPrimary5xx() throws Exception {
+        primary.respond(request -> StubHttpServer.Reply.json(503, "{\"error\":\"overloaded\"}"));
+
+        AnalyzerResult result = client.analyze("some text", false, true, true);
+
+        assertThat(result.getSimilarityScore()).isEqualTo(0.9);
+        assertThat(primary.requests("/analyze")).hasSize(1);
+        assertThat(backup.requests("/analyze")).hasSize(1);
+        assertThat(client.getStats()).containsEntry("failovers", 1L);
+    }
+
+    @Test
+    void failsWhenBothEndpointsFail() {
+        primary.respond(request -> StubHttpServer.Reply.json(500, "{}"));
+        backup.respond(request -> StubHttpServer.Reply.json(502, "{}"));
+
+        assertThatThrownBy(() -> client.analyze("some text", false, true, true))
+            .isInstanceOf(IOException.class)
+            .hasMessageContaining("HTTP 502");
+    }
+
+    @Test
+    void shortCircuitsThePrimaryAfterTheFailureThreshold() throws Exception {
+        primary.respond(request -> StubHttpServer.Reply.json(500, "{}"));
+
+        for (int i = 0; i < FAILURE_THRESHOLD; i++) {
+            assertThat(client.analyze("text " + i, false, true, true).getSimilarityScore()).isEqualTo(0.9);
+        }
+        assertThat(client.getStats()).containsEntry("primaryCircuitOpen", true);
+
+        for (int i = 0; i < 3; i++) {
+            assertThat(client.analyze("more " + i, false, true, true).getSimilarityScore()).isEqualTo(0.9);
+        }
+        // The open breaker kept the later calls away from the primary
+        assertThat(primary.requests("/analyze")).hasSize(FAILURE_THRESHOLD);
+        assertThat(backup.requests("/analyze")).hasSize(FAILURE_THRESHOLD + 3);
+    }
+
+    @Test
+    void closesAgainAfterTheResetTimeout() throws Exception {
+        // The reset timeout counts from the first failure, so keep the cold connection out of it
+        client.analyze("warm", false, true, true);
+        primary.respond(request -> StubHttpServer.Reply.json(500, "{}"));
+        for (int i = 0; i < FAILURE_THRESHOLD; i++) {
+            client.analyze("text " + i, false, true, true);
+        }
+        assertThat(client.getStats()).containsEntry("primaryCircuitOpen", true);
+
+        primary.respond(request -> StubHttpServer.Reply.json(200, PRIMARY_REPLY));
+        assertThat(client.analyze("while open", false, true, true).getSimilarityScore()).isEqualTo(0.9);
+
+        Thread.sleep(RESET_TIMEOUT_MS + 200);
+
+        assertThat(client.analyze("after reset", false, true, true).getSimilarityScore()).isEqualTo(0.1);
+        assertThat(primary.requests("/analyze")).hasSize(FAILURE_THRESHOLD + 2);
+        assertThat(client.getStats()).containsEntry("primaryCircuitOpen", false);
+    }
+
+    @Test
+    void hedgesASlowPrimaryAndTheBackupWins() throws Exception {
+        ReflectionTestUtils.setField(client, "hedgingEnabled", true);
+        // Enough fast samples for a hedge delay: the 50 ms floor or a little above it
+        for (int i = 0; i < 5; i++) {
+            client.analyze("warm " + i, false, true, true);
+        }
+        assertThat((Long) client.getStats().get("hedgeDelayMs")).isBetween(50L, 1000L);
+        assertThat(backup.requests()).isEmpty();
+
+        primary.respond(request -> StubHttpServer.Reply.json(200, PRIMARY_REPLY).after(3000));
+        long start = System.nanoTime();
+        AnalyzerResult result = client.analyze("slow one", false, true, true);
+        long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+
+        assertThat(result.getSimilarityScore()).isEqualTo(0.9);
+        assertThat(elapsedMs).isLessThan(2000);
+        assertThat(backup.requests("/analyze")).hasSize(1);
+        // The winner is counted just after it completes the caller's future
+        awaitStat("hedgesWonByBackup", 1L);
+        assertThat(client.getStats())
+            .containsEntry("hedgesWonByPrimary", 0L)
+            .containsEntry("failovers", 0L);
+    }
+
+    @Test
+    void fastPrimaryIsNotHedged() throws Exception {
+        ReflectionTestUtils.setField(client, "hedgingEnabled", true);
+        primary.respond(request -> StubHttpServer.Reply.json(200, PRIMARY_REPLY).after(20));
+        for (int i = 0; i < 5; i++) {
+            client.analyze("warm " + i, false, true, true);
+        }
+
+        assertThat(client.analyze("fast one", false, true, true).getSimilarityScore()).isEqualTo(0.1);
+        assertThat(backup.requests()).isEmpty();
+    }
+
+    private void awaitStat(String name, Object expected) throws InterruptedException {
+        long deadline = System.nanoTime() + 1_000_000_000L;
+        while (!expected.equals(client.getStats().get(name)) && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertThat(client.getStats()).containsEntry(name, expected);
+    }
+}
@@ -0,0 +1,93 @@
+package com.plagiarism.detector.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Checks {@link SimilarityEngine} against ratios computed by {@code ai_similarity.py}.
+ * The fixture is regenerated with {@code src/test/resources/similarity/generate_golden.py}.
+ */
+class SimilarityEngineTest {
+
+    private static final String GOLDEN = "/similarity/golden.ndjson";
+
+    private final SimilarityEngine engine = new SimilarityEngine();
+
+    static List<Arguments> golden() throws IOException {
+        ObjectMapper mapper = new ObjectMapper();
+        List<Arguments> cases = new ArrayList<>();
+        try (InputStream in = SimilarityEngineTest.class.getResourceAsStream(GOLDEN);
+             BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8))) {
+            String line;
+            int number = 0;
+            while ((line = reader.readLine()) != null) {
+                number++;
+                JsonNode row = mapper.readTree(line);
+                cases.add(Arguments.of(number + ": " + row.get("kind").asText(),
+                    row.get("text1").asText(), row.get("text2").asText(), row.get("ratio").asDouble()));
+            }
+        }
+        return cases;
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("golden")
+    void matchesPythonRatio(String name, String text1, String text2, double pythonRatio) {
+        assertThat(engine.calculateSimilarity(text1, text2)).isEqualTo(pythonRatio);
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("golden")
+    void thresholdOnlyDropsScoresAtOrBelowIt(String name, String text1, String text2, double pythonRatio) {
+        double score = engine.calculateSimilarity(text1, text2, SimilarityEngine.RELEVANCE_THRESHOLD);
+        if (pythonRatio > SimilarityEngine.RELEVANCE_THRESHOLD) {
+            assertThat(score).isEqualTo(pythonRatio);
+        } else {
+            assertThat(score).isLessThanOrEqualTo(SimilarityEngine.RELEVANCE_THRESHOLD);
+        }
+    }
+
+    @Test
+    void fixtureExercisesAutojunk() throws IOException {
+        ObjectMapper mapper = new ObjectMapper();
+        int affected = 0;
+        try (InputStream in = getClass().getResourceAsStream(GOLDEN);
+             BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (mapper.readTree(line).path("autojunkChangesRatio").asBoolean()) {
+                    affected++;
+                }
+            }
+        }
+        assertThat(affected).isPositive();
+    }
+
+    @Test
+    void roundsHalfEvenOnTheBinaryValue() {
+        assertThat(SimilarityEngine.round(0.03125, 4)).isEqualTo(0.0312);
+        assertThat(SimilarityEngine.round(0.59375, 4)).isEqualTo(0.5938);
+        // 0.00015 is stored just below the tie, as in Python
+        assertThat(SimilarityEngine.round(0.00015, 4)).isEqualTo(0.0001);
+    }
+
+    @Test
+    void emptyOrNullInputScoresZero() {
+        assertThat(engine.calculateSimilarity(null, "text")).isZero();
+        assertThat(engine.calculateSimilarity("text", "")).isZero();
+    }
+}
@@ -0,0 +1,132 @@
+package com.plagiarism.detector.service;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.function.Function;
+
+/**
+ * In-process HTTP server for tests. Every request is recorded and answered by the current
+ * responder, which tests can swap at any time; a reply may be delayed to simulate a slow
+ * backend.
+ */
+final class StubHttpServer implements AutoCloseable {
+
+    private final HttpServer server;
+    private final List<Request> requests = new CopyOnWriteArrayList<>();
+    private volatile Function<Request, Reply> responder = request -> Reply.json(200, "{}");
+
+    StubHttpServer() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+        server.createContext("/", this::handle);
+        server.start();
+    }
+
+    String url() {
+        return "http://127.0.0.1:" + server.getAddress().getPort();
+    }
+
+    void respond(Function<Request, Reply> responder) {
+        this.responder = responder;
+    }
+
+    List<Request> requests() {
+        return requests;
+    }
+
+    List<Request> requests(String path) {
+        return requests.stream().filter(request -> request.path.equals(path)).toList();
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        String body;
+        try (InputStream in = exchange.getRequestBody()) {
+            body = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+        Request request = new Request(exchange.getRequestURI().getPath(),
+            parseQuery(exchange.getRequestURI().getRawQuery()), body);
+        requests.add(request);
+
+        Reply reply = responder.apply(request);
+        if (reply.delayMs > 0) {
+            try {
+                Thread.sleep(reply.delayMs);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        byte[] bytes = reply.body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        try {
+            exchange.sendResponseHeaders(reply.status, bytes.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(bytes);
+            }
+        } catch (IOException e) {
+            // The client gave up waiting
+        }
+    }
+
+    private static Map<String, String> parseQuery(String rawQuery) {
+        Map<String, String> parameters = new HashMap<>();
+        if (rawQuery != null) {
+            for (String pair : rawQuery.split("&")) {
+                int eq = pair.indexOf('=');
+                if (eq > 0) {
+                    parameters.put(URLDecoder.decode(pair.substring(0, eq), StandardCharsets.UTF_8),
+                        URLDecoder.decode(pair.substring(eq + 1), StandardCharsets.UTF_8));
+                }
+            }
+        }
+        return parameters;
+    }
+
+    static final class Request {
+        final String path;
+        final Map<String, String> query;
+        final String body;
+
+        Request(String path, Map<String, String> query, String body) {
+            this.path = path;
+            this.query = query;
+            this.body = body;
+        }
+    }
+
+    static final class Reply {
+        final int status;
+        final String body;
+        final long delayMs;
+
+        private Reply(int status, String body, long delayMs) {
+            this.status = status;
+            this.body = body;
+            this.delayMs = delayMs;
+        }
+
+        static Reply json(int status, String body) {
+            return new Reply(status, body, 0);
+        }
+
+        Reply after(long delayMs) {
+            return new Reply(status, body, delayMs);
+        }
+    }
+}
@@ -0,0 +1,150 @@
+package com.plagiarism.detector.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.assertj.core.api.InstanceOfAssertFactories;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.contains;
+import static org.mockito.ArgumentMatchers.endsWith;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class TextBlobStoreTest {
+
+    private static final String SELECT_SQL = "SELECT hash FROM text_blobs WHERE hash IN (:hashes)";
+
+    private NamedParameterJdbcTemplate jdbcTemplate;
+    private TextBlobStore store;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate = mock(NamedParameterJdbcTemplate.class);
+        store = new TextBlobStore(jdbcTemplate, mock(TransactionTemplate.class), new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(store, "compressionLevel", 6);
+    }
+
+    @Test
+    void sharesLocksOnStoredTextsAndWritesOnlyNewOnes() {
+        database("MySQL");
+        String stored = TextBlobStore.hash("already stored");
+        when(jdbcTemplate.queryForList(eq(SELECT_SQL), any(SqlParameterSource.class), eq(String.class)))
+            .thenReturn(List.of(stored));
+        when(jdbcTemplate.queryForList(contains("FOR SHARE"), any(SqlParameterSource.class), eq(String.class)))
+            .thenReturn(List.of(stored));
+
+        Map<String, String> keys = store.putAll(Arrays.asList("zeta", "already stored", null, "alpha", "zeta"));
+
+        assertThat(keys).containsOnlyKeys("zeta", "already stored", "alpha")
+            .containsEntry("already stored", stored);
+        ArgumentCaptor<MapSqlParameterSource> lockParams = ArgumentCaptor.captor();
+        verify(jdbcTemplate).queryForList(
+            eq(SELECT_SQL + " ORDER BY hash FOR SHARE"), lockParams.capture(), eq(String.class));
+        assertThat(lockParams.getValue().getValue("hashes")).asInstanceOf(InstanceOfAssertFactories.ITERABLE)
+            .containsExactly(stored);
+
+        List<String> written = writtenHashes();
+        assertThat(written).containsExactlyInAnyOrder(keys.get("zeta"), keys.get("alpha")).isSorted();
+    }
+
+    @Test
+    void skipsTheUpsertWhenEveryTextIsStored() {
+        database("MySQL");
+        String stored = TextBlobStore.hash("already stored");
+        when(jdbcTemplate.queryForList(anyString(), any(SqlParameterSource.class), eq(String.class)))
+            .thenReturn(List.of(stored));
+
+        store.putAll(List.of("already stored"));
+
+        verify(jdbcTemplate, never()).batchUpdate(anyString(), any(SqlParameterSource[].class));
+    }
+
+    @Test
+    void writesATextThatWasDeletedBeforeItCouldBeLocked() {
+        database("H2");
+        String stored = TextBlobStore.hash("just deleted");
+        when(jdbcTemplate.queryForList(eq(SELECT_SQL), any(SqlParameterSource.class), eq(String.class)))
+            .thenReturn(List.of(stored));
+        when(jdbcTemplate.queryForList(endsWith("FOR UPDATE"), any(SqlParameterSource.class), eq(String.class)))
+            .thenReturn(List.of());
+
+        store.putAll(List.of("just deleted"));
+
+        assertThat(writtenHashes()).containsExactly(stored);
+    }
+
+    @Test
+    void lockingIsSkippedWhenNothingIsStored() {
+        when(jdbcTemplate.queryForList(eq(SELECT_SQL), any(SqlParameterSource.class), eq(String.class)))
+            .thenReturn(List.of());
+
+        store.putAll(List.of("new text"));
+
+        verify(jdbcTemplate, never()).getJdbcTemplate();
+        assertThat(writtenHashes()).containsExactly(TextBlobStore.hash("new text"));
+    }
+
+    @Test
+    void decodesWhatItWrites() {
+        when(jdbcTemplate.queryForList(eq(SELECT_SQL), any(SqlParameterSource.class), eq(String.class)))
+            .thenReturn(List.of());
+        String repetitive = "Plagiarism check über straße 東京. ".repeat(40);
+        String shortText = "é";
+
+        store.putAll(List.of(repetitive, shortText));
+
+        Map<String, String> decoded = new HashMap<>();
+        Map<String, String> codecs = new HashMap<>();
+        for (SqlParameterSource row : written()) {
+            String text = TextBlobStore.decode((String) row.getValue("codec"),
+                (Integer) row.getValue("originalLength"), (byte[]) row.getValue("data"));
+            decoded.put((String) row.getValue("hash"), text);
+            codecs.put(text, (String) row.getValue("codec"));
+        }
+        assertThat(decoded).containsEntry(TextBlobStore.hash(repetitive), repetitive)
+            .containsEntry(TextBlobStore.hash(shortText), shortText);
+        assertThat(codecs).containsEntry(repetitive, TextBlobStore.CODEC_DEFLATE)
+            .containsEntry(shortText, TextBlobStore.CODEC_NONE);
+    }
+
+    @SuppressWarnings("unchecked")
+    private void database(String product) {
+        JdbcTemplate plain = mock(JdbcTemplate.class);
+        when(plain.execute(any(ConnectionCallback.class))).thenReturn(product);
+        when(jdbcTemplate.getJdbcTemplate()).thenReturn(plain);
+    }
+
+    private List<SqlParameterSource> written() {
+        ArgumentCaptor<SqlParameterSource[]> batch = ArgumentCaptor.captor();
+        verify(jdbcTemplate).batchUpdate(contains("INSERT INTO text_blobs"), batch.capture());
+        return Arrays.asList(batch.getValue());
+    }
+
+    private List<String> writtenHashes() {
+        List<String> hashes = new ArrayList<>();
+        for (SqlParameterSource row : written()) {
+            hashes.add((String) row.getValue("hash"));
+        }
+        return hashes;
+    }
+}
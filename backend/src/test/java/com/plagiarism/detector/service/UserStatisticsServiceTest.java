@@ -0,0 +1,141 @@
+package com.plagiarism.detector.service;
+
+import com.plagiarism.detector.model.SearchHistory;
+import com.plagiarism.detector.model.User;
+import com.plagiarism.detector.model.UserStatistics;
+import com.plagiarism.detector.repository.SearchHistoryRepository;
+import com.plagiarism.detector.repository.UserStatisticsRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class UserStatisticsServiceTest {
+
+    private UserStatisticsRepository userStatisticsRepository;
+    private SearchHistoryRepository searchHistoryRepository;
+    private UserStatisticsService service;
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        userStatisticsRepository = mock(UserStatisticsRepository.class);
+        searchHistoryRepository = mock(SearchHistoryRepository.class);
+        PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+        when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+        service = new UserStatisticsService(userStatisticsRepository, searchHistoryRepository,
+            new TransactionTemplate(transactionManager));
+
+        user = new User();
+        user.setId(7L);
+    }
+
+    @Test
+    void countsOnlyRowsNoRebuildCountedYet() {
+        UserStatistics rollup = new UserStatistics(7L, LocalDate.now());
+        rollup.setTotalSearches(1);
+        when(userStatisticsRepository.findForUpdate(7L)).thenReturn(Optional.of(rollup));
+        // Row 1 was already counted by a rebuild that held the lock first
+        when(searchHistoryRepository.findIdsNotRolledUp(anyCollection())).thenReturn(List.of(2L));
+
+        service.recordFinished(List.of(finished(1L, 80.0), finished(2L, 20.0)));
+
+        assertThat(rollup.getTotalSearches()).isEqualTo(2);
+        assertThat(rollup.getHighSimilaritySearches()).isZero();
+        assertThat(rollup.getSimilaritySum()).isEqualTo(20.0);
+        ArgumentCaptor<Set<Long>> marked = ArgumentCaptor.captor();
+        verify(searchHistoryRepository).markRolledUp(marked.capture());
+        assertThat(marked.getValue()).containsExactly(2L);
+        verify(userStatisticsRepository).save(rollup);
+    }
+
+    @Test
+    void leavesTheRollupAloneWhenEveryRowIsCounted() {
+        UserStatistics rollup = new UserStatistics(7L, LocalDate.now());
+        when(userStatisticsRepository.findForUpdate(7L)).thenReturn(Optional.of(rollup));
+        when(searchHistoryRepository.findIdsNotRolledUp(anyCollection())).thenReturn(List.of());
+
+        service.recordFinished(List.of(finished(1L, 80.0)));
+
+        verify(searchHistoryRepository, never()).markRolledUp(anyCollection());
+        verify(userStatisticsRepository, never()).save(any());
+        assertThat(rollup.getTotalSearches()).isZero();
+    }
+
+    @Test
+    void subtractsDeletedRowsTheRollupCounted() {
+        LocalDate today = LocalDate.now();
+        UserStatistics rollup = new UserStatistics(7L, today);
+        rollup.setTotalSearches(3);
+        rollup.setFailedSearches(1);
+        rollup.setHighSimilaritySearches(1);
+        rollup.setSimilaritySum(100.0);
+        rollup.setSimilarityCount(2);
+        rollup.addRecent(today.minusDays(2), today);
+        rollup.addRecent(today, today);
+        when(userStatisticsRepository.findForUpdate(7L)).thenReturn(Optional.of(rollup));
+
+        SearchHistory counted = finished(1L, 80.0);
+        counted.setRolledUp(true);
+        counted.setCreatedAt(today.minusDays(2).atTime(9, 0));
+        SearchHistory failed = finished(2L, null);
+        failed.setStatus(SearchHistory.SearchStatus.FAILED);
+        failed.setRolledUp(true);
+        // Finished but not folded in yet, so not in the rollup either
+        SearchHistory uncounted = finished(3L, 30.0);
+        when(searchHistoryRepository.findAllForUpdate(List.of(1L, 2L, 3L))).thenReturn(List.of(counted, failed, uncounted));
+
+        service.recordDeleted(Set.of(7L), List.of(1L, 2L, 3L));
+
+        assertThat(rollup.getTotalSearches()).isEqualTo(1);
+        assertThat(rollup.getFailedSearches()).isZero();
+        assertThat(rollup.getHighSimilaritySearches()).isZero();
+        assertThat(rollup.getSimilaritySum()).isEqualTo(20.0);
+        assertThat(rollup.getSimilarityCount()).isEqualTo(1);
+        assertThat(rollup.recentTotal(today)).isZero();
+        ArgumentCaptor<Iterable<UserStatistics>> saved = ArgumentCaptor.captor();
+        verify(userStatisticsRepository).saveAll(saved.capture());
+        assertThat(saved.getValue()).containsExactly(rollup);
+        verify(userStatisticsRepository, never()).delete(any());
+    }
+
+    @Test
+    void leavesUsersWithoutARollupAlone() {
+        when(userStatisticsRepository.findForUpdate(7L)).thenReturn(Optional.empty());
+        SearchHistory counted = finished(1L, 80.0);
+        counted.setRolledUp(true);
+        when(searchHistoryRepository.findAllForUpdate(List.of(1L))).thenReturn(List.of(counted));
+
+        service.recordDeleted(Set.of(7L), List.of(1L));
+
+        ArgumentCaptor<Iterable<UserStatistics>> saved = ArgumentCaptor.captor();
+        verify(userStatisticsRepository).saveAll(saved.capture());
+        assertThat(saved.getValue()).isEmpty();
+    }
+
+    private SearchHistory finished(Long id, Double score) {
+        SearchHistory searchHistory = new SearchHistory();
+        searchHistory.setId(id);
+        searchHistory.setUser(user);
+        searchHistory.setStatus(SearchHistory.SearchStatus.COMPLETED);
+        searchHistory.setSimilarityScore(score);
+        searchHistory.setCreatedAt(LocalDateTime.now());
+        return searchHistory;
+    }
+}
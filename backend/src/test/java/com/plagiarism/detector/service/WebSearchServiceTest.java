@@ -0,0 +1,113 @@
+package com.plagiarism.detector.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.plagiarism.detector.model.SearchResult;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Drives {@link WebSearchService} through a real {@link GoogleSearchProvider} against a
+ * stub search endpoint that answers by phrase: "slow" takes 3 s, "wait" 400 ms, "error"
+ * fails with 500, "none" has no items and anything else returns one item linking to the phrase.
+ */
+class WebSearchServiceTest {
+
+    private static final long TIMEOUT_MS = 1000;
+
+    private StubHttpServer stub;
+    private GoogleSearchProvider provider;
+    private WebSearchService service;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        stub = new StubHttpServer();
+        stub.respond(request -> {
+            String phrase = request.query.get("q");
+            switch (phrase) {
+                case "error":
+                    return StubHttpServer.Reply.json(500, "{}");
+                case "none":
+                    return StubHttpServer.Reply.json(200, "{}");
+                default:
+                    StubHttpServer.Reply reply = StubHttpServer.Reply.json(200,
+                        "{\"items\":[{\"link\":\"https://example.org/" + phrase + "\",\"title\":\"" + phrase
+                            + "\",\"snippet\":\"about " + phrase + "\"}]}");
+                    return phrase.startsWith("slow") ? reply.after(3000)
+                        : phrase.startsWith("wait") ? reply.after(400) : reply;
+            }
+        });
+
+        provider = new GoogleSearchProvider(new ObjectMapper());
+        ReflectionTestUtils.setField(provider, "endpoint", stub.url() + "/search");
+        ReflectionTestUtils.setField(provider, "apiKey", "test-key");
+        ReflectionTestUtils.setField(provider, "cx", "test-cx");
+
+        service = new WebSearchService(provider);
+        ReflectionTestUtils.setField(service, "timeoutMs", TIMEOUT_MS);
+        ReflectionTestUtils.setField(service, "maxResults", 5);
+    }
+
+    @AfterEach
+    void tearDown() {
+        service.shutdown();
+        provider.shutdown();
+        stub.close();
+    }
+
+    @Test
+    void keepsPhraseOrderAndSkipsFailedOrEmptySearches() throws Exception {
+        List<SearchResult> results = service.searchAll(List.of("alpha", "error", "beta", "none", "gamma"))
+            .get(5, TimeUnit.SECONDS);
+
+        assertThat(results).extracting(SearchResult::getTitle).containsExactly("alpha", "beta", "gamma");
+        assertThat(stub.requests()).hasSize(5);
+    }
+
+    @Test
+    void slowPhraseIsDroppedAtItsDeadline() throws Exception {
+        long start = System.nanoTime();
+        List<SearchResult> results = service.searchAll(List.of("alpha", "slow", "beta"))
+            .get(5, TimeUnit.SECONDS);
+        long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+
+        assertThat(results).extracting(SearchResult::getTitle).containsExactly("alpha", "beta");
+        assertThat(elapsedMs).isGreaterThanOrEqualTo(TIMEOUT_MS - 50).isLessThan(2500);
+    }
+
+    @Test
+    void searchesRunInParallel() throws Exception {
+        // Five 400 ms searches one after another would take 2 s
+        long start = System.nanoTime();
+        List<SearchResult> results = service.searchAll(List.of("wait1", "wait2", "wait3", "wait4", "wait5"))
+            .get(5, TimeUnit.SECONDS);
+        long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+
+        assertThat(results).hasSize(5);
+        assertThat(elapsedMs).isLessThan(1500);
+    }
+
+    @Test
+    void stopsAtMaxResults() throws Exception {
+        ReflectionTestUtils.setField(service, "maxResults", 2);
+
+        List<SearchResult> results = service.searchAll(List.of("a", "b", "c", "d")).get(5, TimeUnit.SECONDS);
+
+        assertThat(results).extracting(SearchResult::getTitle).containsExactly("a", "b");
+    }
+
+    @Test
+    void unavailableWithoutCredentials() {
+        assertThat(service.isAvailable()).isTrue();
+
+        ReflectionTestUtils.setField(provider, "apiKey", "");
+
+        assertThat(service.isAvailable()).isFalse();
+    }
+}
@@ -0,0 +1,144 @@
+"""
+Regenerates golden.ndjson, the texts AiTextDetectorTest checks against, with the features
+and confidence AISimilarityService.detect_ai_generated in ai_similarity.py derives from
+them.
+
+    cd backend && python3 src/test/resources/ai_detection/generate_golden.py
+
+The features are counted with the same splits the Python checks use; phrase occurrences
+count overlapping matches in text.lower(), as AiTextDetector reports them.
+"""
+import json
+import os
+import random
+import re
+import sys
+
+HERE = os.path.dirname(os.path.abspath(__file__))
+sys.path.insert(0, os.path.join(HERE, "..", "..", "..", "..", "ai_service"))
+
+from ai_similarity import AISimilarityService  # noqa: E402
+
+GENERIC_PHRASES = [
+    "it is important to", "in conclusion", "furthermore", "moreover",
+    "additionally", "it should be noted", "as mentioned earlier",
+    "it is worth noting", "it is clear that", "it can be seen that"
+]
+
+WORDS = ("the quick brown fox jumps over lazy dog students essay research paper analysis "
+         "results method data evidence history culture science theory argument source "
+         "café naïve straße Ελλάδα москва 東京 İstanbul").split()
+
+
+def similar_pairs(pieces, within):
+    return sum(1 for i in range(1, len(pieces)) if abs(len(pieces[i]) - len(pieces[i - 1])) < within)
+
+
+def occurrences(text_lower, phrase):
+    return sum(1 for i in range(len(text_lower)) if text_lower.startswith(phrase, i))
+
+
+def features(text):
+    sentences = re.split(r'[.!?]+', text)
+    paragraphs = text.split('\n\n')
+    text_lower = text.lower()
+    return {
+        "length": len(text),
+        "sentences": len(sentences),
+        "similarSentencePairs": similar_pairs(sentences, 10),
+        "paragraphs": len(paragraphs),
+        "similarParagraphPairs": similar_pairs(paragraphs, 50),
+        "genericPhrases": sum(1 for phrase in GENERIC_PHRASES if phrase in text_lower),
+        "genericPhraseOccurrences": sum(occurrences(text_lower, phrase) for phrase in GENERIC_PHRASES),
+    }
+
+
+def sentence(rng, n):
+    return " ".join(rng.choice(WORDS) for _ in range(n))
+
+
+def paragraph(rng, sentences, words):
+    parts = []
+    for _ in range(sentences):
+        text = sentence(rng, words + rng.randint(-1, 1))
+        if rng.random() < 0.3:
+            text = rng.choice(GENERIC_PHRASES).capitalize() + " " + text
+        parts.append(text + rng.choice([".", ".", "!", "?", "..."]))
+    return " ".join(parts)
+
+
+def cases():
+    yield "empty", ""
+    yield "empty", "."
+    yield "empty", "\n\n"
+
+    # Terminator runs: one split per run, empty pieces at either end
+    yield "terminators", "...Hello there. How are you?"
+    yield "terminators", "?!Start of the text"
+    yield "terminators", "End of the text!!!"
+    yield "terminators", "a.b.c."
+    yield "terminators", "..."
+    yield "terminators", "One. Two! Three? Four?! Five.?! Six"
+    yield "terminators", ".One sentence here. Another sentence. A third sentence.."
+
+    # Paragraph separators are taken left to right and do not overlap
+    yield "paragraphs", "first\n\nsecond"
+    yield "paragraphs", "first\n\n\nsecond"
+    yield "paragraphs", "first\n\n\n\nsecond"
+    yield "paragraphs", "first\n\n\n\n\nsecond"
+    yield "paragraphs", "\n\n\n"
+    yield "paragraphs", "\n\n\n\nx\n\n\n\n\n"
+    yield "paragraphs", "\n\nleading and trailing\n\n"
+    yield "paragraphs", "windows\r\n\r\nline ends"
+    yield "paragraphs", "a" * 60 + "\n\n" + "b" * 10 + "\n\n\n" + "c" * 59
+
+    # Phrases that overlap each other or themselves
+    yield "overlap", "furthermoreover"
+    yield "overlap", "in conclusionin conclusion"
+    yield "overlap", "it is clear thatit is clear that"
+    yield "overlap", "it is worth noting it is important to note that it is clear that"
+    yield "overlap", "additionallyadditionally, moreovermoreover"
+    yield "overlap", "it can be seen that it should be noted"
+    yield "overlap", "it is it is important to"
+
+    # Case folding, including chars whose lowercase form is longer or outside ASCII
+    yield "case", "FURTHERMORE, MOREOVER"
+    yield "case", "In Conclusion. It Is Clear That"
+    yield "case", "İT IS IMPORTANT TO note. Furthermore"
+    yield "case", "İt is clear that. In conclusion"
+    yield "case", "It İs important to. Moreover"
+    yield "case", "Ｆurthermore and Ｍoreover"
+    yield "case", "Keep going. Additionally, moreover"
+    yield "case", "ΜΟΡΕΟΒΕΡ Σ. furthermore. MOREOVER"
+    yield "case", "STRASSE straße. Additionallý moreover"
+
+    # Astral chars are one char to Python's len
+    yield "astral", "\U0001f600\U0001f600\U0001f600. \U0001f600. \U0001f600\U0001f600."
+    yield "astral", "\U00010400bc. abc. abcd. \U00010400\U00010400"
+    yield "astral", "\U0001f4dd" * 55 + "\n\n" + "x" * 10
+
+    rng = random.Random(20240715)
+    for _ in range(30):
+        text = "\n\n".join(paragraph(rng, rng.randint(1, 6), rng.randint(4, 12))
+                           for _ in range(rng.randint(1, 5)))
+        yield "random", text
+    # Uniform sentences and paragraphs, which push the score over the threshold
+    for _ in range(20):
+        words = rng.randint(5, 9)
+        text = "\n\n".join(paragraph(rng, 4, words) for _ in range(rng.randint(2, 4)))
+        yield "uniform", text
+
+
+def main():
+    service = AISimilarityService()
+    path = os.path.join(HERE, "golden.ndjson")
+    with open(path, "w", encoding="utf-8") as out:
+        for kind, text in cases():
+            ai_detected, confidence = service.detect_ai_generated(text)
+            row = {"kind": kind, "text": text, "features": features(text),
+                   "aiDetected": ai_detected, "confidence": round(confidence, 4)}
+            out.write(json.dumps(row, ensure_ascii=False) + "\n")
+
+
+if __name__ == "__main__":
+    main()
@@ -0,0 +1,98 @@
+"""
+Regenerates golden.ndjson, the (text1, text2, python_ratio) triples SimilarityEngineTest
+checks against, from AISimilarityService.calculate_similarity in ai_similarity.py.
+
+    cd backend && python3 src/test/resources/similarity/generate_golden.py
+
+Only BMP text is used, which SimilarityEngine scores the same as Python.
+"""
+import difflib
+import json
+import os
+import random
+import sys
+
+HERE = os.path.dirname(os.path.abspath(__file__))
+sys.path.insert(0, os.path.join(HERE, "..", "..", "..", "..", "ai_service"))
+
+from ai_similarity import AISimilarityService  # noqa: E402
+
+WORDS = ("the quick brown fox jumps over lazy dog students essay research paper analysis "
+         "results method data evidence history culture science theory argument source "
+         "café naïve résumé straße über déjà vu façade Ελλάδα москва 東京 İstanbul").split()
+
+
+def sentence(rng, n):
+    return " ".join(rng.choice(WORDS) for _ in range(n))
+
+
+def mutate(rng, text, rate):
+    chars = list(text)
+    out = []
+    for c in chars:
+        r = rng.random()
+        if r < rate / 3:
+            continue
+        if r < 2 * rate / 3:
+            out.append(rng.choice("abcdefghij .,"))
+            continue
+        out.append(c)
+        if r < rate:
+            out.append(rng.choice("xyz "))
+    return "".join(out)
+
+
+def cases():
+    # Empty inputs and exact matches
+    yield "empty", "", "some text"
+    yield "empty", "some text", ""
+    yield "identical", "Plagiarism check", "Plagiarism check"
+    yield "disjoint", "aaaa", "bbbb"
+
+    # Cleaning: strip, collapse every Python whitespace run, lowercase
+    yield "whitespace", "  Hello\t\tWorld \n", "hello world"
+    yield "whitespace", "line one\r\n\r\nline two", "line one line two"
+    yield "whitespace", "non\u00a0breaking\u2003em\u3000ideographic", "non breaking em ideographic"
+    yield "whitespace", "\x1c\x1dfile\x1eseparators\x1f\x85", "file separators"
+    yield "whitespace", "zero\u200bwidth\u2028space", "zero width space"
+    yield "unicode", "İstanbul", "istanbul"
+    yield "unicode", "STRASSE", "straße"
+    yield "unicode", "Résumé Café", "resume cafe"
+    yield "unicode", "ΟΔΥΣΣΕΥΣ", "οδυσσευς"
+    yield "unicode", "Σ ΑΣ. ΑΣ'Β ΑΣ\u0301", "σ ας. ασ'β ας\u0301"
+    yield "unicode", "東京の大学で勉強する", "東京で勉強している"
+
+    # Half-even rounding of exact binary ties: 1/32 and 5/32 round down, 19/32 up
+    yield "rounding", "a" + "b" * 31, "a" + "c" * 31
+    yield "rounding", "aaaaa" + "b" * 27, "aaaaa" + "c" * 27
+    yield "rounding", "a" * 19 + "b" * 13, "a" * 19 + "c" * 13
+
+    rng = random.Random(20240602)
+    # Short snippets, below the autojunk length
+    for _ in range(40):
+        text = sentence(rng, rng.randint(3, 25))
+        yield "short", text, mutate(rng, text, rng.choice([0.05, 0.2, 0.5]))
+    # Long texts where b has 200+ chars and popular characters are dropped from b2j
+    for _ in range(40):
+        text = sentence(rng, rng.randint(40, 250))
+        yield "autojunk", mutate(rng, text, rng.choice([0.02, 0.1, 0.3])), text
+    for _ in range(10):
+        yield "autojunk", sentence(rng, rng.randint(40, 120)), sentence(rng, rng.randint(40, 120))
+
+
+def main():
+    service = AISimilarityService()
+    path = os.path.join(HERE, "golden.ndjson")
+    with open(path, "w", encoding="utf-8") as out:
+        for kind, text1, text2 in cases():
+            ratio = service.calculate_similarity(text1, text2)
+            row = {"kind": kind, "text1": text1, "text2": text2, "ratio": ratio}
+            if kind == "autojunk":
+                a, b = service._clean_text(text1), service._clean_text(text2)
+                row["autojunkChangesRatio"] = (
+                    round(difflib.SequenceMatcher(None, a, b, autojunk=False).ratio(), 4) != ratio)
+            out.write(json.dumps(row, ensure_ascii=False) + "\n")
+
+
+if __name__ == "__main__":
+    main()
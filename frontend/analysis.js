@@ -266,7 +266,7 @@ class AnalysisPage {
     
     async loadHistory() {
         try {
-            const response = await fetch(`${this.apiBaseUrl}/history?page=0&size=10`, {
+            const response = await fetch(`${this.apiBaseUrl}/history?size=10`, {
                 headers: {
                     'Authorization': `Bearer ${this.token}`
                 }
@@ -309,7 +309,7 @@ class AnalysisPage {
             
             historyHtml += `
                 <div class="history-item" onclick="analysisPage.viewHistoryItem(${item.id})">
-                    <div class="history-text">${item.searchQuery.substring(0, 100)}${item.searchQuery.length > 100 ? '...' : ''}</div>
+                    <div class="history-text">${(item.preview || '').substring(0, 100)}${(item.textLength || 0) > 100 ? '...' : ''}</div>
                     <div class="history-meta">
                         <span>Similarity: ${similarity}</span>
                         <span>Status: ${status}</span>